@@ -0,0 +1,74 @@
+// k6 load test for the driver location ingest path (PUT /api/drivers/{id}/location[s]).
+//
+// Target: 20k location updates per second against one instance, with p99 under 50 ms and no errors.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e DRIVERS=drivers.csv -e RATE=20000 loadtest/driver-location-ingest.js
+//
+// DRIVERS is a CSV of "driverId,accessToken" lines for registered DELIVERY_PARTNER users. Each driver may
+// send rate-limit.profiles.driver-location.per-minute requests, so use at least RATE / 2 drivers at the
+// default of 120, or raise the limit for the run. BATCH > 1 sends that many pings per request instead.
+import http from 'k6/http';
+import { check } from 'k6';
+import { SharedArray } from 'k6/data';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = parseInt(__ENV.RATE || '20000', 10);
+const BATCH = parseInt(__ENV.BATCH || '1', 10);
+const DURATION = __ENV.DURATION || '2m';
+
+const drivers = new SharedArray('drivers', () =>
+  open(__ENV.DRIVERS || 'drivers.csv')
+    .split('\n')
+    .filter((line) => line.trim().length > 0)
+    .map((line) => {
+      const [id, token] = line.trim().split(',');
+      return { id, token };
+    })
+);
+
+export const options = {
+  scenarios: {
+    ingest: {
+      executor: 'constant-arrival-rate',
+      // One iteration is one request; a batch carries BATCH updates
+      rate: Math.ceil(RATE / BATCH),
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 500,
+      maxVUs: 4000,
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate==0'],
+    http_req_duration: ['p(99)<50'],
+  },
+};
+
+function ping() {
+  return {
+    latitude: 12.9 + Math.random() * 0.2,
+    longitude: 77.5 + Math.random() * 0.2,
+  };
+}
+
+export default function () {
+  const driver = drivers[(__VU * 7919 + __ITER) % drivers.length];
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+      Authorization: `Bearer ${driver.token}`,
+    },
+  };
+
+  let response;
+  if (BATCH > 1) {
+    const pings = [];
+    for (let i = 0; i < BATCH; i++) {
+      pings.push(ping());
+    }
+    response = http.put(`${BASE_URL}/api/drivers/${driver.id}/locations`, JSON.stringify({ pings }), params);
+  } else {
+    response = http.put(`${BASE_URL}/api/drivers/${driver.id}/location`, JSON.stringify(ping()), params);
+  }
+  check(response, { 'status is 204': (r) => r.status === 204 });
+}
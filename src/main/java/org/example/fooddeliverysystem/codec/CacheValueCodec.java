@@ -0,0 +1,28 @@
+package org.example.fooddeliverysystem.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Compact binary encoding for one cached value type.
+ * <p>
+ * Every entry is tagged with the schema version it was written with. When the layout changes, bump
+ * {@link #schemaVersion()} and keep decoding the older versions, so instances in a rolling deploy can
+ * read each other's entries until they expire.
+ */
+public interface CacheValueCodec<T> {
+
+    /**
+     * Stable id written into every entry; never reuse an id for a different type
+     */
+    byte typeId();
+
+    byte schemaVersion();
+
+    boolean canEncode(Object value);
+
+    void encode(T value, DataOutputStream out) throws IOException;
+
+    T decode(byte schemaVersion, DataInputStream in) throws IOException;
+}
@@ -0,0 +1,100 @@
+package org.example.fooddeliverysystem.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Field-level helpers shared by the cache codecs. All reference types are nullable.
+ */
+public final class CodecIO {
+
+    private CodecIO() {
+        // Utility class
+    }
+
+    public static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    // Length is stored +1 so that 0 can mean null
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    public static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    // Seconds since epoch (UTC) plus nanos; null is written as a zero marker byte
+    public static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(out, value.toEpochSecond(ZoneOffset.UTC));
+            writeVarLong(out, value.getNano());
+        }
+    }
+
+    public static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long epochSecond = readVarLong(in);
+        int nanos = (int) readVarLong(in);
+        return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+    }
+
+    public static void writeTime(DataOutputStream out, LocalTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(out, value.toNanoOfDay());
+        }
+    }
+
+    public static LocalTime readTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalTime.ofNanoOfDay(readVarLong(in)) : null;
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.fooddeliverysystem.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Redis value serializer that writes registered types with their {@link CacheValueCodec} and
+ * everything else with the fallback (JSON) serializer.
+ * <p>
+ * Binary entries start with a header: magic byte, flags, type id, schema version. Payloads larger than the
+ * compression threshold are deflated. Entries without the magic byte are legacy JSON and are always readable,
+ * so the format can be switched on with {@code binaryWrites} after every instance runs this serializer.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    // Never the first byte of a JSON document
+    static final byte MAGIC = (byte) 0xCB;
+    private static final int HEADER_SIZE = 4;
+    private static final int FLAG_DEFLATED = 1;
+
+    private final RedisSerializer<Object> fallback;
+    private final List<CacheValueCodec<?>> codecs;
+    private final CacheValueCodec<?>[] codecsByTypeId = new CacheValueCodec<?>[256];
+    private final boolean binaryWrites;
+    private final int compressionThreshold;
+
+    public CompactRedisSerializer(RedisSerializer<Object> fallback,
+                                  List<CacheValueCodec<?>> codecs,
+                                  boolean binaryWrites,
+                                  int compressionThreshold) {
+        this.fallback = fallback;
+        this.codecs = codecs;
+        this.binaryWrites = binaryWrites;
+        this.compressionThreshold = compressionThreshold;
+        for (CacheValueCodec<?> codec : codecs) {
+            int typeId = codec.typeId() & 0xFF;
+            if (codecsByTypeId[typeId] != null) {
+                throw new IllegalArgumentException("Duplicate cache codec type id " + typeId);
+            }
+            codecsByTypeId[typeId] = codec;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null || !binaryWrites) {
+            return fallback.serialize(value);
+        }
+        CacheValueCodec<Object> codec = (CacheValueCodec<Object>) findCodec(value);
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+            codec.encode(value, new DataOutputStream(payload));
+
+            byte[] body = payload.toByteArray();
+            int flags = 0;
+            if (body.length > compressionThreshold) {
+                byte[] deflated = deflate(body);
+                // Only keep the compressed form when it actually saves space
+                if (deflated.length < body.length) {
+                    body = deflated;
+                    flags |= FLAG_DEFLATED;
+                }
+            }
+
+            byte[] result = new byte[HEADER_SIZE + body.length];
+            result[0] = MAGIC;
+            result[1] = (byte) flags;
+            result[2] = codec.typeId();
+            result[3] = codec.schemaVersion();
+            System.arraycopy(body, 0, result, HEADER_SIZE, body.length);
+            return result;
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("Truncated cache entry");
+        }
+
+        CacheValueCodec<?> codec = codecsByTypeId[bytes[2] & 0xFF];
+        if (codec == null) {
+            throw new SerializationException("Unknown cache codec type id " + (bytes[2] & 0xFF));
+        }
+        try {
+            byte[] body;
+            if ((bytes[1] & FLAG_DEFLATED) != 0) {
+                body = inflate(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            } else {
+                body = bytes;
+            }
+            int offset = body == bytes ? HEADER_SIZE : 0;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, offset, body.length - offset));
+            return codec.decode(bytes[3], in);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not decode cache entry of type " + (bytes[2] & 0xFF), e);
+        }
+    }
+
+    private CacheValueCodec<?> findCodec(Object value) {
+        for (CacheValueCodec<?> codec : codecs) {
+            if (codec.canEncode(value)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed cache entry");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.fooddeliverysystem.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.example.fooddeliverysystem.dto.fooditem.FoodItemResponse;
+
+import static org.example.fooddeliverysystem.codec.CodecIO.*;
+
+/**
+ * Restaurant menus, i.e. a List of FoodItemResponse.
+ * The restaurant id is shared by every item of a menu, so it is written once when possible.
+ */
+public class MenuCodec implements CacheValueCodec<List<FoodItemResponse>> {
+
+    @Override
+    public byte typeId() {
+        return 2;
+    }
+
+    @Override
+    public byte schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return false;
+        }
+        for (Object item : list) {
+            if (!(item instanceof FoodItemResponse)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void encode(List<FoodItemResponse> value, DataOutputStream out) throws IOException {
+        String sharedRestaurantId = value.isEmpty() ? null : value.get(0).getRestaurantId();
+        for (FoodItemResponse item : value) {
+            if (!Objects.equals(sharedRestaurantId, item.getRestaurantId())) {
+                sharedRestaurantId = null;
+                break;
+            }
+        }
+
+        writeVarLong(out, value.size());
+        out.writeBoolean(sharedRestaurantId != null);
+        if (sharedRestaurantId != null) {
+            writeString(out, sharedRestaurantId);
+        }
+        for (FoodItemResponse item : value) {
+            writeString(out, item.getId());
+            if (sharedRestaurantId == null) {
+                writeString(out, item.getRestaurantId());
+            }
+            writeString(out, item.getName());
+            writeString(out, item.getDescription());
+            writeString(out, item.getImgUrl());
+            writeDouble(out, item.getPrice());
+            out.writeByte((item.isAvailable() ? 1 : 0) | (item.isDeleted() ? 2 : 0));
+            writeString(out, item.getMetadata());
+            writeDateTime(out, item.getCreatedAt());
+            writeDateTime(out, item.getUpdatedAt());
+        }
+    }
+
+    @Override
+    public List<FoodItemResponse> decode(byte schemaVersion, DataInputStream in) throws IOException {
+        if (schemaVersion != 1) {
+            throw new IOException("Unsupported menu schema version " + schemaVersion);
+        }
+        int size = (int) readVarLong(in);
+        String sharedRestaurantId = in.readBoolean() ? readString(in) : null;
+
+        List<FoodItemResponse> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            FoodItemResponse item = new FoodItemResponse();
+            item.setId(readString(in));
+            item.setRestaurantId(sharedRestaurantId != null ? sharedRestaurantId : readString(in));
+            item.setName(readString(in));
+            item.setDescription(readString(in));
+            item.setImgUrl(readString(in));
+            item.setPrice(readDouble(in));
+            byte flags = in.readByte();
+            item.setAvailable((flags & 1) != 0);
+            item.setDeleted((flags & 2) != 0);
+            item.setMetadata(readString(in));
+            item.setCreatedAt(readDateTime(in));
+            item.setUpdatedAt(readDateTime(in));
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.fooddeliverysystem.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.fooddeliverysystem.dto.restaurant.RestaurantListResponse;
+import org.example.fooddeliverysystem.dto.restaurant.RestaurantResponse;
+
+import static org.example.fooddeliverysystem.codec.CodecIO.*;
+
+/**
+ * Cached restaurant listing pages; each restaurant uses the {@link RestaurantResponseCodec} layout.
+ */
+public class RestaurantPageCodec implements CacheValueCodec<RestaurantListResponse> {
+
+    private final RestaurantResponseCodec restaurantCodec = new RestaurantResponseCodec();
+
+    @Override
+    public byte typeId() {
+        return 3;
+    }
+
+    @Override
+    public byte schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+        return value instanceof RestaurantListResponse;
+    }
+
+    @Override
+    public void encode(RestaurantListResponse value, DataOutputStream out) throws IOException {
+        // total is -1 for slices, so it is shifted to stay a non-negative varint
+        writeVarLong(out, value.getTotal() + 1);
+        writeVarLong(out, value.getPage());
+        writeVarLong(out, value.getSize());
+        out.writeBoolean(value.isHasNext());
+        writeVarLong(out, value.getRestaurants().size());
+        for (RestaurantResponse restaurant : value.getRestaurants()) {
+            restaurantCodec.encode(restaurant, out);
+        }
+    }
+
+    @Override
+    public RestaurantListResponse decode(byte schemaVersion, DataInputStream in) throws IOException {
+        if (schemaVersion != 1) {
+            throw new IOException("Unsupported restaurant page schema version " + schemaVersion);
+        }
+        long total = readVarLong(in) - 1;
+        int page = (int) readVarLong(in);
+        int size = (int) readVarLong(in);
+        boolean hasNext = in.readBoolean();
+        int count = (int) readVarLong(in);
+
+        List<RestaurantResponse> restaurants = new ArrayList<>(count);
+        // Bump this codec's version whenever the restaurant layout changes
+        for (int i = 0; i < count; i++) {
+            restaurants.add(restaurantCodec.decode(restaurantCodec.schemaVersion(), in));
+        }
+        return new RestaurantListResponse(restaurants, total, page, size, hasNext);
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.fooddeliverysystem.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.example.fooddeliverysystem.dto.restaurant.RestaurantResponse;
+
+import static org.example.fooddeliverysystem.codec.CodecIO.*;
+
+public class RestaurantResponseCodec implements CacheValueCodec<RestaurantResponse> {
+
+    @Override
+    public byte typeId() {
+        return 1;
+    }
+
+    @Override
+    public byte schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+        return value instanceof RestaurantResponse;
+    }
+
+    @Override
+    public void encode(RestaurantResponse value, DataOutputStream out) throws IOException {
+        writeString(out, value.getId());
+        writeString(out, value.getUserId());
+        writeString(out, value.getRestaurantName());
+        writeString(out, value.getCity());
+        writeString(out, value.getState());
+        writeString(out, value.getZipCode());
+        writeDouble(out, value.getLatitude());
+        writeDouble(out, value.getLongitude());
+        writeTime(out, value.getOpeningTime());
+        writeTime(out, value.getClosingTime());
+        writeString(out, value.getImgUrl());
+        out.writeBoolean(value.isOpen());
+        writeString(out, value.getMetadata());
+        writeDateTime(out, value.getCreatedAt());
+        writeDateTime(out, value.getUpdatedAt());
+    }
+
+    @Override
+    public RestaurantResponse decode(byte schemaVersion, DataInputStream in) throws IOException {
+        if (schemaVersion != 1) {
+            throw new IOException("Unsupported RestaurantResponse schema version " + schemaVersion);
+        }
+        RestaurantResponse value = new RestaurantResponse();
+        value.setId(readString(in));
+        value.setUserId(readString(in));
+        value.setRestaurantName(readString(in));
+        value.setCity(readString(in));
+        value.setState(readString(in));
+        value.setZipCode(readString(in));
+        value.setLatitude(readDouble(in));
+        value.setLongitude(readDouble(in));
+        value.setOpeningTime(readTime(in));
+        value.setClosingTime(readTime(in));
+        value.setImgUrl(readString(in));
+        value.setOpen(in.readBoolean());
+        value.setMetadata(readString(in));
+        value.setCreatedAt(readDateTime(in));
+        value.setUpdatedAt(readDateTime(in));
+        return value;
+    }
+}
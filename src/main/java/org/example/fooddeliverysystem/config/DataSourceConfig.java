@@ -0,0 +1,114 @@
+package org.example.fooddeliverysystem.config;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Primary and replica pools behind one routing DataSource.
+ * {@code @Transactional(readOnly = true)} reads go to the replica; writes, and work outside a transaction
+ * (including Flyway), go to the primary.
+ * The pool is picked per transaction, which relies on open-in-view being off and Hibernate releasing the
+ * connection after each transaction (application.properties).
+ */
+@Configuration
+public class DataSourceConfig {
+    
+    @Value("${spring.datasource.url}")
+    private String primaryUrl;
+    
+    @Value("${spring.datasource.username}")
+    private String primaryUsername;
+    
+    @Value("${spring.datasource.password}")
+    private String primaryPassword;
+    
+    @Value("${spring.datasource.driver-class-name:org.postgresql.Driver}")
+    private String driverClassName;
+    
+    @Value("${datasource.replica.url}")
+    private String replicaUrl;
+    
+    @Value("${datasource.replica.username}")
+    private String replicaUsername;
+    
+    @Value("${datasource.replica.password}")
+    private String replicaPassword;
+    
+    @Value("${datasource.replica.maximum-pool-size:10}")
+    private int replicaPoolSize;
+    
+    @Value("${datasource.replica.max-lag-ms:1000}")
+    private long maxLagMillis;
+    
+    @Value("${datasource.replica.read-your-writes-window-ms:2000}")
+    private long readYourWritesWindowMillis;
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(driverClassName)
+            .url(primaryUrl)
+            .username(primaryUsername)
+            .password(primaryPassword)
+            .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(driverClassName)
+            .url(replicaUrl)
+            .username(replicaUsername)
+            .password(replicaPassword)
+            .build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(replicaPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaDataSource, maxLagMillis, meterRegistry);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+            primaryDataSource,
+            replicaDataSource,
+            replicaLagMonitor,
+            Duration.ofMillis(readYourWritesWindowMillis));
+        routing.afterPropertiesSet();
+        
+        // Defer picking a pool until the first statement, when the transaction's read-only flag is set
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+}
@@ -5,21 +5,33 @@ import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class KafkaConfig {
     
@@ -29,43 +41,158 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
     
+    @Value("${kafka.consumer.concurrency:3}")
+    private int consumerConcurrency;
+    
+    @Value("${kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+    
+    @Value("${kafka.consumer.retry.max-attempts:3}")
+    private int consumerMaxRetries;
+    
+    @Value("${kafka.consumer.retry.initial-interval-ms:500}")
+    private long consumerRetryInitialIntervalMs;
+    
+    @Value("${kafka.consumer.retry.max-interval-ms:10000}")
+    private long consumerRetryMaxIntervalMs;
+    
+    // Order and delivery events: durable and latency-sensitive
+    @Value("${kafka.producer.events.linger-ms:5}")
+    private int eventsLingerMs;
+    
+    @Value("${kafka.producer.events.batch-size:65536}")
+    private int eventsBatchSize;
+    
+    @Value("${kafka.producer.events.compression-type:lz4}")
+    private String eventsCompressionType;
+    
+    // Analytics events: high volume, can trade a little latency and durability for throughput
+    @Value("${kafka.producer.analytics.linger-ms:50}")
+    private int analyticsLingerMs;
+    
+    @Value("${kafka.producer.analytics.batch-size:262144}")
+    private int analyticsBatchSize;
+    
+    @Value("${kafka.producer.analytics.compression-type:zstd}")
+    private String analyticsCompressionType;
+    
+    @Value("${kafka.producer.analytics.acks:1}")
+    private String analyticsAcks;
+    
+    // Bounded client-side buffer: when the broker is slow, send() blocks for at most max-block-ms and then fails,
+    // leaving the events in the outbox instead of growing the heap
+    @Value("${kafka.producer.buffer-memory:33554432}")
+    private long bufferMemory;
+    
+    @Value("${kafka.producer.max-block-ms:2000}")
+    private long maxBlockMs;
+    
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    @Primary
+    public ProducerFactory<String, String> producerFactory(MeterRegistry meterRegistry) {
+        Map<String, Object> configProps = baseProducerConfig();
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, eventsLingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, eventsBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, eventsCompressionType);
+        return instrumented(new DefaultKafkaProducerFactory<>(configProps), meterRegistry);
     }
     
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public ProducerFactory<String, String> analyticsProducerFactory(MeterRegistry meterRegistry) {
+        Map<String, Object> configProps = baseProducerConfig();
+        configProps.put(ProducerConfig.ACKS_CONFIG, analyticsAcks);
+        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
+        // Idempotence requires acks=all
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "all".equals(analyticsAcks));
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, analyticsLingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, analyticsBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, analyticsCompressionType);
+        configProps.put(ProducerConfig.CLIENT_ID_CONFIG, "analytics-producer");
+        return instrumented(new DefaultKafkaProducerFactory<>(configProps), meterRegistry);
     }
     
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    @Primary
+    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+    
+    @Bean
+    public KafkaTemplate<String, String> analyticsKafkaTemplate(
+            @Qualifier("analyticsProducerFactory") ProducerFactory<String, String> analyticsProducerFactory) {
+        return new KafkaTemplate<>(analyticsProducerFactory);
+    }
+    
+    private Map<String, Object> baseProducerConfig() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        return configProps;
+    }
+    
+    // Exposes the client's own metrics (batch-size-avg, record-send-rate, buffer-available-bytes, ...)
+    private static ProducerFactory<String, String> instrumented(DefaultKafkaProducerFactory<String, String> factory,
+                                                                MeterRegistry meterRegistry) {
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+    
+    @Bean
+    public ConsumerFactory<String, String> consumerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        // Offsets are committed by the container once a whole batch has been processed
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        DefaultKafkaConsumerFactory<String, String> factory = new DefaultKafkaConsumerFactory<>(configProps);
+        // Exposes client metrics, including records-lag-max per partition
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
     
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
+            ConsumerFactory<String, String> consumerFactory,
+            KafkaTemplate<String, String> kafkaTemplate) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(consumerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(errorHandler(kafkaTemplate));
         return factory;
     }
     
+    /**
+     * Listeners throw BatchListenerFailedException for the failing record: earlier records in the batch are
+     * committed, the failing one is retried with exponential backoff and then moved to its dead-letter topic.
+     * Records that can never be parsed skip the retries.
+     */
+    private DefaultErrorHandler errorHandler(KafkaTemplate<String, String> kafkaTemplate) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+            (record, exception) -> new TopicPartition(record.topic() + KafkaTopics.DEAD_LETTER_SUFFIX, -1));
+        
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(consumerMaxRetries);
+        backOff.setInitialInterval(consumerRetryInitialIntervalMs);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(consumerRetryMaxIntervalMs);
+        
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(JsonProcessingException.class);
+        return errorHandler;
+    }
+    
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
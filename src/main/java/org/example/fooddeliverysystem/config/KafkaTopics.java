@@ -8,6 +8,9 @@ public class KafkaTopics {
     public static final String RESTAURANT_EVENTS = "restaurant-events";
     public static final String DRIVER_EVENTS = "driver-events";
     
+    // Appended to a topic name for records that failed all retries
+    public static final String DEAD_LETTER_SUFFIX = ".DLT";
+    
     private KafkaTopics() {
         // Utility class
     }
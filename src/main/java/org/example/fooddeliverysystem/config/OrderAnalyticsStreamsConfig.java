@@ -0,0 +1,321 @@
+package org.example.fooddeliverysystem.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.example.fooddeliverysystem.dto.event.OrderEvent;
+import org.example.fooddeliverysystem.enums.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Kafka Streams topology over order-events that keeps dashboard aggregates in local windowed state stores.
+ * The stores are read through {@link org.example.fooddeliverysystem.service.OrderAnalyticsQueryService}.
+ */
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(name = "analytics.streams.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderAnalyticsStreamsConfig {
+
+    public static final String ORDERS_PER_RESTAURANT_STORE = "orders-per-restaurant-per-minute";
+    public static final String REVENUE_PER_CITY_STORE = "revenue-per-city";
+    public static final String OUTCOMES_PER_RESTAURANT_STORE = "order-outcomes-per-restaurant";
+    public static final String DELIVERY_TIME_PER_RESTAURANT_STORE = "delivery-time-per-restaurant";
+    private static final String PREP_START_STORE = "order-prep-start";
+
+    // How often the prep-start store is swept for orders that never finished
+    private static final Duration PREP_START_SWEEP_INTERVAL = Duration.ofMinutes(10);
+
+    private static final String ORDER_CREATED = "ORDER_CREATED";
+    private static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${analytics.streams.application-id:food-delivery-analytics}")
+    private String applicationId;
+
+    // host:port of this instance, needed to route interactive queries when several instances run
+    @Value("${analytics.streams.application-server:}")
+    private String applicationServer;
+
+    @Value("${analytics.streams.state-dir:/tmp/kafka-streams}")
+    private String stateDir;
+
+    @Value("${analytics.streams.num-threads:2}")
+    private int numThreads;
+
+    @Value("${analytics.streams.summary-window-minutes:60}")
+    private long summaryWindowMinutes;
+
+    @Value("${analytics.streams.grace-minutes:5}")
+    private long graceMinutes;
+
+    @Value("${analytics.streams.retention-hours:48}")
+    private long retentionHours;
+
+    @Value("${analytics.streams.prep-start-retention-hours:24}")
+    private long prepStartRetentionHours;
+
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration kafkaStreamsConfig() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, numThreads);
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        // A malformed event is logged and skipped instead of stopping the topology
+        props.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG, LogAndContinueExceptionHandler.class);
+        if (!applicationServer.isBlank()) {
+            props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, applicationServer);
+        }
+        return new KafkaStreamsConfiguration(props);
+    }
+
+    @Bean
+    public KafkaStreamsInteractiveQueryService kafkaStreamsInteractiveQueryService(StreamsBuilderFactoryBean streamsBuilderFactoryBean) {
+        return new KafkaStreamsInteractiveQueryService(streamsBuilderFactoryBean);
+    }
+
+    @Bean
+    public KStream<String, OrderEvent> orderAnalyticsStream(StreamsBuilder builder, ObjectMapper objectMapper) {
+        Serde<OrderEvent> eventSerde = jsonSerde(objectMapper, OrderEvent.class);
+        Serde<OrderOutcomeCounts> outcomeSerde = jsonSerde(objectMapper, OrderOutcomeCounts.class);
+        Serde<DurationStats> durationSerde = jsonSerde(objectMapper, DurationStats.class);
+
+        Duration grace = Duration.ofMinutes(graceMinutes);
+        Duration retention = Duration.ofHours(retentionHours);
+        TimeWindows perMinute = TimeWindows.ofSizeAndGrace(Duration.ofMinutes(1), grace);
+        TimeWindows summaryWindow = TimeWindows.ofSizeAndGrace(Duration.ofMinutes(summaryWindowMinutes), grace);
+
+        // Windows follow the time the event happened, not when the outbox relay got it to Kafka
+        KStream<String, OrderEvent> events = builder.stream(KafkaTopics.ORDER_EVENTS,
+            Consumed.with(Serdes.String(), eventSerde).withTimestampExtractor(new OrderEventTimestampExtractor()));
+
+        // Orders per minute per restaurant
+        events.filter((orderId, event) -> ORDER_CREATED.equals(event.getEventType()) && event.getRestaurantId() != null)
+            .groupBy((orderId, event) -> event.getRestaurantId(), Grouped.with(Serdes.String(), eventSerde))
+            .windowedBy(perMinute)
+            .count(Materialized.<String, Long, WindowStore<Bytes, byte[]>>as(ORDERS_PER_RESTAURANT_STORE)
+                .withRetention(retention));
+
+        // Delivered revenue per city
+        events.filter((orderId, event) -> isStatusChange(event, OrderStatus.DELIVERED)
+                && event.getCity() != null && event.getAmount() != null)
+            .groupBy((orderId, event) -> event.getCity(), Grouped.with(Serdes.String(), eventSerde))
+            .windowedBy(summaryWindow)
+            .aggregate(() -> 0.0, (city, event, total) -> total + event.getAmount(),
+                Materialized.<String, Double, WindowStore<Bytes, byte[]>>as(REVENUE_PER_CITY_STORE)
+                    .withValueSerde(Serdes.Double())
+                    .withRetention(retention));
+
+        // Delivered vs cancelled orders per restaurant, for cancellation rates
+        events.filter((orderId, event) -> event.getRestaurantId() != null
+                && (isStatusChange(event, OrderStatus.DELIVERED) || isStatusChange(event, OrderStatus.CANCELLED)))
+            .groupBy((orderId, event) -> event.getRestaurantId(), Grouped.with(Serdes.String(), eventSerde))
+            .windowedBy(summaryWindow)
+            .aggregate(OrderOutcomeCounts::new, (restaurantId, event, counts) -> counts.add(event.getOrderStatus()),
+                Materialized.<String, OrderOutcomeCounts, WindowStore<Bytes, byte[]>>as(OUTCOMES_PER_RESTAURANT_STORE)
+                    .withValueSerde(outcomeSerde)
+                    .withRetention(retention));
+
+        // PREPARING -> DELIVERED duration per restaurant
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+            Stores.persistentKeyValueStore(PREP_START_STORE), Serdes.String(), Serdes.Long()));
+        Duration prepStartRetention = Duration.ofHours(prepStartRetentionHours);
+        events.process(() -> new PrepToDeliveryProcessor(prepStartRetention), PREP_START_STORE)
+            .groupByKey(Grouped.with(Serdes.String(), Serdes.Long()))
+            .windowedBy(summaryWindow)
+            .aggregate(DurationStats::new, (restaurantId, durationMs, stats) -> stats.add(durationMs),
+                Materialized.<String, DurationStats, WindowStore<Bytes, byte[]>>as(DELIVERY_TIME_PER_RESTAURANT_STORE)
+                    .withValueSerde(durationSerde)
+                    .withRetention(retention));
+
+        return events;
+    }
+
+    private static boolean isStatusChange(OrderEvent event, OrderStatus status) {
+        return ORDER_STATUS_CHANGED.equals(event.getEventType()) && status.name().equals(event.getOrderStatus());
+    }
+
+    static <T> Serde<T> jsonSerde(ObjectMapper objectMapper, Class<T> type) {
+        return Serdes.serdeFrom(
+            (topic, data) -> {
+                if (data == null) {
+                    return null;
+                }
+                try {
+                    return objectMapper.writeValueAsBytes(data);
+                } catch (JsonProcessingException e) {
+                    throw new SerializationException("Error serializing " + type.getSimpleName(), e);
+                }
+            },
+            (topic, bytes) -> {
+                if (bytes == null) {
+                    return null;
+                }
+                try {
+                    return objectMapper.readValue(bytes, type);
+                } catch (IOException e) {
+                    throw new SerializationException("Error deserializing " + type.getSimpleName(), e);
+                }
+            });
+    }
+
+    static class OrderEventTimestampExtractor implements TimestampExtractor {
+        @Override
+        public long extract(ConsumerRecord<Object, Object> record, long partitionTime) {
+            if (record.value() instanceof OrderEvent event && event.getTimestamp() != null) {
+                return event.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+            return record.timestamp() >= 0 ? record.timestamp() : partitionTime;
+        }
+    }
+
+    /**
+     * Remembers when each order started preparing and emits (restaurantId, prep-to-delivery millis) on delivery.
+     * Orders that are never delivered or cancelled are swept out once their prep start is older than the retention.
+     */
+    static class PrepToDeliveryProcessor implements Processor<String, OrderEvent, String, Long> {
+        private final Duration retention;
+        private ProcessorContext<String, Long> context;
+        private KeyValueStore<String, Long> prepStarts;
+
+        PrepToDeliveryProcessor(Duration retention) {
+            this.retention = retention;
+        }
+
+        @Override
+        public void init(ProcessorContext<String, Long> context) {
+            this.context = context;
+            this.prepStarts = context.getStateStore(PREP_START_STORE);
+            context.schedule(PREP_START_SWEEP_INTERVAL, PunctuationType.STREAM_TIME, this::evictBefore);
+        }
+
+        private void evictBefore(long streamTime) {
+            long cutoff = streamTime - retention.toMillis();
+            try (KeyValueIterator<String, Long> iterator = prepStarts.all()) {
+                while (iterator.hasNext()) {
+                    KeyValue<String, Long> entry = iterator.next();
+                    if (entry.value < cutoff) {
+                        prepStarts.delete(entry.key);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void process(Record<String, OrderEvent> record) {
+            OrderEvent event = record.value();
+            if (event == null || !ORDER_STATUS_CHANGED.equals(event.getEventType()) || event.getOrderStatus() == null) {
+                return;
+            }
+            String orderId = record.key() != null ? record.key() : event.getOrderId();
+            if (OrderStatus.PREPARING.name().equals(event.getOrderStatus())) {
+                prepStarts.put(orderId, record.timestamp());
+            } else if (OrderStatus.DELIVERED.name().equals(event.getOrderStatus())) {
+                Long prepStart = prepStarts.delete(orderId);
+                if (prepStart != null && event.getRestaurantId() != null) {
+                    context.forward(record.withKey(event.getRestaurantId()).withValue(record.timestamp() - prepStart));
+                }
+            } else if (OrderStatus.CANCELLED.name().equals(event.getOrderStatus())) {
+                prepStarts.delete(orderId);
+            }
+        }
+    }
+
+    public static class OrderOutcomeCounts {
+        private long delivered;
+        private long cancelled;
+
+        public OrderOutcomeCounts add(String orderStatus) {
+            if (OrderStatus.DELIVERED.name().equals(orderStatus)) {
+                delivered++;
+            } else if (OrderStatus.CANCELLED.name().equals(orderStatus)) {
+                cancelled++;
+            }
+            return this;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        public void setDelivered(long delivered) {
+            this.delivered = delivered;
+        }
+
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        public void setCancelled(long cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+
+    public static class DurationStats {
+        private long count;
+        private long totalMillis;
+
+        public DurationStats add(long durationMillis) {
+            count++;
+            totalMillis += durationMillis;
+            return this;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        public void setTotalMillis(long totalMillis) {
+            this.totalMillis = totalMillis;
+        }
+    }
+}
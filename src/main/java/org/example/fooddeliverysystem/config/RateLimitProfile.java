@@ -0,0 +1,58 @@
+package org.example.fooddeliverysystem.config;
+
+import java.time.Duration;
+
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * One rate-limit policy: capacity tokens, refilled greedily over the refill period, per user or per client IP
+ */
+public class RateLimitProfile {
+
+    private final String name;
+    private final long capacity;
+    private final Duration refillPeriod;
+    private final boolean keyedByIp;
+    private final BucketConfiguration bucketConfiguration;
+
+    public RateLimitProfile(String name, long capacity, Duration refillPeriod, boolean keyedByIp) {
+        this.name = name;
+        this.capacity = capacity;
+        this.refillPeriod = refillPeriod;
+        this.keyedByIp = keyedByIp;
+        this.bucketConfiguration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(capacity).refillGreedy(capacity, refillPeriod))
+            .build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public Duration getRefillPeriod() {
+        return refillPeriod;
+    }
+
+    public boolean isKeyedByIp() {
+        return keyedByIp;
+    }
+
+    public BucketConfiguration getBucketConfiguration() {
+        return bucketConfiguration;
+    }
+
+    public double getTokensPerNano() {
+        return (double) capacity / refillPeriod.toNanos();
+    }
+
+    /**
+     * Seconds until one token is refilled, for Retry-After
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(refillPeriod.toSeconds() / (double) capacity));
+    }
+}
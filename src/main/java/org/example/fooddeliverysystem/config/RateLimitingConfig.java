@@ -2,11 +2,11 @@ package org.example.fooddeliverysystem.config;
 
 import java.time.Duration;
 
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
 import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
 import io.lettuce.core.RedisClient;
@@ -14,6 +14,8 @@ import io.lettuce.core.RedisClient;
 @Configuration
 public class RateLimitingConfig {
     
+    private static final Duration PER_MINUTE = Duration.ofMinutes(1);
+    
     @Value("${spring.data.redis.host:localhost}")
     private String redisHost;
     
@@ -23,6 +25,32 @@ public class RateLimitingConfig {
     @Value("${spring.data.redis.password:}")
     private String redisPassword;
     
+    // Route profiles
+    @Value("${rate-limit.profiles.auth.per-minute:20}")
+    private long authPerMinute;
+    
+    @Value("${rate-limit.profiles.order-create.per-minute:10}")
+    private long orderCreatePerMinute;
+    
+    @Value("${rate-limit.profiles.driver-location.per-minute:120}")
+    private long driverLocationPerMinute;
+    
+    // Role profiles
+    @Value("${rate-limit.profiles.anonymous.per-minute:60}")
+    private long anonymousPerMinute;
+    
+    @Value("${rate-limit.profiles.user.per-minute:100}")
+    private long userPerMinute;
+    
+    @Value("${rate-limit.profiles.restaurant.per-minute:300}")
+    private long restaurantPerMinute;
+    
+    @Value("${rate-limit.profiles.delivery-partner.per-minute:300}")
+    private long deliveryPartnerPerMinute;
+    
+    @Value("${rate-limit.profiles.admin.per-minute:1000}")
+    private long adminPerMinute;
+    
     @Bean
     public RedisClient redisClient() {
         String redisUrl = "redis://" + (redisPassword.isEmpty() ? "" : redisPassword + "@") + redisHost + ":" + redisPort;
@@ -36,9 +64,72 @@ public class RateLimitingConfig {
     }
     
     @Bean
-    public BucketConfiguration defaultBucketConfiguration() {
-        return BucketConfiguration.builder()
-            .addLimit(limit -> limit.capacity(100).refillGreedy(100, Duration.ofMinutes(1)))
-            .build();
+    public RateLimitProfiles rateLimitProfiles() {
+        return new RateLimitProfiles(
+            new RateLimitProfile("auth", authPerMinute, PER_MINUTE, true),
+            new RateLimitProfile("order-create", orderCreatePerMinute, PER_MINUTE, false),
+            new RateLimitProfile("driver-location", driverLocationPerMinute, PER_MINUTE, false),
+            new RateLimitProfile("anonymous", anonymousPerMinute, PER_MINUTE, true),
+            new RateLimitProfile("user", userPerMinute, PER_MINUTE, false),
+            new RateLimitProfile("restaurant", restaurantPerMinute, PER_MINUTE, false),
+            new RateLimitProfile("delivery-partner", deliveryPartnerPerMinute, PER_MINUTE, false),
+            new RateLimitProfile("admin", adminPerMinute, PER_MINUTE, false)
+        );
+    }
+    
+    /**
+     * Picks the profile for a request: route-specific limits first, then the caller's role
+     */
+    public static class RateLimitProfiles {
+        
+        private final RateLimitProfile auth;
+        private final RateLimitProfile orderCreate;
+        private final RateLimitProfile driverLocation;
+        private final RateLimitProfile anonymous;
+        private final RateLimitProfile user;
+        private final RateLimitProfile restaurant;
+        private final RateLimitProfile deliveryPartner;
+        private final RateLimitProfile admin;
+        
+        public RateLimitProfiles(RateLimitProfile auth, RateLimitProfile orderCreate,
+                                 RateLimitProfile driverLocation, RateLimitProfile anonymous,
+                                 RateLimitProfile user, RateLimitProfile restaurant,
+                                 RateLimitProfile deliveryPartner, RateLimitProfile admin) {
+            this.auth = auth;
+            this.orderCreate = orderCreate;
+            this.driverLocation = driverLocation;
+            this.anonymous = anonymous;
+            this.user = user;
+            this.restaurant = restaurant;
+            this.deliveryPartner = deliveryPartner;
+            this.admin = admin;
+        }
+        
+        public RateLimitProfile resolve(String method, String path, AuthenticatedUser principal) {
+            if (path.startsWith("/api/auth/")) {
+                return auth;
+            }
+            if (principal == null) {
+                return anonymous;
+            }
+            if ("POST".equals(method) && path.equals("/api/orders")) {
+                return orderCreate;
+            }
+            if ("PUT".equals(method) && path.startsWith("/api/drivers/")
+                    && (path.endsWith("/location") || path.endsWith("/locations"))) {
+                return driverLocation;
+            }
+            
+            switch (principal.getRole()) {
+                case ADMIN:
+                    return admin;
+                case RESTAURANT:
+                    return restaurant;
+                case DELIVERY_PARTNER:
+                    return deliveryPartner;
+                default:
+                    return user;
+            }
+        }
     }
 }
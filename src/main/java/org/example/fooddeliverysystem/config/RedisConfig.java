@@ -1,12 +1,24 @@
 package org.example.fooddeliverysystem.config;
 
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.example.fooddeliverysystem.codec.CompactRedisSerializer;
+import org.example.fooddeliverysystem.codec.MenuCodec;
+import org.example.fooddeliverysystem.codec.RestaurantPageCodec;
+import org.example.fooddeliverysystem.codec.RestaurantResponseCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -16,7 +28,9 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 public class RedisConfig {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       @Value("${cache.codec.binary-writes:false}") boolean binaryWrites,
+                                                       @Value("${cache.codec.compression-threshold-bytes:1024}") int compressionThreshold) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
@@ -31,7 +45,14 @@ public class RedisConfig {
 
         GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
 
-        template.setValueSerializer(serializer);
+        // Hot cache values use a compact binary codec; everything else, and all legacy entries, stay JSON
+        CompactRedisSerializer valueSerializer = new CompactRedisSerializer(
+                serializer,
+                List.of(new RestaurantResponseCodec(), new MenuCodec(), new RestaurantPageCodec()),
+                binaryWrites,
+                compressionThreshold);
+
+        template.setValueSerializer(valueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
         template.setHashValueSerializer(serializer);
         template.afterPropertiesSet();
@@ -42,4 +63,61 @@ public class RedisConfig {
     public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
         return new StringRedisTemplate(connectionFactory);
     }
-}
\ No newline at end of file
+
+    /**
+     * Pub/sub listeners whose messages may be handled in any order. A full queue makes the subscription
+     * thread run the listener itself, which slows intake instead of growing the queue.
+     */
+    @Bean
+    @Primary
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            @Value("${redis.listener.threads:4}") int threads,
+            @Value("${redis.listener.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = listenerExecutor("redis-listener-", threads, queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(executor);
+        return container;
+    }
+
+    /**
+     * Pub/sub listeners that must see messages in publish order, e.g. successive updates to one document.
+     * One thread handles them; when its queue is full the subscription thread waits for room, since
+     * running the listener on the caller would overtake the queued messages.
+     */
+    @Bean
+    public RedisMessageListenerContainer orderedRedisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            @Value("${redis.listener.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = listenerExecutor("redis-ordered-listener-", 1, queueCapacity);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            try {
+                pool.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while queuing a Redis message", e);
+            }
+        });
+        executor.initialize();
+        
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(executor);
+        return container;
+    }
+
+    // Not a bean, so it does not replace Boot's application task executor
+    private static ThreadPoolTaskExecutor listenerExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setDaemon(true);
+        return executor;
+    }
+}
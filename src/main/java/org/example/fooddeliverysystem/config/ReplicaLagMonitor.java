@@ -0,0 +1,66 @@
+package org.example.fooddeliverysystem.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Polls the replica's replay delay. The replica only serves reads while the last measurement is within the
+ * configured bound; until the first successful check, and whenever the replica is unreachable, it serves none.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final long UNKNOWN = -1;
+
+    // A caught-up standby on an idle primary has an old replay timestamp, so compare WAL positions first.
+    // A server that is not in recovery (a stand-in database) never lags.
+    private static final String LAG_QUERY =
+        "SELECT CASE " +
+        "WHEN NOT pg_is_in_recovery() THEN 0 " +
+        "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END::bigint";
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final AtomicLong lagMillis = new AtomicLong(UNKNOWN);
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+
+        Gauge.builder("datasource.replica.lag", lagMillis, AtomicLong::get)
+            .description("Replica replay delay in milliseconds, -1 when unreachable")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        try {
+            Long lag = replica.queryForObject(LAG_QUERY, Long.class);
+            long previous = lagMillis.getAndSet(lag != null ? Math.max(0, lag) : UNKNOWN);
+            if (previous == UNKNOWN) {
+                logger.info("Replica reachable, replay lag {} ms", lagMillis.get());
+            }
+        } catch (DataAccessException e) {
+            if (lagMillis.getAndSet(UNKNOWN) != UNKNOWN) {
+                logger.warn("Replica unreachable, routing reads to the primary: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        long lag = lagMillis.get();
+        return lag != UNKNOWN && lag <= maxLagMillis;
+    }
+}
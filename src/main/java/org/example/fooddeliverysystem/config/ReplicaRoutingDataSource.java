@@ -0,0 +1,83 @@
+package org.example.fooddeliverysystem.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * Reads stay on the primary while the replica is lagging or unreachable, and for a short window after the
+ * same user committed a write, so users always read their own changes.
+ * Must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only known once the transaction has begun.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final long MAX_TRACKED_WRITERS = 100_000;
+
+    private enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    Duration readYourWritesWindow) {
+        this.lagMonitor = lagMonitor;
+        this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(readYourWritesWindow)
+            .maximumSize(MAX_TRACKED_WRITERS)
+            .build();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriterOnCommit();
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            return Target.PRIMARY;
+        }
+        String userId = currentUserId();
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    private void rememberWriterOnCommit() {
+        String userId = currentUserId();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
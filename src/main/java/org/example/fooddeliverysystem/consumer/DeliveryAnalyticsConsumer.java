@@ -1,40 +1,54 @@
 package org.example.fooddeliverysystem.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.example.fooddeliverysystem.config.KafkaTopics;
 import org.example.fooddeliverysystem.dto.event.DeliveryEvent;
 import org.example.fooddeliverysystem.service.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class DeliveryAnalyticsConsumer {
     
     private static final Logger logger = LoggerFactory.getLogger(DeliveryAnalyticsConsumer.class);
     
-    private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
     private final MetricsService metricsService;
     
     public DeliveryAnalyticsConsumer(ObjectMapper objectMapper, MetricsService metricsService) {
-        this.objectMapper = objectMapper;
+        this.eventReader = objectMapper.readerFor(DeliveryEvent.class);
         this.metricsService = metricsService;
     }
     
-    @KafkaListener(topics = KafkaTopics.DELIVERY_EVENTS, groupId = "delivery-analytics-group")
-    public void consumeDeliveryEvent(String message) {
-        try {
-            DeliveryEvent event = objectMapper.readValue(message, DeliveryEvent.class);
-            logger.info("Processing delivery event: {} for order: {}", event.getEventType(), event.getOrderId());
-            
-            // Update metrics based on delivery status
-            if ("DELIVERY_COMPLETED".equals(event.getEventType())) {
-                metricsService.incrementDeliveriesCompleted();
+    @KafkaListener(topics = KafkaTopics.DELIVERY_EVENTS, groupId = "delivery-analytics-group",
+                   concurrency = "${kafka.consumer.delivery-events.concurrency:${kafka.consumer.concurrency:3}}")
+    public void consumeDeliveryEvents(List<ConsumerRecord<String, String>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        metricsService.recordKafkaConsumerLag(KafkaTopics.DELIVERY_EVENTS, System.currentTimeMillis() - records.get(0).timestamp());
+        
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                DeliveryEvent event = eventReader.readValue(records.get(i).value());
+                
+                // Update metrics based on delivery status
+                if ("DELIVERY_COMPLETED".equals(event.getEventType())) {
+                    metricsService.incrementDeliveriesCompleted();
+                }
+            } catch (Exception e) {
+                metricsService.incrementErrors();
+                // Commits the records before this one; this one is retried and then dead-lettered
+                throw new BatchListenerFailedException("Error processing delivery event: " + e.getMessage(), e, i);
             }
-        } catch (Exception e) {
-            logger.error("Error processing delivery event: {}", e.getMessage(), e);
-            metricsService.incrementErrors();
         }
+        logger.debug("Processed {} delivery events", records.size());
     }
 }
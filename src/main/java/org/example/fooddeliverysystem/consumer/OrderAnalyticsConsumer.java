@@ -1,50 +1,64 @@
 package org.example.fooddeliverysystem.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.example.fooddeliverysystem.config.KafkaTopics;
 import org.example.fooddeliverysystem.dto.event.OrderEvent;
 import org.example.fooddeliverysystem.service.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class OrderAnalyticsConsumer {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderAnalyticsConsumer.class);
     
-    private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
     private final MetricsService metricsService;
     
     public OrderAnalyticsConsumer(ObjectMapper objectMapper, MetricsService metricsService) {
-        this.objectMapper = objectMapper;
+        this.eventReader = objectMapper.readerFor(OrderEvent.class);
         this.metricsService = metricsService;
     }
     
-    @KafkaListener(topics = KafkaTopics.ORDER_EVENTS, groupId = "order-analytics-group")
-    public void consumeOrderEvent(String message) {
-        try {
-            OrderEvent event = objectMapper.readValue(message, OrderEvent.class);
-            logger.info("Processing order event: {} for order: {}", event.getEventType(), event.getOrderId());
-            
-            // Update metrics based on event type
-            switch (event.getEventType()) {
-                case "ORDER_CREATED":
-                    metricsService.incrementOrdersCreated();
-                    break;
-                case "ORDER_DELIVERED":
-                    metricsService.incrementOrdersDelivered();
-                    break;
-                case "ORDER_CANCELLED":
-                    metricsService.incrementOrdersCancelled();
-                    break;
-                default:
-                    logger.debug("No specific metric update for event type: {}", event.getEventType());
+    @KafkaListener(topics = KafkaTopics.ORDER_EVENTS, groupId = "order-analytics-group",
+                   concurrency = "${kafka.consumer.order-events.concurrency:${kafka.consumer.concurrency:3}}")
+    public void consumeOrderEvents(List<ConsumerRecord<String, String>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        metricsService.recordKafkaConsumerLag(KafkaTopics.ORDER_EVENTS, System.currentTimeMillis() - records.get(0).timestamp());
+        
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                OrderEvent event = eventReader.readValue(records.get(i).value());
+                
+                // Update metrics based on event type
+                switch (event.getEventType()) {
+                    case "ORDER_CREATED":
+                        metricsService.incrementOrdersCreated();
+                        break;
+                    case "ORDER_DELIVERED":
+                        metricsService.incrementOrdersDelivered();
+                        break;
+                    case "ORDER_CANCELLED":
+                        metricsService.incrementOrdersCancelled();
+                        break;
+                    default:
+                        break;
+                }
+            } catch (Exception e) {
+                metricsService.incrementErrors();
+                // Commits the records before this one; this one is retried and then dead-lettered
+                throw new BatchListenerFailedException("Error processing order event: " + e.getMessage(), e, i);
             }
-        } catch (Exception e) {
-            logger.error("Error processing order event: {}", e.getMessage(), e);
-            metricsService.incrementErrors();
         }
+        logger.debug("Processed {} order events", records.size());
     }
 }
@@ -0,0 +1,102 @@
+package org.example.fooddeliverysystem.controller;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.apache.kafka.streams.state.HostInfo;
+import org.example.fooddeliverysystem.config.OrderAnalyticsStreamsConfig;
+import org.example.fooddeliverysystem.exception.ValidationException;
+import org.example.fooddeliverysystem.service.OrderAnalyticsQueryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Real-time order analytics served from the Kafka Streams state stores instead of Postgres
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+@ConditionalOnProperty(name = "analytics.streams.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsController {
+
+    private static final int MAX_MINUTES = 24 * 60;
+
+    private final OrderAnalyticsQueryService analyticsQueryService;
+
+    // Windows older than the store retention are gone, so longer ranges would silently come back short
+    @Value("${analytics.streams.retention-hours:48}")
+    private int retentionHours;
+
+    public AnalyticsController(OrderAnalyticsQueryService analyticsQueryService) {
+        this.analyticsQueryService = analyticsQueryService;
+    }
+
+    @GetMapping("/restaurants/{restaurantId}/orders-per-minute")
+    public ResponseEntity<?> getOrdersPerMinute(
+            @PathVariable String restaurantId,
+            @RequestParam(defaultValue = "60") int minutes) {
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofMinutes(validate("minutes", minutes, Math.min(MAX_MINUTES, retentionHours * 60))));
+        return query(OrderAnalyticsStreamsConfig.ORDERS_PER_RESTAURANT_STORE, restaurantId,
+            () -> analyticsQueryService.getOrdersPerMinute(restaurantId, from, to));
+    }
+
+    @GetMapping("/cities/{city}/revenue")
+    public ResponseEntity<?> getRevenueByCity(
+            @PathVariable String city,
+            @RequestParam(defaultValue = "24") int hours) {
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofHours(validate("hours", hours, retentionHours)));
+        return query(OrderAnalyticsStreamsConfig.REVENUE_PER_CITY_STORE, city,
+            () -> analyticsQueryService.getRevenueByCity(city, from, to));
+    }
+
+    @GetMapping("/restaurants/{restaurantId}/cancellation-rate")
+    public ResponseEntity<?> getCancellationRate(
+            @PathVariable String restaurantId,
+            @RequestParam(defaultValue = "24") int hours) {
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofHours(validate("hours", hours, retentionHours)));
+        return query(OrderAnalyticsStreamsConfig.OUTCOMES_PER_RESTAURANT_STORE, restaurantId,
+            () -> analyticsQueryService.getCancellationRate(restaurantId, from, to));
+    }
+
+    @GetMapping("/restaurants/{restaurantId}/delivery-time")
+    public ResponseEntity<?> getAverageDeliveryTime(
+            @PathVariable String restaurantId,
+            @RequestParam(defaultValue = "24") int hours) {
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofHours(validate("hours", hours, retentionHours)));
+        return query(OrderAnalyticsStreamsConfig.DELIVERY_TIME_PER_RESTAURANT_STORE, restaurantId,
+            () -> analyticsQueryService.getAverageDeliveryTime(restaurantId, from, to));
+    }
+
+    // Keys held by another instance are redirected there rather than answered with partial data
+    private ResponseEntity<?> query(String storeName, String key, Supplier<?> localQuery) {
+        Optional<HostInfo> owner = analyticsQueryService.remoteOwner(storeName, key);
+        if (owner.isPresent()) {
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .host(owner.get().host())
+                .port(owner.get().port())
+                .build()
+                .toUri();
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT).location(location).build();
+        }
+        return ResponseEntity.ok(localQuery.get());
+    }
+
+    private static int validate(String field, int value, int max) {
+        if (value <= 0 || value > max) {
+            throw new ValidationException(field, field + " must be between 1 and " + max);
+        }
+        return value;
+    }
+}
@@ -27,14 +27,17 @@ public class CacheController {
     
     @PostMapping("/warm-up")
     public ResponseEntity<String> warmUpCache() {
-        cacheOptimizationUtil.warmUpCache();
-        return ResponseEntity.ok("Cache warm-up initiated");
+        int warmed = cacheOptimizationUtil.warmUpCache();
+        if (warmed < 0) {
+            return ResponseEntity.ok("Cache warm-up already running");
+        }
+        return ResponseEntity.ok("Cache warm-up completed for " + warmed + " restaurants");
     }
     
     @PostMapping("/evict")
     public ResponseEntity<String> evictExpiredEntries() {
-        cacheOptimizationUtil.evictExpiredEntries();
-        return ResponseEntity.ok("Cache eviction completed");
+        int fixed = cacheOptimizationUtil.evictExpiredEntries();
+        return ResponseEntity.ok("Cache eviction completed, expiry restored on " + fixed + " keys");
     }
     
     @GetMapping("/statistics")
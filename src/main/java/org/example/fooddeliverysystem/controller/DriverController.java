@@ -1,23 +1,34 @@
 package org.example.fooddeliverysystem.controller;
 
 import jakarta.validation.Valid;
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
+import org.example.fooddeliverysystem.dto.driver.DriverLocationBatchRequest;
 import org.example.fooddeliverysystem.dto.driver.DriverLocationUpdateRequest;
 import org.example.fooddeliverysystem.dto.driver.DriverRequest;
 import org.example.fooddeliverysystem.dto.driver.DriverResponse;
-import org.example.fooddeliverysystem.model.User;
+import org.example.fooddeliverysystem.dto.driver.DriverRouteResponse;
+import org.example.fooddeliverysystem.dto.driver.NearbyDriverResponse;
+import org.example.fooddeliverysystem.enums.Role;
+import org.example.fooddeliverysystem.exception.ValidationException;
 import org.example.fooddeliverysystem.service.DriverService;
 import org.example.fooddeliverysystem.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/drivers")
 public class DriverController {
     
+    // One day of pings at a 4 s interval is about 22k points
+    private static final Duration MAX_ROUTE_WINDOW = Duration.ofHours(24);
+    
     private final DriverService driverService;
     private final UserService userService;
     
@@ -29,7 +40,7 @@ public class DriverController {
     @PostMapping
     @PreAuthorize("hasRole('DELIVERY_PARTNER') or hasRole('ADMIN')")
     public ResponseEntity<DriverResponse> registerDriver(@Valid @RequestBody DriverRequest request) {
-        User currentUser = userService.getCurrentUser();
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -50,15 +61,13 @@ public class DriverController {
     public ResponseEntity<Void> updateLocation(
             @PathVariable String id,
             @Valid @RequestBody DriverLocationUpdateRequest request) {
-        User currentUser = userService.getCurrentUser();
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        // Verify driver ownership
-        DriverResponse driver = driverService.findById(id);
-        if (!driver.getUserId().equals(currentUser.getId()) && 
-            !currentUser.getRole().name().equals("ADMIN")) {
+        // Ownership comes from the identity cache; pings never read Postgres
+        if (!isOwnerOrAdmin(id, currentUser)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
@@ -66,20 +75,36 @@ public class DriverController {
         return ResponseEntity.noContent().build();
     }
     
+    @PutMapping("/{id}/locations")
+    @PreAuthorize("hasRole('DELIVERY_PARTNER') or hasRole('ADMIN')")
+    public ResponseEntity<Void> updateLocations(
+            @PathVariable String id,
+            @Valid @RequestBody DriverLocationBatchRequest request) {
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        if (!isOwnerOrAdmin(id, currentUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        driverService.updateLocations(id, request.getPings());
+        return ResponseEntity.noContent().build();
+    }
+    
     @PutMapping("/{id}/availability")
     @PreAuthorize("hasRole('DELIVERY_PARTNER') or hasRole('ADMIN')")
     public ResponseEntity<Void> setAvailability(
             @PathVariable String id,
             @RequestParam boolean available) {
-        User currentUser = userService.getCurrentUser();
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
         // Verify driver ownership
-        DriverResponse driver = driverService.findById(id);
-        if (!driver.getUserId().equals(currentUser.getId()) && 
-            !currentUser.getRole().name().equals("ADMIN")) {
+        if (!isOwnerOrAdmin(id, currentUser)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
@@ -87,10 +112,59 @@ public class DriverController {
         return ResponseEntity.noContent().build();
     }
     
+    /**
+     * Recorded pings between two instants, with the distance travelled along them
+     */
+    @GetMapping("/{id}/route")
+    @PreAuthorize("hasRole('DELIVERY_PARTNER') or hasRole('ADMIN')")
+    public ResponseEntity<DriverRouteResponse> getRoute(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        if (!isOwnerOrAdmin(id, currentUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(MAX_ROUTE_WINDOW) > 0) {
+            throw new ValidationException("from must be before to and at most " + MAX_ROUTE_WINDOW.toHours()
+                + " hours apart");
+        }
+        return ResponseEntity.ok(driverService.findRoute(id, from, to));
+    }
+    
     @GetMapping("/available")
     @PreAuthorize("hasAnyRole('RESTAURANT', 'ADMIN')")
-    public ResponseEntity<List<DriverResponse>> getAvailableDrivers() {
-        List<DriverResponse> drivers = driverService.findAvailableDrivers();
+    public ResponseEntity<List<DriverResponse>> getAvailableDrivers(@RequestParam(defaultValue = "100") int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("limit must be positive");
+        }
+        List<DriverResponse> drivers = driverService.findAvailableDrivers(Math.min(limit, 500));
+        return ResponseEntity.ok(drivers);
+    }
+    
+    @GetMapping("/nearby")
+    @PreAuthorize("hasAnyRole('RESTAURANT', 'ADMIN')")
+    public ResponseEntity<List<NearbyDriverResponse>> getNearbyDrivers(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "3") double radiusKm,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (radiusKm <= 0 || limit <= 0) {
+            throw new ValidationException("radiusKm and limit must be positive");
+        }
+        List<NearbyDriverResponse> drivers = driverService.findNearestAvailableDrivers(
+            latitude, longitude, radiusKm, Math.min(limit, 100));
         return ResponseEntity.ok(drivers);
     }
+    
+    private boolean isOwnerOrAdmin(String driverId, AuthenticatedUser currentUser) {
+        // Resolved for admins too, so pings for unknown drivers are rejected
+        String ownerUserId = driverService.findOwnerUserId(driverId);
+        return ownerUserId.equals(currentUser.getId()) || currentUser.getRole() == Role.ADMIN;
+    }
 }
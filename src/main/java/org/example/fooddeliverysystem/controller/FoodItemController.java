@@ -1,10 +1,11 @@
 package org.example.fooddeliverysystem.controller;
 
 import jakarta.validation.Valid;
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
 import org.example.fooddeliverysystem.dto.fooditem.FoodItemRequest;
 import org.example.fooddeliverysystem.dto.fooditem.FoodItemResponse;
+import org.example.fooddeliverysystem.enums.Role;
 import org.example.fooddeliverysystem.model.Restaurant;
-import org.example.fooddeliverysystem.model.User;
 import org.example.fooddeliverysystem.repository.RestaurantRepository;
 import org.example.fooddeliverysystem.service.FoodItemService;
 import org.example.fooddeliverysystem.service.RestaurantService;
@@ -40,7 +41,7 @@ public class FoodItemController {
     public ResponseEntity<FoodItemResponse> createFoodItem(
             @RequestParam String restaurantId,
             @Valid @RequestBody FoodItemRequest request) {
-        User currentUser = userService.getCurrentUser();
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -49,7 +50,7 @@ public class FoodItemController {
         org.example.fooddeliverysystem.dto.restaurant.RestaurantResponse restaurantResponse = 
             restaurantService.findById(restaurantId);
         if (!restaurantResponse.getUserId().equals(currentUser.getId()) && 
-            !currentUser.getRole().name().equals("ADMIN")) {
+            currentUser.getRole() != Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
@@ -83,14 +84,15 @@ public class FoodItemController {
     public ResponseEntity<List<FoodItemResponse>> getFoodItemsByRestaurant(
             @PathVariable String restaurantId,
             @RequestParam(required = false, defaultValue = "false") boolean availableOnly) {
-        Restaurant restaurant = restaurantRepository.findById(restaurantId)
-            .orElseThrow(() -> new org.example.fooddeliverysystem.exception.ResourceNotFoundException("Restaurant", restaurantId));
         List<FoodItemResponse> foodItems;
         
         if (availableOnly) {
+            Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new org.example.fooddeliverysystem.exception.ResourceNotFoundException("Restaurant", restaurantId));
             foodItems = foodItemService.findAvailableByRestaurant(restaurant);
         } else {
-            foodItems = foodItemService.findByRestaurant(restaurant);
+            // Served from the menu cache without touching the database
+            foodItems = foodItemService.findByRestaurantId(restaurantId);
         }
         
         return ResponseEntity.ok(foodItems);
@@ -1,14 +1,22 @@
 package org.example.fooddeliverysystem.controller;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
+import org.example.fooddeliverysystem.dto.order.OrderPageResponse;
 import org.example.fooddeliverysystem.dto.order.OrderRequest;
 import org.example.fooddeliverysystem.dto.order.OrderResponse;
 import org.example.fooddeliverysystem.dto.order.OrderStatusUpdateRequest;
-import org.example.fooddeliverysystem.model.User;
+import org.example.fooddeliverysystem.enums.OrderStatus;
+import org.example.fooddeliverysystem.enums.Role;
+import org.example.fooddeliverysystem.service.DriverIdentityCache;
 import org.example.fooddeliverysystem.service.OrderService;
+import org.example.fooddeliverysystem.service.OrderTrackingService;
+import org.example.fooddeliverysystem.service.RestaurantService;
 import org.example.fooddeliverysystem.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,6 +27,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
@@ -27,17 +37,25 @@ import jakarta.validation.Valid;
 public class OrderController {
     
     private final OrderService orderService;
+    private final OrderTrackingService orderTrackingService;
+    private final RestaurantService restaurantService;
+    private final DriverIdentityCache driverIdentityCache;
     private final UserService userService;
     
-    public OrderController(OrderService orderService, UserService userService) {
+    public OrderController(OrderService orderService, OrderTrackingService orderTrackingService,
+                           RestaurantService restaurantService, DriverIdentityCache driverIdentityCache,
+                           UserService userService) {
         this.orderService = orderService;
+        this.orderTrackingService = orderTrackingService;
+        this.restaurantService = restaurantService;
+        this.driverIdentityCache = driverIdentityCache;
         this.userService = userService;
     }
     
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request) {
-        User currentUser = userService.getCurrentUser();
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -52,29 +70,94 @@ public class OrderController {
         OrderResponse response = orderService.findById(id);
         
         // Verify access
-        User currentUser = userService.getCurrentUser();
-        if (currentUser != null) {
-            String role = currentUser.getRole().name();
-            if (!role.equals("ADMIN")) {
-                if (role.equals("USER") && !response.getUserId().equals(currentUser.getId())) {
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-                }
-                // RESTAURANT and DELIVERY_PARTNER can access their orders
-            }
+        if (!canView(response, userService.getCurrentPrincipal())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Live updates for one order instead of polling: the current state, then status changes and
+     * the assigned driver's position until the order is delivered or cancelled
+     */
+    @GetMapping(value = "/{id}/track", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('USER', 'RESTAURANT', 'DELIVERY_PARTNER', 'ADMIN')")
+    public ResponseEntity<SseEmitter> trackOrder(@PathVariable String id) {
+        OrderResponse order = orderService.findById(id);
+        if (!canView(order, userService.getCurrentPrincipal())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        return ResponseEntity.ok(orderTrackingService.subscribe(id, () -> orderService.findCurrentState(id)));
+    }
+    
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'RESTAURANT', 'DELIVERY_PARTNER', 'ADMIN')")
-    public ResponseEntity<List<OrderResponse>> getOrders() {
-        User currentUser = userService.getCurrentUser();
+    public ResponseEntity<OrderPageResponse> getOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        List<OrderResponse> orders = orderService.findByUser(currentUser);
+        OrderPageResponse orders = orderService.findByUser(currentUser.getId(), status, from, to, cursor, limit);
+        return ResponseEntity.ok(orders);
+    }
+    
+    @GetMapping("/restaurant")
+    @PreAuthorize("hasRole('RESTAURANT')")
+    public ResponseEntity<OrderPageResponse> getRestaurantOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        OrderPageResponse orders = orderService.findByRestaurantOwner(currentUser.getId(), status, from, to, cursor, limit);
+        return ResponseEntity.ok(orders);
+    }
+    
+    @GetMapping(value = "/restaurant/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('RESTAURANT')")
+    public ResponseEntity<StreamingResponseBody> exportRestaurantOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        StreamingResponseBody body = outputStream ->
+            orderService.exportByRestaurantOwner(currentUser.getId(), status, from, to, outputStream);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+    
+    @GetMapping("/driver")
+    @PreAuthorize("hasRole('DELIVERY_PARTNER')")
+    public ResponseEntity<OrderPageResponse> getDriverOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        OrderPageResponse orders = orderService.findByDriverUser(currentUser.getId(), status, from, to, cursor, limit);
         return ResponseEntity.ok(orders);
     }
     
@@ -98,13 +181,33 @@ public class OrderController {
     
     @GetMapping("/history")
     @PreAuthorize("hasAnyRole('USER', 'RESTAURANT', 'DELIVERY_PARTNER', 'ADMIN')")
-    public ResponseEntity<List<OrderResponse>> getOrderHistory() {
-        User currentUser = userService.getCurrentUser();
+    public ResponseEntity<OrderPageResponse> getOrderHistory(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        List<OrderResponse> orders = orderService.findByUser(currentUser);
+        OrderPageResponse orders = orderService.findByUser(currentUser.getId(), status, from, to, cursor, limit);
         return ResponseEntity.ok(orders);
     }
+    
+    // Customers see their own orders, restaurants the orders placed with them, drivers the orders assigned to them
+    private boolean canView(OrderResponse order, AuthenticatedUser currentUser) {
+        if (currentUser == null) {
+            return false;
+        }
+        return switch (currentUser.getRole()) {
+            case ADMIN -> true;
+            case USER -> currentUser.getId().equals(order.getUserId());
+            case RESTAURANT -> currentUser.getId().equals(
+                restaurantService.findById(order.getRestaurantId()).getUserId());
+            case DELIVERY_PARTNER -> order.getDriverId() != null
+                && currentUser.getId().equals(driverIdentityCache.findOwnerUserId(order.getDriverId()));
+        };
+    }
 }
@@ -1,12 +1,14 @@
 package org.example.fooddeliverysystem.controller;
 
 import jakarta.validation.Valid;
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
 import org.example.fooddeliverysystem.dto.restaurant.RestaurantRequest;
 import org.example.fooddeliverysystem.dto.restaurant.RestaurantResponse;
-import org.example.fooddeliverysystem.model.User;
 import org.example.fooddeliverysystem.service.RestaurantService;
 import org.example.fooddeliverysystem.service.UserService;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -29,7 +31,7 @@ public class RestaurantController {
     @PostMapping
     @PreAuthorize("hasRole('RESTAURANT') or hasRole('ADMIN')")
     public ResponseEntity<RestaurantResponse> createRestaurant(@Valid @RequestBody RestaurantRequest request) {
-        User currentUser = userService.getCurrentUser();
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -59,7 +61,25 @@ public class RestaurantController {
             @RequestParam(required = false) String state,
             @RequestParam(required = false) Boolean isOpen,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean slice) {
+        
+        // Slices skip the count query, for infinite scroll that only needs to know whether more pages exist
+        if (slice && page >= 0 && size > 0) {
+            Slice<RestaurantResponse> restaurants;
+            
+            if (city != null && state != null) {
+                restaurants = restaurantService.findByCityAndStateWithSlice(city, state, page, size);
+            } else if (city != null) {
+                restaurants = restaurantService.findByCityWithSlice(city, page, size);
+            } else if (isOpen != null && isOpen) {
+                restaurants = restaurantService.findOpenRestaurantsWithSlice(page, size);
+            } else {
+                restaurants = new SliceImpl<>(List.of());
+            }
+            
+            return ResponseEntity.ok(restaurants);
+        }
         
         // If pagination parameters are provided, use pagination
         if (page >= 0 && size > 0) {
@@ -103,12 +123,12 @@ public class RestaurantController {
     @GetMapping("/my-restaurant")
     @PreAuthorize("hasRole('RESTAURANT')")
     public ResponseEntity<RestaurantResponse> getMyRestaurant() {
-        User currentUser = userService.getCurrentUser();
+        AuthenticatedUser currentUser = userService.getCurrentPrincipal();
         if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        RestaurantResponse response = restaurantService.findByUser(currentUser);
+        RestaurantResponse response = restaurantService.findByUserId(currentUser.getId());
         return ResponseEntity.ok(response);
     }
 }
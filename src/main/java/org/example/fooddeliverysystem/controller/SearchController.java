@@ -0,0 +1,48 @@
+package org.example.fooddeliverysystem.controller;
+
+import java.util.List;
+
+import org.example.fooddeliverysystem.dto.search.MenuSearchHitResponse;
+import org.example.fooddeliverysystem.exception.ValidationException;
+import org.example.fooddeliverysystem.service.MenuSearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+    
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_QUERY_LENGTH = 100;
+    
+    private final MenuSearchService menuSearchService;
+    
+    public SearchController(MenuSearchService menuSearchService) {
+        this.menuSearchService = menuSearchService;
+    }
+    
+    /**
+     * Restaurants and dishes in a city matching every word of the query, allowing prefixes and one typo per word
+     */
+    @GetMapping("/menu")
+    public ResponseEntity<List<MenuSearchHitResponse>> searchMenu(
+            @RequestParam String city,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank() || q.length() > MAX_QUERY_LENGTH) {
+            throw new ValidationException("q must be between 1 and " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (limit <= 0) {
+            throw new ValidationException("limit must be positive");
+        }
+        if (!menuSearchService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        
+        return ResponseEntity.ok(menuSearchService.search(city, q, Math.min(limit, MAX_LIMIT)));
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.fooddeliverysystem.dto.analytics;
+
+import java.time.LocalDateTime;
+
+public class CancellationRateResponse {
+
+    private String restaurantId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long delivered;
+    private long cancelled;
+    private double cancellationRate;
+
+    public CancellationRateResponse() {}
+
+    public CancellationRateResponse(String restaurantId, LocalDateTime from, LocalDateTime to, long delivered, long cancelled, double cancellationRate) {
+        this.restaurantId = restaurantId;
+        this.from = from;
+        this.to = to;
+        this.delivered = delivered;
+        this.cancelled = cancelled;
+        this.cancellationRate = cancellationRate;
+    }
+
+    public String getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(String restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public void setDelivered(long delivered) {
+        this.delivered = delivered;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(long cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public double getCancellationRate() {
+        return cancellationRate;
+    }
+
+    public void setCancellationRate(double cancellationRate) {
+        this.cancellationRate = cancellationRate;
+    }
+}
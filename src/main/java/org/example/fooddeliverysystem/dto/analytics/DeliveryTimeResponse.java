@@ -0,0 +1,62 @@
+package org.example.fooddeliverysystem.dto.analytics;
+
+import java.time.LocalDateTime;
+
+public class DeliveryTimeResponse {
+
+    private String restaurantId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long deliveries;
+    private Double averageMinutes;
+
+    public DeliveryTimeResponse() {}
+
+    public DeliveryTimeResponse(String restaurantId, LocalDateTime from, LocalDateTime to, long deliveries, Double averageMinutes) {
+        this.restaurantId = restaurantId;
+        this.from = from;
+        this.to = to;
+        this.deliveries = deliveries;
+        this.averageMinutes = averageMinutes;
+    }
+
+    public String getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(String restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public long getDeliveries() {
+        return deliveries;
+    }
+
+    public void setDeliveries(long deliveries) {
+        this.deliveries = deliveries;
+    }
+
+    public Double getAverageMinutes() {
+        return averageMinutes;
+    }
+
+    public void setAverageMinutes(Double averageMinutes) {
+        this.averageMinutes = averageMinutes;
+    }
+}
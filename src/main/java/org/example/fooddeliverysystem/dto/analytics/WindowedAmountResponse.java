@@ -0,0 +1,42 @@
+package org.example.fooddeliverysystem.dto.analytics;
+
+import java.time.LocalDateTime;
+
+public class WindowedAmountResponse {
+
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private double amount;
+
+    public WindowedAmountResponse() {}
+
+    public WindowedAmountResponse(LocalDateTime windowStart, LocalDateTime windowEnd, double amount) {
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.amount = amount;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDateTime windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDateTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+}
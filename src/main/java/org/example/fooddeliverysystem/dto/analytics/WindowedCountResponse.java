@@ -0,0 +1,42 @@
+package org.example.fooddeliverysystem.dto.analytics;
+
+import java.time.LocalDateTime;
+
+public class WindowedCountResponse {
+
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private long count;
+
+    public WindowedCountResponse() {}
+
+    public WindowedCountResponse(LocalDateTime windowStart, LocalDateTime windowEnd, long count) {
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.count = count;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDateTime windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDateTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
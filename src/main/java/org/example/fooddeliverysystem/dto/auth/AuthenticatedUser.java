@@ -0,0 +1,71 @@
+package org.example.fooddeliverysystem.dto.auth;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.example.fooddeliverysystem.enums.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Principal built from verified JWT claims; carries everything controllers need without loading the user row
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final String id;
+    private final String email;
+    private final Role role;
+    private final String tokenId;
+    private final Instant expiresAt;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(String id, String email, Role role, String tokenId, Instant expiresAt) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.fooddeliverysystem.dto.driver;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Pings buffered by one device, oldest first
+ */
+public class DriverLocationBatchRequest {
+    
+    public static final int MAX_PINGS = 100;
+    
+    @NotEmpty(message = "At least one ping is required")
+    @Size(max = MAX_PINGS, message = "At most " + MAX_PINGS + " pings per batch")
+    @Valid
+    private List<DriverLocationUpdateRequest> pings;
+    
+    public DriverLocationBatchRequest() {}
+    
+    public List<DriverLocationUpdateRequest> getPings() {
+        return pings;
+    }
+    
+    public void setPings(List<DriverLocationUpdateRequest> pings) {
+        this.pings = pings;
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.fooddeliverysystem.dto.driver;
 
+import java.time.Instant;
+
 import jakarta.validation.constraints.NotNull;
 
 public class DriverLocationUpdateRequest {
@@ -10,6 +12,9 @@ public class DriverLocationUpdateRequest {
     @NotNull(message = "Longitude is required")
     private Double longitude;
     
+    // When the device took the fix; optional, the receive time is used when absent
+    private Instant recordedAt;
+    
     public DriverLocationUpdateRequest() {}
     
     public Double getLatitude() {
@@ -27,4 +32,12 @@ public class DriverLocationUpdateRequest {
     public void setLongitude(Double longitude) {
         this.longitude = longitude;
     }
+    
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+    
+    public void setRecordedAt(Instant recordedAt) {
+        this.recordedAt = recordedAt;
+    }
 }
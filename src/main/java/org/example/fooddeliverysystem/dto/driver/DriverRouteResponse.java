@@ -0,0 +1,64 @@
+package org.example.fooddeliverysystem.dto.driver;
+
+import java.time.Instant;
+import java.util.List;
+
+public class DriverRouteResponse {
+
+    private String driverId;
+    private Instant from;
+    private Instant to;
+    private Double distanceKm;
+    private List<RoutePointResponse> points;
+
+    public DriverRouteResponse() {}
+
+    public DriverRouteResponse(String driverId, Instant from, Instant to, Double distanceKm,
+                               List<RoutePointResponse> points) {
+        this.driverId = driverId;
+        this.from = from;
+        this.to = to;
+        this.distanceKm = distanceKm;
+        this.points = points;
+    }
+
+    public String getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(String driverId) {
+        this.driverId = driverId;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public List<RoutePointResponse> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<RoutePointResponse> points) {
+        this.points = points;
+    }
+}
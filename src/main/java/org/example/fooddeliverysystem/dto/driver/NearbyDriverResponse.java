@@ -0,0 +1,50 @@
+package org.example.fooddeliverysystem.dto.driver;
+
+public class NearbyDriverResponse {
+
+    private String driverId;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+
+    public NearbyDriverResponse() {}
+
+    public NearbyDriverResponse(String driverId, Double latitude, Double longitude, Double distanceKm) {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceKm = distanceKm;
+    }
+
+    public String getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(String driverId) {
+        this.driverId = driverId;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.fooddeliverysystem.dto.driver;
+
+import java.time.Instant;
+
+public class RoutePointResponse {
+
+    private Instant timestamp;
+    private Double latitude;
+    private Double longitude;
+
+    public RoutePointResponse() {}
+
+    public RoutePointResponse(Instant timestamp, Double latitude, Double longitude) {
+        this.timestamp = timestamp;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.fooddeliverysystem.dto.event;
+
+/**
+ * A change to a searchable restaurant or food item, broadcast so every instance updates its search index
+ */
+public class MenuSearchEvent {
+    
+    public static final String RESTAURANT_UPSERTED = "RESTAURANT_UPSERTED";
+    public static final String FOOD_ITEM_UPSERTED = "FOOD_ITEM_UPSERTED";
+    public static final String FOOD_ITEM_REMOVED = "FOOD_ITEM_REMOVED";
+    
+    private String eventType;
+    private String id;
+    private String restaurantId;
+    private String city;
+    private String name;
+    private String description;
+    private Double price;
+    private boolean open;
+    
+    public MenuSearchEvent() {}
+    
+    public static MenuSearchEvent restaurantUpserted(String restaurantId, String city, String name, boolean open) {
+        MenuSearchEvent event = new MenuSearchEvent();
+        event.eventType = RESTAURANT_UPSERTED;
+        event.id = restaurantId;
+        event.restaurantId = restaurantId;
+        event.city = city;
+        event.name = name;
+        event.open = open;
+        return event;
+    }
+    
+    public static MenuSearchEvent foodItemUpserted(String foodItemId, String restaurantId, String name,
+                                                   String description, Double price) {
+        MenuSearchEvent event = new MenuSearchEvent();
+        event.eventType = FOOD_ITEM_UPSERTED;
+        event.id = foodItemId;
+        event.restaurantId = restaurantId;
+        event.name = name;
+        event.description = description;
+        event.price = price;
+        return event;
+    }
+    
+    public static MenuSearchEvent foodItemRemoved(String foodItemId, String restaurantId) {
+        MenuSearchEvent event = new MenuSearchEvent();
+        event.eventType = FOOD_ITEM_REMOVED;
+        event.id = foodItemId;
+        event.restaurantId = restaurantId;
+        return event;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getRestaurantId() {
+        return restaurantId;
+    }
+    
+    public void setRestaurantId(String restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+    
+    public String getCity() {
+        return city;
+    }
+    
+    public void setCity(String city) {
+        this.city = city;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Double getPrice() {
+        return price;
+    }
+    
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+    
+    public boolean isOpen() {
+        return open;
+    }
+    
+    public void setOpen(boolean open) {
+        this.open = open;
+    }
+}
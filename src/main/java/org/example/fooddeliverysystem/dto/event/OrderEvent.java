@@ -9,6 +9,7 @@ public class OrderEvent {
     private String orderNumber;
     private String userId;
     private String restaurantId;
+    private String city;
     private String driverId;
     private String orderStatus;
     private Double amount;
@@ -70,6 +71,14 @@ public class OrderEvent {
         this.restaurantId = restaurantId;
     }
     
+    public String getCity() {
+        return city;
+    }
+    
+    public void setCity(String city) {
+        this.city = city;
+    }
+    
     public String getDriverId() {
         return driverId;
     }
@@ -0,0 +1,42 @@
+package org.example.fooddeliverysystem.dto.order;
+
+import java.util.List;
+
+public class OrderPageResponse {
+    
+    private List<OrderResponse> orders;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    public OrderPageResponse() {}
+    
+    public OrderPageResponse(List<OrderResponse> orders, String nextCursor, boolean hasMore) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+    
+    public List<OrderResponse> getOrders() {
+        return orders;
+    }
+    
+    public void setOrders(List<OrderResponse> orders) {
+        this.orders = orders;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -2,20 +2,26 @@ package org.example.fooddeliverysystem.dto.restaurant;
 
 import java.util.List;
 
+/**
+ * One page of a restaurant listing. Slices are fetched without a count query, so their total is -1
+ * and only hasNext tells whether another page follows.
+ */
 public class RestaurantListResponse {
     
     private List<RestaurantResponse> restaurants;
-    private int total;
+    private long total;
     private int page;
     private int size;
+    private boolean hasNext;
     
     public RestaurantListResponse() {}
     
-    public RestaurantListResponse(List<RestaurantResponse> restaurants, int total, int page, int size) {
+    public RestaurantListResponse(List<RestaurantResponse> restaurants, long total, int page, int size, boolean hasNext) {
         this.restaurants = restaurants;
         this.total = total;
         this.page = page;
         this.size = size;
+        this.hasNext = hasNext;
     }
     
     public List<RestaurantResponse> getRestaurants() {
@@ -26,11 +32,11 @@ public class RestaurantListResponse {
         this.restaurants = restaurants;
     }
     
-    public int getTotal() {
+    public long getTotal() {
         return total;
     }
     
-    public void setTotal(int total) {
+    public void setTotal(long total) {
         this.total = total;
     }
     
@@ -49,4 +55,12 @@ public class RestaurantListResponse {
     public void setSize(int size) {
         this.size = size;
     }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
 }
@@ -0,0 +1,88 @@
+package org.example.fooddeliverysystem.dto.search;
+
+public class MenuSearchHitResponse {
+
+    private String type;
+    private String id;
+    private String restaurantId;
+    private String restaurantName;
+    private String name;
+    private String description;
+    private Double price;
+    private boolean restaurantOpen;
+    private float score;
+
+    public MenuSearchHitResponse() {}
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(String restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public String getRestaurantName() {
+        return restaurantName;
+    }
+
+    public void setRestaurantName(String restaurantName) {
+        this.restaurantName = restaurantName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public boolean isRestaurantOpen() {
+        return restaurantOpen;
+    }
+
+    public void setRestaurantOpen(boolean restaurantOpen) {
+        this.restaurantOpen = restaurantOpen;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
@@ -1,36 +1,45 @@
 package org.example.fooddeliverysystem.filter;
 
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.BucketConfiguration;
-import io.github.bucket4j.distributed.proxy.ProxyManager;
-import java.nio.charset.StandardCharsets;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.example.fooddeliverysystem.config.RateLimitProfile;
+import org.example.fooddeliverysystem.config.RateLimitingConfig.RateLimitProfiles;
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
+import org.example.fooddeliverysystem.service.HybridRateLimiter;
+import org.example.fooddeliverysystem.service.JwtService;
+import org.example.fooddeliverysystem.service.MetricsService;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
 
 @Component
 @Order(1)
 public class RateLimitingFilter extends OncePerRequestFilter {
     
-    private final ProxyManager<byte[]> proxyManager;
-    private final BucketConfiguration bucketConfiguration;
+    private final HybridRateLimiter rateLimiter;
+    private final RateLimitProfiles profiles;
+    private final JwtService jwtService;
+    private final MetricsService metricsService;
     
-    public RateLimitingFilter(ProxyManager<byte[]> proxyManager, BucketConfiguration bucketConfiguration) {
-        this.proxyManager = proxyManager;
-        this.bucketConfiguration = bucketConfiguration;
+    public RateLimitingFilter(HybridRateLimiter rateLimiter,
+                              RateLimitProfiles profiles,
+                              JwtService jwtService,
+                              MetricsService metricsService) {
+        this.rateLimiter = rateLimiter;
+        this.profiles = profiles;
+        this.jwtService = jwtService;
+        this.metricsService = metricsService;
     }
     
     @Override
-    protected void doFilterInternal(HttpServletRequest request, 
-                                    HttpServletResponse response, 
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         
         // Skip rate limiting for actuator endpoints
@@ -40,30 +49,41 @@ public class RateLimitingFilter extends OncePerRequestFilter {
             return;
         }
         
-        // Get client identifier (IP address or user ID if authenticated)
-        String clientId = getClientIdentifier(request);
+        long start = System.nanoTime();
         
-        // Get or create bucket for this client
-        Bucket bucket = proxyManager.builder()
-            .build(clientId.getBytes(StandardCharsets.UTF_8), () -> bucketConfiguration);
+        // Runs before Spring Security; the principal comes from the JWT service's cache on repeat tokens
+        AuthenticatedUser principal = resolvePrincipal(request);
+        RateLimitProfile profile = profiles.resolve(request.getMethod(), path, principal);
+        String clientId = profile.isKeyedByIp()
+            ? "ip:" + getClientIp(request)
+            : "user:" + principal.getId();
         
-        // Try to consume a token
-        if (bucket.tryConsume(1)) {
+        boolean allowed = rateLimiter.tryAcquire(profile, clientId);
+        metricsService.recordRateLimitDecision(profile.getName(), allowed, System.nanoTime() - start);
+        
+        if (allowed) {
             filterChain.doFilter(request, response);
         } else {
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(profile.getRetryAfterSeconds()));
             response.getWriter().write("Rate limit exceeded. Please try again later.");
         }
     }
     
-    private String getClientIdentifier(HttpServletRequest request) {
-        // Try to get user ID from security context if available
-        String userId = (String) request.getAttribute("userId");
-        if (userId != null) {
-            return "user:" + userId;
+    private AuthenticatedUser resolvePrincipal(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
         }
-        
-        // Fallback to IP address
+        try {
+            return jwtService.authenticate(authHeader.substring(7));
+        } catch (RuntimeException e) {
+            // Invalid tokens are limited as anonymous traffic; the security chain rejects them later
+            return null;
+        }
+    }
+    
+    private String getClientIp(HttpServletRequest request) {
         String ipAddress = request.getRemoteAddr();
         if (ipAddress == null || ipAddress.isEmpty()) {
             ipAddress = request.getHeader("X-Forwarded-For");
@@ -72,6 +92,6 @@ public class RateLimitingFilter extends OncePerRequestFilter {
             }
         }
         
-        return "ip:" + (ipAddress != null ? ipAddress : "unknown");
+        return ipAddress != null ? ipAddress : "unknown";
     }
 }
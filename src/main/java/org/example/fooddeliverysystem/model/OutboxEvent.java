@@ -0,0 +1,117 @@
+package org.example.fooddeliverysystem.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    // Ids are assigned at insert, not at commit. Writers hold a lock on the topic and key from the insert until
+    // commit (OutboxEventRepository.lockOrderingKey), so per key id order is commit order, which the relay keeps
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    private String aggregateKey;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Failed sends so far; the relay skips the row until nextAttemptAt, which stays null until the first failure
+    @Column(nullable = false)
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String topic, String aggregateKey, String eventType, String payload) {
+        this.topic = topic;
+        this.aggregateKey = aggregateKey;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getAggregateKey() {
+        return aggregateKey;
+    }
+
+    public void setAggregateKey(String aggregateKey) {
+        this.aggregateKey = aggregateKey;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
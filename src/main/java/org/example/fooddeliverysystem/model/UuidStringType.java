@@ -0,0 +1,87 @@
+package org.example.fooddeliverysystem.model;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Keeps ids as Strings in Java while storing them in a native 16-byte uuid column.
+ * Foreign keys to an entity pick this type up from its @Id, so join columns are uuid as well.
+ */
+public class UuidStringType implements UserType<String> {
+
+    // Never assigned to a row, so lookups by a malformed id simply find nothing
+    private static final UUID NO_MATCH = new UUID(0L, 0L);
+
+    @Override
+    public int getSqlType() {
+        return SqlTypes.UUID;
+    }
+
+    @Override
+    public Class<String> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(String x, String y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(String x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public String nullSafeGet(ResultSet rs, int position, WrapperOptions options) throws SQLException {
+        Object value = rs.getObject(position);
+        return value != null ? value.toString() : null;
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, String value, int position, WrapperOptions options)
+            throws SQLException {
+        if (value == null) {
+            st.setNull(position, Types.OTHER);
+        } else {
+            st.setObject(position, toUuid(value), Types.OTHER);
+        }
+    }
+
+    @Override
+    public String deepCopy(String value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(String value) {
+        return value;
+    }
+
+    @Override
+    public String assemble(Serializable cached, Object owner) {
+        return (String) cached;
+    }
+
+    private static UUID toUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return NO_MATCH;
+        }
+    }
+}
@@ -5,10 +5,20 @@ import java.util.Optional;
 import org.example.fooddeliverysystem.model.Driver;
 import org.example.fooddeliverysystem.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface DriverRepository extends JpaRepository<Driver, String> {
 
     Optional<Driver> findByUser(User user);
+
+    Optional<Driver> findByUserId(String userId);
+
+    @Query("SELECT d.id FROM Driver d WHERE d.user.id = :userId")
+    Optional<String> findIdByUserId(@Param("userId") String userId);
+
+    @Query("SELECT d.user.id FROM Driver d WHERE d.id = :id")
+    Optional<String> findUserIdById(@Param("id") String id);
 }
@@ -1,12 +1,20 @@
 package org.example.fooddeliverysystem.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.example.fooddeliverysystem.model.FoodItem;
 import org.example.fooddeliverysystem.model.Restaurant;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface FoodItemRepository extends JpaRepository<FoodItem, String> {
 
@@ -15,4 +23,29 @@ public interface FoodItemRepository extends JpaRepository<FoodItem, String> {
     List<FoodItem> findByRestaurantAndIsDeletedFalse(Restaurant restaurant);
 
     List<FoodItem> findByRestaurantAndIsAvailableTrueAndIsDeletedFalse(Restaurant restaurant);
+
+    @Query("SELECT f FROM FoodItem f WHERE f.restaurant.id IN :restaurantIds AND f.isDeleted = false")
+    List<FoodItem> findMenusByRestaurantIds(@Param("restaurantIds") Collection<String> restaurantIds);
+
+    /**
+     * The searchable fields of a food item, without loading the entity
+     */
+    interface SearchDocument {
+        String getId();
+
+        String getRestaurantId();
+
+        String getName();
+
+        String getDescription();
+
+        Double getPrice();
+    }
+
+    // Server-side cursor: a city's menus are streamed rather than materialised
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT f.id AS id, f.restaurant.id AS restaurantId, f.name AS name, f.description AS description, " +
+           "f.price AS price FROM FoodItem f " +
+           "WHERE f.restaurant.city = :city AND f.isDeleted = false AND f.isAvailable = true")
+    Stream<SearchDocument> streamSearchDocumentsByCity(@Param("city") String city);
 }
@@ -1,23 +1,68 @@
 package org.example.fooddeliverysystem.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.example.fooddeliverysystem.model.Driver;
+import org.example.fooddeliverysystem.enums.OrderStatus;
 import org.example.fooddeliverysystem.model.Order;
 import org.example.fooddeliverysystem.model.Restaurant;
-import org.example.fooddeliverysystem.model.User;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, String> {
+public interface OrderRepository extends JpaRepository<Order, String>, JpaSpecificationExecutor<Order> {
 
-    List<Order> findByUser(User user);
+    Optional<Order> findByOrderNumber(String orderNumber);
 
-    List<Order> findByRestaurant(Restaurant restaurant);
+    // Status changes publish the restaurant's city, so load it in the same select
+    @EntityGraph(attributePaths = "restaurant")
+    Optional<Order> findWithRestaurantById(String id);
 
-    List<Order> findByDriver(Driver driver);
+    // Dispatch needs each restaurant's coordinates; one join instead of a select per order
+    @EntityGraph(attributePaths = "restaurant")
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findAllWithRestaurantByIdIn(@Param("ids") Collection<String> ids);
 
-    Optional<Order> findByOrderNumber(String orderNumber);
+    // The enum literal is inlined, so the partial index idx_orders_awaiting_dispatch matches
+    @Query("SELECT o.id FROM Order o " +
+           "WHERE o.orderStatus = org.example.fooddeliverysystem.enums.OrderStatus.READY " +
+           "AND o.driver IS NULL AND o.updatedAt < :before " +
+           "ORDER BY o.updatedAt, o.id")
+    List<String> findIdsAwaitingDispatchSince(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") String id);
+
+    // Server-side cursor: rows are fetched in chunks instead of materialising the full result
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE o.restaurant = :restaurant " +
+           "AND (:status IS NULL OR o.orderStatus = :status) " +
+           "AND o.createdAt >= :from AND o.createdAt < :to " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Stream<Order> streamByRestaurant(@Param("restaurant") Restaurant restaurant,
+                                     @Param("status") OrderStatus status,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    @Query("SELECT o.restaurant.id FROM Order o WHERE o.createdAt >= :since " +
+           "GROUP BY o.restaurant.id ORDER BY COUNT(o) DESC")
+    List<String> findTopRestaurantIdsByOrderVolume(@Param("since") LocalDateTime since, Pageable pageable);
 }
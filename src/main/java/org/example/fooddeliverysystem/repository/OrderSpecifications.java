@@ -0,0 +1,54 @@
+package org.example.fooddeliverysystem.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.fooddeliverysystem.enums.OrderStatus;
+import org.example.fooddeliverysystem.model.Order;
+import org.example.fooddeliverysystem.util.OrderCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.Predicate;
+
+public class OrderSpecifications {
+    
+    private OrderSpecifications() {
+        // Utility class
+    }
+    
+    /**
+     * Orders owned by the given user, restaurant or driver, optionally filtered by status and a
+     * [from, to) creation window, positioned strictly after the cursor in (createdAt DESC, id DESC) order
+     */
+    public static Specification<Order> history(String ownerAttribute, Object owner, OrderStatus status,
+                                               LocalDateTime from, LocalDateTime to, OrderCursor cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get(ownerAttribute), owner));
+            
+            if (status != null) {
+                predicates.add(cb.equal(root.get("orderStatus"), status));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), to));
+            }
+            if (cursor != null) {
+                // The redundant upper bound lets Postgres use it as an index condition; the OR alone would be a filter
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), cursor.getCreatedAt()));
+                predicates.add(cb.or(
+                    cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+                    cb.and(
+                        cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                        cb.lessThan(root.get("id"), cursor.getId())
+                    )
+                ));
+            }
+            
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
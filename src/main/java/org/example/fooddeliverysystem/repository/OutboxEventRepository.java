@@ -0,0 +1,69 @@
+package org.example.fooddeliverysystem.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.example.fooddeliverysystem.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Oldest events that are due. Rows backing off after a failed send are left out, and so is every later row
+     * for the same topic and key, which keeps per-key order while other keys move on.
+     */
+    @Query(value = "SELECT * FROM outbox_events e " +
+                   "WHERE (e.next_attempt_at IS NULL OR e.next_attempt_at <= now()) " +
+                   "AND NOT EXISTS (SELECT 1 FROM outbox_events b " +
+                   "  WHERE b.next_attempt_at IS NOT NULL AND b.next_attempt_at > now() " +
+                   "  AND b.topic = e.topic AND b.aggregate_key = e.aggregate_key AND b.id < e.id) " +
+                   "ORDER BY e.id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findNextBatch(@Param("limit") int limit);
+
+    // Database time, like the now() findNextBatch compares against
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET attempts = attempts + 1, " +
+                   "next_attempt_at = now() + make_interval(secs => :backoffSeconds) WHERE id = :id", nativeQuery = true)
+    int scheduleRetry(@Param("id") Long id, @Param("backoffSeconds") double backoffSeconds);
+
+    /**
+     * Copies the event to outbox_dead_letters; the caller deletes it from the outbox in the same transaction
+     */
+    @Modifying
+    @Query(value = "INSERT INTO outbox_dead_letters " +
+                   "(id, topic, aggregate_key, event_type, payload, created_at, attempts, last_error, dead_lettered_at) " +
+                   "SELECT id, topic, aggregate_key, event_type, payload, created_at, attempts + 1, :lastError, now() " +
+                   "FROM outbox_events WHERE id = :id", nativeQuery = true)
+    int copyToDeadLetters(@Param("id") Long id, @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e")
+    LocalDateTime findOldestCreatedAt();
+
+    /**
+     * Transaction-scoped lock on one ordering key, taken before inserting its event. A second transaction for the
+     * key waits until the first ends, so it can never take a lower id yet commit later.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtextextended(:orderingKey, 0))", nativeQuery = true)
+    int lockOrderingKey(@Param("orderingKey") String orderingKey);
+
+    /**
+     * Takes or renews the relay lease for owner. One relay publishes at a time, which keeps per-key ordering
+     * across instances without holding a transaction while it waits for Kafka.
+     *
+     * @return 1 when owner holds the lease
+     */
+    @Modifying
+    @Query(value = "UPDATE outbox_relay_lease SET owner = :owner, expires_at = now() + make_interval(secs => :leaseSeconds) " +
+                   "WHERE id = 1 AND (owner = :owner OR expires_at < now())", nativeQuery = true)
+    int tryAcquireRelayLease(@Param("owner") String owner, @Param("leaseSeconds") double leaseSeconds);
+}
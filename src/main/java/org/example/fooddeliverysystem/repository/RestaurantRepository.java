@@ -7,6 +7,7 @@ import org.example.fooddeliverysystem.model.Restaurant;
 import org.example.fooddeliverysystem.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,6 +17,14 @@ import org.springframework.stereotype.Repository;
 public interface RestaurantRepository extends JpaRepository<Restaurant, String> {
 
     Optional<Restaurant> findByUser(User user);
+    
+    Optional<Restaurant> findByUserId(String userId);
+
+    @Query("SELECT r.id FROM Restaurant r WHERE r.user.id = :userId")
+    Optional<String> findIdByUserId(@Param("userId") String userId);
+
+    @Query("SELECT DISTINCT r.city FROM Restaurant r")
+    List<String> findDistinctCities();
 
     List<Restaurant> findByCity(String city);
 
@@ -32,4 +41,11 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, String>
     Page<Restaurant> findByCityAndState(String city, String state, Pageable pageable);
     
     Page<Restaurant> findByIsOpenTrue(Pageable pageable);
+    
+    // Slices read one extra row to detect a next page instead of running a count query
+    Slice<Restaurant> findSliceByCity(String city, Pageable pageable);
+    
+    Slice<Restaurant> findSliceByCityAndState(String city, String state, Pageable pageable);
+    
+    Slice<Restaurant> findSliceByIsOpenTrue(Pageable pageable);
 }
@@ -0,0 +1,177 @@
+package org.example.fooddeliverysystem.service;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.example.fooddeliverysystem.exception.ResourceNotFoundException;
+import org.example.fooddeliverysystem.util.CacheKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cache-aside reads that keep a hot key's expiry from turning into a burst of identical database queries.
+ * <ul>
+ *   <li>Concurrent misses for the same key on this instance share a single load.</li>
+ *   <li>Shortly before a value expires, a read may refresh it in the background (probabilistic early
+ *       expiration, weighted by how long the load usually takes), so most keys never expire under traffic.</li>
+ *   <li>Ids that do not exist are remembered briefly, so repeated lookups do not reach the database.</li>
+ * </ul>
+ */
+@Component
+public class CacheAsideLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheAsideLoader.class);
+
+    private final CacheService cacheService;
+    private final MetricsService metricsService;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // Keys with a background refresh queued or running; claimed before submitting, so each key queues at most one
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Smoothed load time per key family, e.g. "restaurant:" or "restaurant:menu:"
+    private final ConcurrentHashMap<String, Long> loadMillisByFamily = new ConcurrentHashMap<>();
+
+    @Value("${cache.stampede.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${cache.stampede.min-load-millis:100}")
+    private long minLoadMillis;
+
+    @Value("${cache.stampede.negative-ttl-seconds:" + CacheKeys.NEGATIVE_TTL + "}")
+    private long negativeTtlSeconds;
+
+    @Value("${cache.stampede.refresh-threads:2}")
+    private int refreshThreads;
+
+    @Value("${cache.stampede.refresh-queue-capacity:1000}")
+    private int refreshQueueCapacity;
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    public CacheAsideLoader(CacheService cacheService, MetricsService metricsService) {
+        this.cacheService = cacheService;
+        this.metricsService = metricsService;
+    }
+
+    @PostConstruct
+    void init() {
+        int threads = Math.max(1, refreshThreads);
+        refreshExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, refreshQueueCapacity)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdown();
+    }
+
+    /**
+     * Return the cached value for key, loading and caching it with the given TTL on a miss.
+     * The loader should throw ResourceNotFoundException for missing ids so the miss is negatively cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, long ttlSeconds, Supplier<T> loader) {
+        CacheService.ValueWithTtl cached = cacheService.getWithTtl(key);
+        if (cached.getValue() != null) {
+            if (shouldRefreshEarly(key, cached.getTtlMillis()) && !inFlight.containsKey(key)) {
+                refreshInBackground(key, ttlSeconds, loader);
+            }
+            return (T) cached.getValue();
+        }
+
+        String notFound = cacheService.getString(CacheKeys.negativeKey(key));
+        if (notFound != null) {
+            metricsService.incrementCacheNegativeHits();
+            throw new ResourceNotFoundException(notFound);
+        }
+
+        try {
+            return (T) loadOnce(key, ttlSeconds, loader).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Early refreshes are best effort: when the queue is full the refresh is dropped, and the value stays cached
+     * until a later read refreshes it or it expires
+     */
+    private void refreshInBackground(String key, long ttlSeconds, Supplier<?> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loadOnce(key, ttlSeconds, loader);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+            metricsService.incrementCacheEarlyRefresh();
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            logger.debug("Cache refresh queue full, skipping early refresh of {}", key);
+        }
+    }
+
+    private CompletableFuture<Object> loadOnce(String key, long ttlSeconds, Supplier<?> loader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            metricsService.incrementCacheLoadCoalesced();
+            return existing;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            Object value = loader.get();
+            cacheService.setWithExpiry(key, value, ttlSeconds, TimeUnit.SECONDS);
+            loadMillisByFamily.merge(family(key), System.currentTimeMillis() - start,
+                (previous, latest) -> (previous * 7 + latest) / 8);
+            load.complete(value);
+        } catch (ResourceNotFoundException e) {
+            cacheService.delete(key);
+            cacheService.setStringWithExpiry(CacheKeys.negativeKey(key), e.getMessage(), negativeTtlSeconds, TimeUnit.SECONDS);
+            load.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load cache key {}: {}", key, e.getMessage());
+            load.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, load);
+        }
+        return load;
+    }
+
+    /**
+     * XFetch: refresh when -delta * beta * ln(rand) reaches the remaining TTL, where delta is the usual load time.
+     * The closer the expiry and the slower the load, the more likely a read refreshes early.
+     */
+    private boolean shouldRefreshEarly(String key, long ttlMillis) {
+        if (ttlMillis <= 0 || earlyRefreshBeta <= 0) {
+            return false;
+        }
+        long deltaMillis = Math.max(minLoadMillis, loadMillisByFamily.getOrDefault(family(key), 0L));
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return -deltaMillis * earlyRefreshBeta * Math.log(random) >= ttlMillis;
+    }
+
+    private static String family(String key) {
+        return key.substring(0, key.lastIndexOf(':') + 1);
+    }
+}
@@ -1,9 +1,28 @@
 package org.example.fooddeliverysystem.service;
 
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.domain.geo.GeoReference;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -11,27 +30,111 @@ public class CacheService {
     
     private final RedisTemplate<String, Object> redisTemplate;
     private final StringRedisTemplate stringRedisTemplate;
+    private final NearCache nearCache;
+    private final MetricsService metricsService;
     
     public CacheService(RedisTemplate<String, Object> redisTemplate, 
-                       StringRedisTemplate stringRedisTemplate) {
+                       StringRedisTemplate stringRedisTemplate,
+                       NearCache nearCache,
+                       MetricsService metricsService) {
         this.redisTemplate = redisTemplate;
         this.stringRedisTemplate = stringRedisTemplate;
+        this.nearCache = nearCache;
+        this.metricsService = metricsService;
     }
     
     public void set(String key, Object value) {
-        redisTemplate.opsForValue().set(key, value);
+        metricsService.recordRedisLatency("set", () -> {
+            redisTemplate.opsForValue().set(key, value);
+            return null;
+        });
+        if (nearCache.handles(key)) {
+            nearCache.invalidate(key);
+            nearCache.put(key, value, -1, nearCache.generation(key));
+        }
     }
     
     public void setWithExpiry(String key, Object value, long timeout, TimeUnit unit) {
-        redisTemplate.opsForValue().set(key, value, timeout, unit);
+        metricsService.recordRedisLatency("setex", () -> {
+            redisTemplate.opsForValue().set(key, value, timeout, unit);
+            return null;
+        });
+        if (nearCache.handles(key)) {
+            nearCache.invalidate(key);
+            nearCache.put(key, value, unit.toSeconds(timeout), nearCache.generation(key));
+        }
+    }
+    
+    /**
+     * Write many values in a single pipelined round trip.
+     * Near-cache copies on other instances are not evicted; they expire within their short local TTL.
+     */
+    public void setAllWithExpiry(Map<String, Object> entries, long timeout, TimeUnit unit) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        metricsService.recordRedisLatency("setex_pipelined", () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                entries.forEach((key, value) -> ops.opsForValue().set(key, value, timeout, unit));
+                return null;
+            }
+        }));
     }
     
     public Object get(String key) {
-        return redisTemplate.opsForValue().get(key);
+        if (!nearCache.handles(key)) {
+            return metricsService.recordRedisLatency("get", () -> redisTemplate.opsForValue().get(key));
+        }
+        
+        // Near cache first, then Redis; Redis hits are kept locally for a short, bounded time
+        Object value = nearCache.get(key);
+        if (value == null) {
+            long generation = nearCache.generation(key);
+            value = metricsService.recordRedisLatency("get", () -> redisTemplate.opsForValue().get(key));
+            nearCache.put(key, value, -1, generation);
+        }
+        return value;
+    }
+    
+    /**
+     * Value together with its remaining Redis TTL, fetched in one round trip.
+     * Near-cache hits report an unknown TTL (-1).
+     */
+    public ValueWithTtl getWithTtl(String key) {
+        boolean near = nearCache.handles(key);
+        long generation = 0;
+        if (near) {
+            Object local = nearCache.get(key);
+            if (local != null) {
+                return new ValueWithTtl(local, -1);
+            }
+            generation = nearCache.generation(key);
+        }
+        
+        List<Object> results = metricsService.recordRedisLatency("get_pttl", () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.opsForValue().get(key);
+                ops.getExpire(key, TimeUnit.MILLISECONDS);
+                return null;
+            }
+        }));
+        Object value = results.get(0);
+        long ttlMillis = results.get(1) instanceof Long ttl ? ttl : -1;
+        if (near && value != null) {
+            nearCache.put(key, value, ttlMillis > 0 ? Math.max(1, TimeUnit.MILLISECONDS.toSeconds(ttlMillis)) : -1,
+                generation);
+        }
+        return new ValueWithTtl(value, ttlMillis);
     }
     
     public <T> T get(String key, Class<T> type) {
-        Object value = redisTemplate.opsForValue().get(key);
+        Object value = get(key);
         if (value == null) {
             return null;
         }
@@ -39,40 +142,181 @@ public class CacheService {
     }
     
     public String getString(String key) {
-        return stringRedisTemplate.opsForValue().get(key);
+        return metricsService.recordRedisLatency("get", () -> stringRedisTemplate.opsForValue().get(key));
     }
     
     public void setString(String key, String value) {
-        stringRedisTemplate.opsForValue().set(key, value);
+        metricsService.recordRedisLatency("set", () -> {
+            stringRedisTemplate.opsForValue().set(key, value);
+            return null;
+        });
     }
     
     public void setStringWithExpiry(String key, String value, long timeout, TimeUnit unit) {
-        stringRedisTemplate.opsForValue().set(key, value, timeout, unit);
+        metricsService.recordRedisLatency("setex", () -> {
+            stringRedisTemplate.opsForValue().set(key, value, timeout, unit);
+            return null;
+        });
+    }
+    
+    public boolean setStringIfAbsent(String key, String value, long timeout, TimeUnit unit) {
+        Boolean set = metricsService.recordRedisLatency("setnx",
+            () -> stringRedisTemplate.opsForValue().setIfAbsent(key, value, timeout, unit));
+        return set != null && set;
+    }
+    
+    public Long incrementString(String key) {
+        return metricsService.recordRedisLatency("incr", () -> stringRedisTemplate.opsForValue().increment(key));
+    }
+    
+    public Long decrementString(String key) {
+        return metricsService.recordRedisLatency("decr", () -> stringRedisTemplate.opsForValue().decrement(key));
     }
     
     public void delete(String key) {
-        redisTemplate.delete(key);
+        metricsService.recordRedisLatency("del", () -> redisTemplate.delete(key));
+        if (nearCache.handles(key)) {
+            nearCache.invalidate(key);
+        }
     }
     
     public void deleteString(String key) {
-        stringRedisTemplate.delete(key);
+        metricsService.recordRedisLatency("del", () -> stringRedisTemplate.delete(key));
     }
     
     public boolean exists(String key) {
-        Boolean exists = redisTemplate.hasKey(key);
+        Boolean exists = metricsService.recordRedisLatency("exists", () -> redisTemplate.hasKey(key));
         return exists != null && exists;
     }
     
     public boolean existsString(String key) {
-        Boolean exists = stringRedisTemplate.hasKey(key);
+        Boolean exists = metricsService.recordRedisLatency("exists", () -> stringRedisTemplate.hasKey(key));
         return exists != null && exists;
     }
     
     public void setExpiry(String key, long timeout, TimeUnit unit) {
-        redisTemplate.expire(key, timeout, unit);
+        metricsService.recordRedisLatency("expire", () -> redisTemplate.expire(key, timeout, unit));
     }
     
     public Long getExpiry(String key) {
-        return redisTemplate.getExpire(key);
+        return metricsService.recordRedisLatency("ttl", () -> redisTemplate.getExpire(key));
+    }
+    
+    /**
+     * TTLs in seconds for many keys in one pipelined round trip (-1 without expiry, -2 when missing)
+     */
+    public List<Long> getExpiries(List<String> keys) {
+        List<Object> results = metricsService.recordRedisLatency("ttl_pipeline",
+            () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.keyCommands().ttl(key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            }));
+        List<Long> ttls = new ArrayList<>(results.size());
+        for (Object result : results) {
+            ttls.add(result instanceof Long ttl ? ttl : -2L);
+        }
+        return ttls;
+    }
+    
+    /**
+     * Incrementally SCAN for keys matching the pattern, stopping after maxKeys.
+     * Never use KEYS here: it blocks Redis for the whole keyspace.
+     */
+    public List<String> scanKeys(String pattern, long maxKeys) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(1000).build();
+        return metricsService.recordRedisLatency("scan", () -> {
+            List<String> keys = new ArrayList<>();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext() && keys.size() < maxKeys) {
+                    keys.add(cursor.next());
+                }
+            }
+            return keys;
+        });
+    }
+    
+    public Properties getServerInfo(String section) {
+        Properties info = metricsService.recordRedisLatency("info", () -> stringRedisTemplate.execute(
+            (RedisCallback<Properties>) connection -> connection.serverCommands().info(section)));
+        return info != null ? info : new Properties();
+    }
+    
+    public long getKeyCount() {
+        Long size = metricsService.recordRedisLatency("dbsize",
+            () -> stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().dbSize()));
+        return size != null ? size : 0;
+    }
+    
+    public List<String> multiGetStrings(Collection<String> keys) {
+        return metricsService.recordRedisLatency("mget", () -> stringRedisTemplate.opsForValue().multiGet(keys));
+    }
+    
+    public void zAdd(String key, String member, double score) {
+        metricsService.recordRedisLatency("zadd", () -> stringRedisTemplate.opsForZSet().add(key, member, score));
+    }
+    
+    public void hashDelete(String key, String... fields) {
+        metricsService.recordRedisLatency("hdel", () -> stringRedisTemplate.opsForHash().delete(key, (Object[]) fields));
+    }
+    
+    /**
+     * Runs a Lua script by its SHA, loading it on first use; keys and arguments are plain strings
+     */
+    public <T> T executeScript(String operation, RedisScript<T> script, List<String> keys, String... args) {
+        return metricsService.recordRedisLatency(operation, () -> stringRedisTemplate.execute(script, keys, (Object[]) args));
+    }
+    
+    public void geoAdd(String key, double longitude, double latitude, String member) {
+        metricsService.recordRedisLatency("geoadd",
+            () -> stringRedisTemplate.opsForGeo().add(key, new Point(longitude, latitude), member));
+    }
+    
+    public void geoRemove(String key, String... members) {
+        metricsService.recordRedisLatency("georem", () -> stringRedisTemplate.opsForGeo().remove(key, members));
+    }
+    
+    /**
+     * Members of a geo set by rank, start and end inclusive
+     */
+    public Set<String> geoMembers(String key, long start, long end) {
+        return metricsService.recordRedisLatency("zrange", () -> stringRedisTemplate.opsForZSet().range(key, start, end));
+    }
+    
+    /**
+     * Members of a geo set within radiusKm of the given point, nearest first
+     */
+    public GeoResults<RedisGeoCommands.GeoLocation<String>> geoSearch(String key, double longitude, double latitude,
+                                                                      double radiusKm, long limit) {
+        RedisGeoCommands.GeoSearchCommandArgs args = RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs()
+            .includeDistance()
+            .includeCoordinates()
+            .sortAscending()
+            .limit(limit);
+        return metricsService.recordRedisLatency("geosearch", () -> stringRedisTemplate.opsForGeo().search(
+            key,
+            GeoReference.fromCoordinate(longitude, latitude),
+            new Distance(radiusKm, Metrics.KILOMETERS),
+            args
+        ));
+    }
+    
+    public static class ValueWithTtl {
+        private final Object value;
+        private final long ttlMillis;
+        
+        public ValueWithTtl(Object value, long ttlMillis) {
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+        }
+        
+        public Object getValue() {
+            return value;
+        }
+        
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
     }
 }
@@ -0,0 +1,119 @@
+package org.example.fooddeliverysystem.service;
+
+import org.example.fooddeliverysystem.util.CacheKeys;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis-backed queue of READY orders waiting for a driver, scored by the time each order is next due.
+ * New orders are due at once; unmatched ones are re-scored into the future, so orders nobody can serve
+ * (a city without drivers) never crowd out the rest. The time each order became ready is kept in a
+ * separate hash for the wait-time metric. Popping is atomic, so each order is handed to exactly one
+ * dispatcher instance.
+ */
+@Service
+public class DispatchQueueService {
+
+    // Keeps an existing ready time and an existing (possibly backed-off) due time
+    private static final RedisScript<Long> ENQUEUE_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('HSETNX', KEYS[2], ARGV[1], ARGV[2]) " +
+        "return redis.call('ZADD', KEYS[1], 'NX', ARGV[3], ARGV[1])",
+        Long.class);
+
+    // Pops up to ARGV[2] orders due by ARGV[1]; returns id, ready time pairs
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> POLL_SCRIPT = new DefaultRedisScript<>(
+        "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+        "if #ids == 0 then return {} end " +
+        "redis.call('ZREM', KEYS[1], unpack(ids)) " +
+        "local readyAts = redis.call('HMGET', KEYS[2], unpack(ids)) " +
+        "local result = {} " +
+        "for i, id in ipairs(ids) do " +
+        "  result[2 * i - 1] = id " +
+        "  result[2 * i] = readyAts[i] or ARGV[1] " +
+        "end " +
+        "return result",
+        List.class);
+
+    private final CacheService cacheService;
+
+    public DispatchQueueService(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    public void enqueue(String orderId) {
+        enqueue(orderId, System.currentTimeMillis());
+    }
+
+    /**
+     * Queues the order as due now unless it is already queued; readyAtMillis only counts when the order is new
+     */
+    public void enqueue(String orderId, long readyAtMillis) {
+        cacheService.executeScript(
+            "dispatch_enqueue",
+            ENQUEUE_SCRIPT,
+            List.of(CacheKeys.DISPATCH_QUEUE_KEY, CacheKeys.DISPATCH_READY_AT_KEY),
+            orderId,
+            String.valueOf(readyAtMillis),
+            String.valueOf(System.currentTimeMillis())
+        );
+    }
+
+    /**
+     * Puts a popped order back, due again after delayMillis; its ready time is kept
+     */
+    public void retryLater(String orderId, long delayMillis) {
+        cacheService.zAdd(CacheKeys.DISPATCH_QUEUE_KEY, orderId, System.currentTimeMillis() + delayMillis);
+    }
+
+    /**
+     * Forgets the ready time of orders that were assigned or no longer need a driver
+     */
+    public void complete(List<String> orderIds) {
+        if (!orderIds.isEmpty()) {
+            cacheService.hashDelete(CacheKeys.DISPATCH_READY_AT_KEY, orderIds.toArray(new String[0]));
+        }
+    }
+
+    public List<QueuedOrder> poll(int batchSize) {
+        long now = System.currentTimeMillis();
+        List<?> result = cacheService.executeScript(
+            "dispatch_poll",
+            POLL_SCRIPT,
+            List.of(CacheKeys.DISPATCH_QUEUE_KEY, CacheKeys.DISPATCH_READY_AT_KEY),
+            String.valueOf(now),
+            String.valueOf(batchSize)
+        );
+        if (result == null || result.isEmpty()) {
+            return List.of();
+        }
+
+        List<QueuedOrder> orders = new ArrayList<>(result.size() / 2);
+        for (int i = 0; i + 1 < result.size(); i += 2) {
+            orders.add(new QueuedOrder(String.valueOf(result.get(i)), Long.parseLong(String.valueOf(result.get(i + 1)))));
+        }
+        return orders;
+    }
+
+    public static class QueuedOrder {
+        private final String orderId;
+        private final long readyAtMillis;
+
+        public QueuedOrder(String orderId, long readyAtMillis) {
+            this.orderId = orderId;
+            this.readyAtMillis = readyAtMillis;
+        }
+
+        public String getOrderId() {
+            return orderId;
+        }
+
+        public long getReadyAtMillis() {
+            return readyAtMillis;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.example.fooddeliverysystem.service;
+
+import org.example.fooddeliverysystem.dto.driver.NearbyDriverResponse;
+import org.example.fooddeliverysystem.enums.OrderStatus;
+import org.example.fooddeliverysystem.exception.BusinessException;
+import org.example.fooddeliverysystem.exception.ResourceNotFoundException;
+import org.example.fooddeliverysystem.model.Order;
+import org.example.fooddeliverysystem.model.Restaurant;
+import org.example.fooddeliverysystem.repository.OrderRepository;
+import org.example.fooddeliverysystem.util.DistanceUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches READY orders to nearby available drivers.
+ * Orders are collected for one batch window and matched together: every (order, driver) pair is scored by
+ * distance and current driver load, and the cheapest pairs are assigned first.
+ */
+@Service
+public class DispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispatchService.class);
+
+    private final DispatchQueueService dispatchQueueService;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final DriverLocationService driverLocationService;
+    private final MetricsService metricsService;
+
+    @Value("${dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dispatch.batch-size:200}")
+    private int batchSize;
+
+    @Value("${dispatch.search-radius-km:5}")
+    private double searchRadiusKm;
+
+    @Value("${dispatch.candidates-per-order:5}")
+    private int candidatesPerOrder;
+
+    @Value("${dispatch.max-driver-load:1}")
+    private int maxDriverLoad;
+
+    @Value("${dispatch.distance-weight:1.0}")
+    private double distanceWeight;
+
+    @Value("${dispatch.load-weight:2.0}")
+    private double loadWeight;
+
+    @Value("${dispatch.retry-delay-ms:5000}")
+    private long retryDelayMillis;
+
+    @Value("${dispatch.sweep-after-ms:120000}")
+    private long sweepAfterMillis;
+
+    @Value("${dispatch.sweep-page-size:500}")
+    private int sweepPageSize;
+
+    public DispatchService(DispatchQueueService dispatchQueueService,
+                          OrderRepository orderRepository,
+                          OrderService orderService,
+                          DriverLocationService driverLocationService,
+                          MetricsService metricsService) {
+        this.dispatchQueueService = dispatchQueueService;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.driverLocationService = driverLocationService;
+        this.metricsService = metricsService;
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.batch-window-ms:500}")
+    public void dispatchPendingOrders() {
+        if (!enabled) {
+            return;
+        }
+
+        List<DispatchQueueService.QueuedOrder> queued = dispatchQueueService.poll(batchSize);
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        try {
+            dispatchBatch(queued);
+        } catch (Exception e) {
+            // Never lose orders popped from the queue
+            logger.error("Dispatch batch failed, re-queueing {} orders: {}", queued.size(), e.getMessage(), e);
+            for (DispatchQueueService.QueuedOrder queuedOrder : queued) {
+                dispatchQueueService.retryLater(queuedOrder.getOrderId(), retryDelayMillis);
+            }
+        }
+    }
+
+    /**
+     * Re-queues READY orders that have waited without a driver for longer than sweepAfterMillis. Covers an
+     * enqueue that failed after commit and an instance that died between popping a batch and re-queueing it.
+     * Orders still in the queue keep their place: enqueue never touches an existing entry.
+     */
+    @Scheduled(fixedDelayString = "${dispatch.sweep-interval-ms:60000}")
+    public void requeueStrandedOrders() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(sweepAfterMillis));
+        int swept = 0;
+        List<String> orderIds;
+        int page = 0;
+        do {
+            orderIds = orderRepository.findIdsAwaitingDispatchSince(before, PageRequest.of(page++, sweepPageSize));
+            for (String orderId : orderIds) {
+                dispatchQueueService.enqueue(orderId);
+            }
+            swept += orderIds.size();
+        } while (orderIds.size() == sweepPageSize);
+
+        if (swept > 0) {
+            logger.info("Dispatch sweep re-queued {} orders waiting since before {}", swept, before);
+        }
+    }
+
+    private void dispatchBatch(List<DispatchQueueService.QueuedOrder> queued) {
+        Map<String, Long> readyAtByOrderId = new HashMap<>();
+        for (DispatchQueueService.QueuedOrder queuedOrder : queued) {
+            readyAtByOrderId.put(queuedOrder.getOrderId(), queuedOrder.getReadyAtMillis());
+        }
+
+        // Orders that were cancelled or assigned manually in the meantime simply drop out of the queue
+        List<Order> orders = orderRepository.findAllWithRestaurantByIdIn(readyAtByOrderId.keySet()).stream()
+            .filter(order -> order.getOrderStatus() == OrderStatus.READY && order.getDriver() == null)
+            .toList();
+
+        List<Candidate> candidates = new ArrayList<>();
+        Set<String> candidateDriverIds = new LinkedHashSet<>();
+        for (Order order : orders) {
+            Restaurant restaurant = order.getRestaurant();
+            List<NearbyDriverResponse> nearby = driverLocationService.findNearestAvailableDrivers(
+                restaurant.getLatitude(), restaurant.getLongitude(), searchRadiusKm, candidatesPerOrder);
+            for (NearbyDriverResponse driver : nearby) {
+                double distanceKm = DistanceUtil.calculateDistance(
+                    restaurant.getLatitude(), restaurant.getLongitude(),
+                    driver.getLatitude(), driver.getLongitude());
+                candidates.add(new Candidate(order.getId(), driver.getDriverId(), distanceKm));
+                candidateDriverIds.add(driver.getDriverId());
+            }
+        }
+
+        Map<String, Integer> loadByDriverId = new HashMap<>();
+        if (!candidateDriverIds.isEmpty()) {
+            List<String> driverIds = new ArrayList<>(candidateDriverIds);
+            List<Integer> loads = driverLocationService.getDriverLoads(driverIds);
+            for (int i = 0; i < driverIds.size(); i++) {
+                loadByDriverId.put(driverIds.get(i), loads.get(i));
+            }
+        }
+
+        for (Candidate candidate : candidates) {
+            int load = loadByDriverId.getOrDefault(candidate.driverId, 0);
+            candidate.cost = candidate.distanceKm * distanceWeight + load * loadWeight;
+        }
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.cost));
+
+        // Greedy global matching: cheapest pairs first, each order once, each driver up to its free capacity
+        Set<String> assignedOrderIds = new HashSet<>();
+        for (Candidate candidate : candidates) {
+            if (assignedOrderIds.contains(candidate.orderId)) {
+                continue;
+            }
+            int load = loadByDriverId.getOrDefault(candidate.driverId, 0);
+            if (load >= maxDriverLoad) {
+                continue;
+            }
+            if (tryAssign(candidate)) {
+                assignedOrderIds.add(candidate.orderId);
+                loadByDriverId.put(candidate.driverId, load + 1);
+                metricsService.incrementDispatchAssignments();
+                metricsService.recordDispatchWaitTime(
+                    System.currentTimeMillis() - readyAtByOrderId.get(candidate.orderId));
+            }
+        }
+
+        // Unmatched orders wait out the retry delay so they cannot hold the head of the queue
+        List<String> finishedOrderIds = new ArrayList<>(readyAtByOrderId.keySet());
+        int unmatched = 0;
+        for (Order order : orders) {
+            if (!assignedOrderIds.contains(order.getId())) {
+                dispatchQueueService.retryLater(order.getId(), retryDelayMillis);
+                finishedOrderIds.remove(order.getId());
+                unmatched++;
+            }
+        }
+        dispatchQueueService.complete(finishedOrderIds);
+        if (unmatched > 0) {
+            metricsService.incrementDispatchUnmatched(unmatched);
+        }
+        logger.debug("Dispatch batch: {} orders, {} assigned, {} re-queued", orders.size(), assignedOrderIds.size(), unmatched);
+    }
+
+    private boolean tryAssign(Candidate candidate) {
+        try {
+            // Claims the driver and re-checks its load: another instance may have loaded it since the batch was scored
+            orderService.assignDriver(candidate.orderId, candidate.driverId);
+            return true;
+        } catch (BusinessException | ResourceNotFoundException e) {
+            logger.debug("Could not assign driver {} to order {}: {}", candidate.driverId, candidate.orderId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static class Candidate {
+        private final String orderId;
+        private final String driverId;
+        private final double distanceKm;
+        private double cost;
+
+        Candidate(String orderId, String driverId, double distanceKm) {
+            this.orderId = orderId;
+            this.driverId = driverId;
+            this.distanceKm = distanceKm;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.fooddeliverysystem.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.example.fooddeliverysystem.repository.DriverRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Driver id to owning user id, kept in process so location pings never touch Postgres.
+ * The mapping never changes once a driver is registered. Unknown ids are cached too, but only briefly:
+ * pings with a bogus id stay off Postgres, and a driver registered on another instance is found within
+ * the negative TTL.
+ */
+@Service
+public class DriverIdentityCache {
+    
+    private final DriverRepository driverRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<String, Optional<String>> ownerByDriverId;
+    
+    public DriverIdentityCache(DriverRepository driverRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${driver.identity-cache.max-size:100000}") long maxSize,
+                               @Value("${driver.identity-cache.ttl-minutes:60}") long ttlMinutes,
+                               @Value("${driver.identity-cache.negative-ttl-seconds:10}") long negativeTtlSeconds) {
+        this.driverRepository = driverRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ownerByDriverId = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new OwnerExpiry(Duration.ofMinutes(ttlMinutes), Duration.ofSeconds(negativeTtlSeconds)))
+            .build();
+    }
+    
+    /**
+     * User id owning the driver, or null when no such driver exists.
+     * Only a miss opens a (read-only, replica) transaction; hits never touch the transaction manager.
+     */
+    public String findOwnerUserId(String driverId) {
+        return ownerByDriverId.get(driverId,
+            id -> readOnlyTransaction.execute(status -> driverRepository.findUserIdById(id))).orElse(null);
+    }
+    
+    public void remember(String driverId, String ownerUserId) {
+        ownerByDriverId.put(driverId, Optional.of(ownerUserId));
+    }
+    
+    // Known owners live for the full TTL, unknown ids (empty) for the negative TTL
+    private static class OwnerExpiry implements Expiry<String, Optional<String>> {
+        
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+        
+        OwnerExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+        
+        @Override
+        public long expireAfterCreate(String driverId, Optional<String> owner, long currentTime) {
+            return owner.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+        
+        @Override
+        public long expireAfterUpdate(String driverId, Optional<String> owner, long currentTime, long currentDuration) {
+            return expireAfterCreate(driverId, owner, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String driverId, Optional<String> owner, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
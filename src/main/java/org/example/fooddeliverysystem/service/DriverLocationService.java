@@ -1,42 +1,96 @@
 package org.example.fooddeliverysystem.service;
 
 import org.example.fooddeliverysystem.dto.driver.DriverLocationUpdateRequest;
-import org.example.fooddeliverysystem.exception.ResourceNotFoundException;
-import org.example.fooddeliverysystem.model.Driver;
-import org.example.fooddeliverysystem.repository.DriverRepository;
+import org.example.fooddeliverysystem.dto.driver.NearbyDriverResponse;
 import org.example.fooddeliverysystem.util.CacheKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class DriverLocationService {
     
-    private final DriverRepository driverRepository;
+    // Geo results are over-fetched so that stale members can be dropped without a second round trip
+    private static final int GEO_SEARCH_OVERFETCH = 2;
+    
+    // Members checked per round trip when listing available drivers
+    private static final int AVAILABLE_SCAN_BATCH = 200;
+    
+    // Stores the position, moves available drivers in the geo index and, at most once per throttle interval,
+    // publishes the position to whoever tracks the order the driver is delivering: one round trip per ping
+    private static final RedisScript<Long> UPDATE_LOCATION_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) " +
+        "if redis.call('GET', KEYS[2]) == 'true' then " +
+        "  redis.call('GEOADD', KEYS[3], ARGV[3], ARGV[4], ARGV[5]) " +
+        "end " +
+        "local orderId = redis.call('GET', KEYS[4]) " +
+        "if orderId and redis.call('SET', KEYS[5], '1', 'PX', ARGV[6], 'NX') then " +
+        "  redis.call('PUBLISH', ARGV[7], orderId .. '|" + OrderTrackingService.DRIVER_LOCATION_EVENT + "|0|' .. " +
+        "    '{\"latitude\":' .. ARGV[4] .. ',\"longitude\":' .. ARGV[3] .. '}') " +
+        "  return 1 " +
+        "end " +
+        "return 0",
+        Long.class);
+    
+    // Deletes the claim only while it still holds the caller's token, so a claim that expired and was taken by
+    // another dispatcher is never released by the previous holder
+    private static final RedisScript<Long> RELEASE_CLAIM_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+        "  return redis.call('DEL', KEYS[1]) " +
+        "end " +
+        "return 0",
+        Long.class);
+    
     private final CacheService cacheService;
     
-    public DriverLocationService(DriverRepository driverRepository, CacheService cacheService) {
-        this.driverRepository = driverRepository;
+    @Value("${order-tracking.location-interval-ms:3000}")
+    private long trackingLocationIntervalMillis;
+    
+    public DriverLocationService(CacheService cacheService) {
         this.cacheService = cacheService;
     }
     
-    @Transactional
+    /**
+     * Redis only: callers have already checked the driver through DriverIdentityCache
+     */
     public void updateDriverLocation(String driverId, DriverLocationUpdateRequest request) {
-        Driver driver = driverRepository.findById(driverId)
-            .orElseThrow(() -> new ResourceNotFoundException("Driver", driverId));
-        
-        // Store location in Redis cache
-        String locationKey = CacheKeys.driverLocationKey(driverId);
-        String locationValue = request.getLatitude() + "," + request.getLongitude();
-        cacheService.setStringWithExpiry(
-            locationKey,
-            locationValue,
-            CacheKeys.DRIVER_LOCATION_TTL,
-            TimeUnit.SECONDS
+        cacheService.executeScript(
+            "update_driver_location",
+            UPDATE_LOCATION_SCRIPT,
+            List.of(
+                CacheKeys.driverLocationKey(driverId),
+                CacheKeys.driverAvailabilityKey(driverId),
+                CacheKeys.AVAILABLE_DRIVERS_GEO_KEY,
+                CacheKeys.trackedDriverKey(driverId),
+                CacheKeys.trackingThrottleKey(driverId)
+            ),
+            request.getLatitude() + "," + request.getLongitude(),
+            String.valueOf(CacheKeys.DRIVER_LOCATION_TTL),
+            String.valueOf(request.getLongitude()),
+            String.valueOf(request.getLatitude()),
+            driverId,
+            String.valueOf(trackingLocationIntervalMillis),
+            CacheKeys.ORDER_TRACKING_CHANNEL
         );
     }
     
+    /**
+     * Pings from one device arrive oldest first; only the newest becomes the driver's position
+     */
+    public void updateDriverLocations(String driverId, List<DriverLocationUpdateRequest> pings) {
+        updateDriverLocation(driverId, pings.get(pings.size() - 1));
+    }
+    
     public String getDriverLocation(String driverId) {
         String locationKey = CacheKeys.driverLocationKey(driverId);
         return cacheService.getString(locationKey);
@@ -48,11 +102,7 @@ public class DriverLocationService {
         return available != null && Boolean.parseBoolean(available);
     }
     
-    @Transactional
     public void setDriverAvailability(String driverId, boolean available) {
-        Driver driver = driverRepository.findById(driverId)
-            .orElseThrow(() -> new ResourceNotFoundException("Driver", driverId));
-        
         // Store availability in Redis cache
         String availabilityKey = CacheKeys.driverAvailabilityKey(driverId);
         cacheService.setStringWithExpiry(
@@ -61,5 +111,190 @@ public class DriverLocationService {
             CacheKeys.DRIVER_AVAILABILITY_TTL,
             TimeUnit.SECONDS
         );
+        
+        // Only available drivers with a known position are indexed
+        if (!available) {
+            cacheService.geoRemove(CacheKeys.AVAILABLE_DRIVERS_GEO_KEY, driverId);
+            return;
+        }
+        double[] location = parseLocation(getDriverLocation(driverId));
+        if (location != null) {
+            cacheService.geoAdd(CacheKeys.AVAILABLE_DRIVERS_GEO_KEY, location[1], location[0], driverId);
+        }
+    }
+    
+    /**
+     * Find available drivers within radiusKm of a point, nearest first.
+     * Members whose availability or location key has expired are pruned from the index as they are found.
+     */
+    public List<NearbyDriverResponse> findNearestAvailableDrivers(double latitude, double longitude,
+                                                                 double radiusKm, int limit) {
+        GeoResults<RedisGeoCommands.GeoLocation<String>> results = cacheService.geoSearch(
+            CacheKeys.AVAILABLE_DRIVERS_GEO_KEY,
+            longitude,
+            latitude,
+            radiusKm,
+            (long) limit * GEO_SEARCH_OVERFETCH
+        );
+        if (results == null || results.getContent().isEmpty()) {
+            return List.of();
+        }
+        
+        List<GeoResult<RedisGeoCommands.GeoLocation<String>>> candidates = results.getContent();
+        List<String> driverIds = new ArrayList<>(candidates.size());
+        for (GeoResult<RedisGeoCommands.GeoLocation<String>> candidate : candidates) {
+            driverIds.add(candidate.getContent().getName());
+        }
+        boolean[] live = checkIndexed(driverIds);
+        
+        List<NearbyDriverResponse> drivers = new ArrayList<>(limit);
+        List<String> stale = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            RedisGeoCommands.GeoLocation<String> location = candidates.get(i).getContent();
+            if (!live[i]) {
+                stale.add(location.getName());
+                continue;
+            }
+            if (drivers.size() < limit) {
+                drivers.add(new NearbyDriverResponse(
+                    location.getName(),
+                    location.getPoint().getY(),
+                    location.getPoint().getX(),
+                    candidates.get(i).getDistance().getValue()
+                ));
+            }
+        }
+        
+        if (!stale.isEmpty()) {
+            cacheService.geoRemove(CacheKeys.AVAILABLE_DRIVERS_GEO_KEY, stale.toArray(new String[0]));
+        }
+        return drivers;
+    }
+    
+    /**
+     * Up to limit available drivers with a known position, read from the geo index a batch at a time.
+     * Members whose availability or location key has expired are pruned as they are found.
+     */
+    public List<String> getAvailableDriverIds(int limit) {
+        List<String> available = new ArrayList<>(limit);
+        long start = 0;
+        while (available.size() < limit) {
+            Set<String> members = cacheService.geoMembers(CacheKeys.AVAILABLE_DRIVERS_GEO_KEY, start,
+                start + AVAILABLE_SCAN_BATCH - 1);
+            if (members == null || members.isEmpty()) {
+                break;
+            }
+            
+            List<String> driverIds = new ArrayList<>(members);
+            boolean[] live = checkIndexed(driverIds);
+            List<String> stale = new ArrayList<>();
+            for (int i = 0; i < driverIds.size(); i++) {
+                if (!live[i]) {
+                    stale.add(driverIds.get(i));
+                } else if (available.size() < limit) {
+                    available.add(driverIds.get(i));
+                }
+            }
+            if (!stale.isEmpty()) {
+                cacheService.geoRemove(CacheKeys.AVAILABLE_DRIVERS_GEO_KEY, stale.toArray(new String[0]));
+            }
+            if (driverIds.size() < AVAILABLE_SCAN_BATCH) {
+                break;
+            }
+            // Pruned members shift the rest of the set down
+            start += driverIds.size() - stale.size();
+        }
+        return available;
+    }
+    
+    /**
+     * Whether each driver still belongs in the geo index: available, and with a location that has not expired.
+     * One round trip for the whole batch.
+     */
+    private boolean[] checkIndexed(List<String> driverIds) {
+        List<String> keys = new ArrayList<>(driverIds.size() * 2);
+        for (String driverId : driverIds) {
+            keys.add(CacheKeys.driverAvailabilityKey(driverId));
+            keys.add(CacheKeys.driverLocationKey(driverId));
+        }
+        List<String> values = cacheService.multiGetStrings(keys);
+        
+        boolean[] live = new boolean[driverIds.size()];
+        for (int i = 0; i < driverIds.size() && values != null; i++) {
+            live[i] = Boolean.parseBoolean(values.get(2 * i)) && values.get(2 * i + 1) != null;
+        }
+        return live;
+    }
+    
+    public List<Integer> getDriverLoads(List<String> driverIds) {
+        List<String> loadKeys = new ArrayList<>(driverIds.size());
+        for (String driverId : driverIds) {
+            loadKeys.add(CacheKeys.driverLoadKey(driverId));
+        }
+        List<String> values = cacheService.multiGetStrings(loadKeys);
+        
+        List<Integer> loads = new ArrayList<>(driverIds.size());
+        for (int i = 0; i < driverIds.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            loads.add(value != null ? Math.max(0, Integer.parseInt(value)) : 0);
+        }
+        return loads;
+    }
+    
+    public int getDriverLoad(String driverId) {
+        String value = cacheService.getString(CacheKeys.driverLoadKey(driverId));
+        return value != null ? Math.max(0, Integer.parseInt(value)) : 0;
+    }
+    
+    public void incrementDriverLoad(String driverId) {
+        String loadKey = CacheKeys.driverLoadKey(driverId);
+        cacheService.incrementString(loadKey);
+        cacheService.setExpiry(loadKey, CacheKeys.DRIVER_LOAD_TTL, TimeUnit.SECONDS);
+    }
+    
+    public void decrementDriverLoad(String driverId) {
+        Long load = cacheService.decrementString(CacheKeys.driverLoadKey(driverId));
+        if (load != null && load <= 0) {
+            cacheService.deleteString(CacheKeys.driverLoadKey(driverId));
+        }
+    }
+    
+    /**
+     * Exclusive, short-lived claim on a driver so that concurrent assignments never hand the same driver two orders.
+     * Returns the claim token to release with, or null when another assignment holds the driver.
+     */
+    public String tryClaimDriver(String driverId) {
+        String token = UUID.randomUUID().toString();
+        boolean claimed = cacheService.setStringIfAbsent(
+            CacheKeys.dispatchDriverClaimKey(driverId),
+            token,
+            CacheKeys.DISPATCH_DRIVER_CLAIM_TTL,
+            TimeUnit.SECONDS
+        );
+        return claimed ? token : null;
+    }
+    
+    public void releaseDriverClaim(String driverId, String token) {
+        cacheService.executeScript(
+            "release_driver_claim",
+            RELEASE_CLAIM_SCRIPT,
+            List.of(CacheKeys.dispatchDriverClaimKey(driverId)),
+            token
+        );
+    }
+    
+    private double[] parseLocation(String locationValue) {
+        if (locationValue == null) {
+            return null;
+        }
+        String[] parts = locationValue.split(",");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            return new double[] { Double.parseDouble(parts[0]), Double.parseDouble(parts[1]) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
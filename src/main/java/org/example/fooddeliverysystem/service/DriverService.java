@@ -1,5 +1,6 @@
 package org.example.fooddeliverysystem.service;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,6 +9,8 @@ import java.util.stream.Collectors;
 import org.example.fooddeliverysystem.dto.driver.DriverLocationUpdateRequest;
 import org.example.fooddeliverysystem.dto.driver.DriverRequest;
 import org.example.fooddeliverysystem.dto.driver.DriverResponse;
+import org.example.fooddeliverysystem.dto.driver.DriverRouteResponse;
+import org.example.fooddeliverysystem.dto.driver.NearbyDriverResponse;
 import org.example.fooddeliverysystem.dto.event.AnalyticsEvent;
 import org.example.fooddeliverysystem.exception.ResourceNotFoundException;
 import org.example.fooddeliverysystem.model.Driver;
@@ -23,17 +26,23 @@ public class DriverService {
     private final DriverRepository driverRepository;
     private final UserRepository userRepository;
     private final DriverLocationService driverLocationService;
+    private final DriverIdentityCache driverIdentityCache;
+    private final LocationHistoryService locationHistoryService;
     private final MetricsService metricsService;
     private final KafkaEventProducer kafkaEventProducer;
     
     public DriverService(DriverRepository driverRepository,
                         UserRepository userRepository,
                         DriverLocationService driverLocationService,
+                        DriverIdentityCache driverIdentityCache,
+                        LocationHistoryService locationHistoryService,
                         MetricsService metricsService,
                         KafkaEventProducer kafkaEventProducer) {
         this.driverRepository = driverRepository;
         this.userRepository = userRepository;
         this.driverLocationService = driverLocationService;
+        this.driverIdentityCache = driverIdentityCache;
+        this.locationHistoryService = locationHistoryService;
         this.metricsService = metricsService;
         this.kafkaEventProducer = kafkaEventProducer;
     }
@@ -50,6 +59,7 @@ public class DriverService {
         
         Driver driver = new Driver(user, request.getLicenseNumber(), request.getVehicleNumber());
         driver = driverRepository.save(driver);
+        driverIdentityCache.remember(driver.getId(), userId);
         
         // Track metrics
         metricsService.incrementActiveDrivers();
@@ -64,12 +74,34 @@ public class DriverService {
         return mapToResponse(driver);
     }
     
-    @Transactional
+    /**
+     * User id owning the driver, from the in-process identity cache; throws if there is no such driver
+     */
+    public String findOwnerUserId(String driverId) {
+        String ownerUserId = driverIdentityCache.findOwnerUserId(driverId);
+        if (ownerUserId == null) {
+            throw new ResourceNotFoundException("Driver", driverId);
+        }
+        return ownerUserId;
+    }
+    
     public void updateLocation(String driverId, DriverLocationUpdateRequest request) {
         driverLocationService.updateDriverLocation(driverId, request);
+        locationHistoryService.record(driverId, List.of(request));
     }
     
-    @Transactional
+    public void updateLocations(String driverId, List<DriverLocationUpdateRequest> pings) {
+        driverLocationService.updateDriverLocations(driverId, pings);
+        locationHistoryService.record(driverId, pings);
+    }
+    
+    public DriverRouteResponse findRoute(String driverId, Instant from, Instant to) {
+        return locationHistoryService.findRoute(driverId, from, to);
+    }
+    
+    /**
+     * Availability lives in Redis; only the outbox insert for the analytics event runs in a transaction
+     */
     public void setAvailability(String driverId, boolean available) {
         driverLocationService.setDriverAvailability(driverId, available);
         
@@ -82,24 +114,32 @@ public class DriverService {
         kafkaEventProducer.publishAnalyticsEvent(event);
     }
     
-    public List<DriverResponse> findAvailableDrivers() {
-        // This would typically query cache for available drivers
-        // For now, return all drivers not on leave
-        return driverRepository.findAll().stream()
+    public List<DriverResponse> findAvailableDrivers(int limit) {
+        // Available drivers come from the geo index, only those not on leave are returned
+        List<String> availableDriverIds = driverLocationService.getAvailableDriverIds(limit);
+        if (availableDriverIds.isEmpty()) {
+            return List.of();
+        }
+        return driverRepository.findAllById(availableDriverIds).stream()
             .filter(driver -> !driver.isOnLeave())
             .map(this::mapToResponse)
             .collect(Collectors.toList());
     }
     
+    public List<NearbyDriverResponse> findNearestAvailableDrivers(double latitude, double longitude,
+                                                                 double radiusKm, int limit) {
+        return driverLocationService.findNearestAvailableDrivers(latitude, longitude, radiusKm, limit);
+    }
+    
     public DriverResponse findById(String id) {
         Driver driver = driverRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Driver", id));
         return mapToResponse(driver);
     }
     
-    public DriverResponse findByUser(User user) {
-        Driver driver = driverRepository.findByUser(user)
-            .orElseThrow(() -> new ResourceNotFoundException("Driver", "user: " + user.getId()));
+    public DriverResponse findByUserId(String userId) {
+        Driver driver = driverRepository.findByUserId(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Driver", "user: " + userId));
         return mapToResponse(driver);
     }
     
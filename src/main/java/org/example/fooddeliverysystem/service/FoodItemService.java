@@ -12,9 +12,18 @@ import org.example.fooddeliverysystem.repository.RestaurantRepository;
 import org.example.fooddeliverysystem.service.KafkaEventProducer;
 import org.example.fooddeliverysystem.service.MetricsService;
 import org.example.fooddeliverysystem.util.CacheKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,22 +33,40 @@ import java.util.stream.Collectors;
 @Service
 public class FoodItemService {
     
+    private static final Logger logger = LoggerFactory.getLogger(FoodItemService.class);
+    
     private final FoodItemRepository foodItemRepository;
     private final RestaurantRepository restaurantRepository;
     private final CacheService cacheService;
+    private final CacheAsideLoader cacheAsideLoader;
     private final MetricsService metricsService;
     private final KafkaEventProducer kafkaEventProducer;
+    private final MenuSearchService menuSearchService;
+    private final TransactionTemplate replicaTransaction;
+    private final TransactionTemplate primaryTransaction;
+    
+    // Same window as the per-user read-your-writes routing: long enough for the replica to replay the write
+    @Value("${datasource.replica.read-your-writes-window-ms:2000}")
+    private long menuPrimaryWindowMillis;
     
     public FoodItemService(FoodItemRepository foodItemRepository, 
                           RestaurantRepository restaurantRepository,
                           CacheService cacheService,
+                          CacheAsideLoader cacheAsideLoader,
                           MetricsService metricsService,
-                          KafkaEventProducer kafkaEventProducer) {
+                          KafkaEventProducer kafkaEventProducer,
+                          MenuSearchService menuSearchService,
+                          PlatformTransactionManager transactionManager) {
         this.foodItemRepository = foodItemRepository;
         this.restaurantRepository = restaurantRepository;
         this.cacheService = cacheService;
+        this.cacheAsideLoader = cacheAsideLoader;
         this.metricsService = metricsService;
         this.kafkaEventProducer = kafkaEventProducer;
+        this.menuSearchService = menuSearchService;
+        this.replicaTransaction = new TransactionTemplate(transactionManager);
+        this.replicaTransaction.setReadOnly(true);
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
     }
     
     @Transactional
@@ -59,8 +86,8 @@ public class FoodItemService {
         foodItem = foodItemRepository.save(foodItem);
         FoodItemResponse response = mapToResponse(foodItem);
         
-        // Invalidate restaurant menu cache
-        cacheService.delete(CacheKeys.restaurantMenuKey(restaurantId));
+        invalidateMenuAfterCommit(restaurantId);
+        menuSearchService.foodItemSaved(foodItem);
         
         // Publish analytics event
         Map<String, Object> metrics = new HashMap<>();
@@ -91,8 +118,8 @@ public class FoodItemService {
         foodItem = foodItemRepository.save(foodItem);
         FoodItemResponse response = mapToResponse(foodItem);
         
-        // Invalidate restaurant menu cache
-        cacheService.delete(CacheKeys.restaurantMenuKey(foodItem.getRestaurant().getId()));
+        invalidateMenuAfterCommit(foodItem.getRestaurant().getId());
+        menuSearchService.foodItemSaved(foodItem);
         
         // Publish analytics event
         Map<String, Object> metrics = new HashMap<>();
@@ -114,8 +141,8 @@ public class FoodItemService {
         foodItem.setAvailable(false);
         foodItemRepository.save(foodItem);
         
-        // Invalidate restaurant menu cache
-        cacheService.delete(CacheKeys.restaurantMenuKey(foodItem.getRestaurant().getId()));
+        invalidateMenuAfterCommit(foodItem.getRestaurant().getId());
+        menuSearchService.foodItemSaved(foodItem);
         
         // Publish analytics event
         Map<String, Object> metrics = new HashMap<>();
@@ -138,26 +165,79 @@ public class FoodItemService {
     }
     
     public List<FoodItemResponse> findByRestaurant(Restaurant restaurant) {
-        String cacheKey = CacheKeys.restaurantMenuKey(restaurant.getId());
-        
-        // Try cache first
-        @SuppressWarnings("unchecked")
-        List<FoodItemResponse> cached = (List<FoodItemResponse>) cacheService.get(cacheKey);
-        if (cached != null) {
-            return cached;
+        return findByRestaurantId(restaurant.getId());
+    }
+    
+    /**
+     * Menu of a restaurant, cache first. The restaurant is only checked on a cache miss with an empty menu.
+     */
+    public List<FoodItemResponse> findByRestaurantId(String restaurantId) {
+        return metricsService.recordServiceLatency("menu.find_by_restaurant", () -> loadMenu(restaurantId));
+    }
+    
+    private List<FoodItemResponse> loadMenu(String restaurantId) {
+        return cacheAsideLoader.get(CacheKeys.restaurantMenuKey(restaurantId), CacheKeys.RESTAURANT_MENU_TTL, () -> {
+            // Right after a write the replica may still serve the old menu, which would then stay cached for the TTL
+            boolean recentlyWritten = cacheService.existsString(CacheKeys.restaurantMenuWriteKey(restaurantId));
+            TransactionTemplate transaction = recentlyWritten ? primaryTransaction : replicaTransaction;
+            return transaction.execute(status -> {
+                List<FoodItemResponse> foodItems = foodItemRepository.findMenusByRestaurantIds(List.of(restaurantId)).stream()
+                    .map(this::mapToResponse)
+                    .collect(Collectors.toList());
+                if (foodItems.isEmpty() && !restaurantRepository.existsById(restaurantId)) {
+                    throw new ResourceNotFoundException("Restaurant", restaurantId);
+                }
+                return foodItems;
+            });
+        });
+    }
+    
+    /**
+     * Evicts the cached menu once the write commits; evicting earlier would let a concurrent reader cache the old
+     * rows again before the commit
+     */
+    private void invalidateMenuAfterCommit(String restaurantId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictMenu(restaurantId);
+            return;
         }
-        
-        // Cache miss - fetch from database
-        List<FoodItemResponse> foodItems = foodItemRepository.findByRestaurantAndIsDeletedFalse(restaurant).stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
-        
-        // Cache the result
-        cacheService.setWithExpiry(cacheKey, foodItems, CacheKeys.RESTAURANT_MENU_TTL, TimeUnit.SECONDS);
-        
-        return foodItems;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictMenu(restaurantId);
+            }
+        });
+    }
+    
+    private void evictMenu(String restaurantId) {
+        try {
+            // Marked before the eviction, so the reload that follows reads the primary
+            cacheService.setStringWithExpiry(CacheKeys.restaurantMenuWriteKey(restaurantId), "1",
+                menuPrimaryWindowMillis, TimeUnit.MILLISECONDS);
+            cacheService.delete(CacheKeys.restaurantMenuKey(restaurantId));
+        } catch (RuntimeException e) {
+            // The write is committed; the stale menu still expires within RESTAURANT_MENU_TTL
+            logger.warn("Failed to evict menu of restaurant {}: {}", restaurantId, e.getMessage());
+        }
+    }
+    
+    /**
+     * Menus for several restaurants in one query, keyed by restaurant id.
+     * Restaurants without items map to an empty list, matching what findByRestaurant caches.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, List<FoodItemResponse>> findMenusByRestaurantIds(Collection<String> restaurantIds) {
+        Map<String, List<FoodItemResponse>> menus = new HashMap<>();
+        for (String restaurantId : restaurantIds) {
+            menus.put(restaurantId, new ArrayList<>());
+        }
+        for (FoodItem foodItem : foodItemRepository.findMenusByRestaurantIds(restaurantIds)) {
+            menus.get(foodItem.getRestaurant().getId()).add(mapToResponse(foodItem));
+        }
+        return menus;
     }
     
+    @Transactional(readOnly = true)
     public List<FoodItemResponse> findAvailableByRestaurant(Restaurant restaurant) {
         return foodItemRepository.findByRestaurantAndIsAvailableTrueAndIsDeletedFalse(restaurant).stream()
             .map(this::mapToResponse)
@@ -0,0 +1,156 @@
+package org.example.fooddeliverysystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.example.fooddeliverysystem.config.RateLimitProfile;
+import org.example.fooddeliverysystem.util.CacheKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+
+/**
+ * Two-tier rate limiter. Decisions are made against an in-process bucket per client; tokens consumed
+ * locally are charged to the shared Redis bucket in the background, once per sync interval, and the
+ * local bucket is then reset to what Redis reports as left.
+ *
+ * Between syncs an instance admits at most max-unsynced-fraction of a bucket's capacity on its own,
+ * which bounds over-admission across the cluster to that fraction per instance per interval.
+ * If Redis is unreachable each instance keeps enforcing its local bucket.
+ */
+@Service
+public class HybridRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HybridRateLimiter.class);
+
+    private final ProxyManager<byte[]> proxyManager;
+    private final MetricsService metricsService;
+    private final Cache<String, LocalBucket> buckets;
+    private final Set<LocalBucket> pendingSync = ConcurrentHashMap.newKeySet();
+
+    @Value("${rate-limit.sync.max-unsynced-fraction:0.1}")
+    private double maxUnsyncedFraction;
+
+    public HybridRateLimiter(ProxyManager<byte[]> proxyManager,
+                             MetricsService metricsService,
+                             @Value("${rate-limit.local.max-buckets:100000}") long maxBuckets,
+                             @Value("${rate-limit.local.idle-expiry-seconds:300}") long idleExpirySeconds) {
+        this.proxyManager = proxyManager;
+        this.metricsService = metricsService;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfterAccess(Duration.ofSeconds(idleExpirySeconds))
+            .build();
+    }
+
+    public boolean tryAcquire(RateLimitProfile profile, String clientId) {
+        String key = CacheKeys.rateLimitKey(profile.getName(), clientId);
+        LocalBucket bucket = buckets.get(key, k -> {
+            LocalBucket created = new LocalBucket(k, profile, unsyncedAllowance(profile), System.nanoTime());
+            // Learn the shared balance on the next sync instead of trusting a full local bucket
+            pendingSync.add(created);
+            return created;
+        });
+
+        boolean allowed = bucket.tryConsume(System.nanoTime());
+        if (allowed) {
+            pendingSync.add(bucket);
+        }
+        return allowed;
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sync.interval-ms:200}")
+    public void syncToRedis() {
+        Iterator<LocalBucket> iterator = pendingSync.iterator();
+        while (iterator.hasNext()) {
+            LocalBucket bucket = iterator.next();
+            iterator.remove();
+            sync(bucket, bucket.drainUnsynced());
+        }
+    }
+
+    // Lettuce pipelines the async commands of all buckets on one connection
+    private void sync(LocalBucket bucket, long consumed) {
+        AsyncBucketProxy remote = proxyManager.asAsync().builder()
+            .build(bucket.key.getBytes(StandardCharsets.UTF_8),
+                () -> CompletableFuture.completedFuture(bucket.profile.getBucketConfiguration()));
+
+        CompletableFuture<Long> charged = consumed > 0
+            ? remote.consumeIgnoringRateLimits(consumed)
+            : CompletableFuture.completedFuture(0L);
+        charged.thenCompose(penalty -> remote.getAvailableTokens())
+            .whenComplete((available, error) -> {
+                if (error != null) {
+                    metricsService.incrementRateLimitSyncFailures();
+                    logger.debug("Rate limit sync failed for {}: {}", bucket.key, error.getMessage());
+                    return;
+                }
+                bucket.applyRemoteBalance(available, System.nanoTime());
+            });
+    }
+
+    private long unsyncedAllowance(RateLimitProfile profile) {
+        return Math.max(1, (long) Math.ceil(profile.getCapacity() * maxUnsyncedFraction));
+    }
+
+    private static class LocalBucket {
+        private final String key;
+        private final RateLimitProfile profile;
+        private final long maxUnsynced;
+        private double available;
+        private long unsynced;
+        private long lastRefillNanos;
+
+        LocalBucket(String key, RateLimitProfile profile, long maxUnsynced, long nowNanos) {
+            this.key = key;
+            this.profile = profile;
+            this.maxUnsynced = maxUnsynced;
+            this.available = maxUnsynced;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        synchronized boolean tryConsume(long nowNanos) {
+            refill(nowNanos);
+            if (available < 1 || unsynced >= maxUnsynced) {
+                return false;
+            }
+            available -= 1;
+            unsynced++;
+            return true;
+        }
+
+        synchronized long drainUnsynced() {
+            long drained = unsynced;
+            unsynced = 0;
+            return drained;
+        }
+
+        /**
+         * Redis balance already includes everything drained so far; tokens consumed since are still local
+         */
+        synchronized void applyRemoteBalance(long remoteAvailable, long nowNanos) {
+            available = Math.min(profile.getCapacity(), remoteAvailable - unsynced);
+            lastRefillNanos = nowNanos;
+        }
+
+        private void refill(long nowNanos) {
+            long elapsed = nowNanos - lastRefillNanos;
+            if (elapsed > 0) {
+                available = Math.min(profile.getCapacity(), available + elapsed * profile.getTokensPerNano());
+                lastRefillNanos = nowNanos;
+            }
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package org.example.fooddeliverysystem.service;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
 
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
+import org.example.fooddeliverysystem.enums.Role;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtService {
@@ -23,8 +33,29 @@ public class JwtService {
     @Value("${jwt.expiration:900000}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+    
+    @Value("${jwt.principal-cache.ttl-seconds:60}")
+    private long principalCacheTtlSeconds;
+    
+    // Built once; deriving the HMAC key and parser per call showed up on every authenticated request
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // Keyed by the whole token, not its jti: a jti read from an unverified token could be forged
+    private Cache<String, AuthenticatedUser> principals;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        principals = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                .build();
     }
     
     public String generateToken(String userId, String email, String role) {
@@ -35,13 +66,40 @@ public class JwtService {
         
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(email)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
+    /**
+     * Verify the token and build its principal, parsing each distinct token at most once per cache TTL.
+     * Throws a JwtException when the token is malformed, badly signed or expired.
+     */
+    public AuthenticatedUser authenticate(String token) {
+        AuthenticatedUser cached = principals.getIfPresent(token);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            principals.invalidate(token);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + cached.getExpiresAt());
+        }
+        
+        Claims claims = extractAllClaims(token);
+        AuthenticatedUser principal = new AuthenticatedUser(
+                claims.get("userId", String.class),
+                claims.getSubject(),
+                Role.valueOf(claims.get("role", String.class)),
+                claims.getId(),
+                claims.getExpiration().toInstant()
+        );
+        principals.put(token, principal);
+        return principal;
+    }
+    
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -60,9 +118,7 @@ public class JwtService {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
@@ -76,7 +132,7 @@ public class JwtService {
     }
     
     public Boolean validateToken(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(email) && !claims.getExpiration().before(new Date());
     }
 }
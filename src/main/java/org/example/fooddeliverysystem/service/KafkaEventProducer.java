@@ -6,52 +6,62 @@ import org.example.fooddeliverysystem.config.KafkaTopics;
 import org.example.fooddeliverysystem.dto.event.AnalyticsEvent;
 import org.example.fooddeliverysystem.dto.event.DeliveryEvent;
 import org.example.fooddeliverysystem.dto.event.OrderEvent;
+import org.example.fooddeliverysystem.model.OutboxEvent;
+import org.example.fooddeliverysystem.repository.OutboxEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Records events in the outbox table within the caller's transaction, or a short one of its own when the caller
+ * has none (the per-key ordering lock is transaction-scoped).
+ * OutboxRelayService publishes them to Kafka once committed, so a rollback never leaves a phantom event.
+ */
 @Service
 public class KafkaEventProducer {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(KafkaEventProducer.class);
-    
-    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
-    
-    public KafkaEventProducer(KafkaTemplate<String, String> kafkaTemplate, 
-                             ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
+    private final MetricsService metricsService;
+
+    public KafkaEventProducer(OutboxEventRepository outboxEventRepository,
+                             ObjectMapper objectMapper,
+                             MetricsService metricsService) {
+        this.outboxEventRepository = outboxEventRepository;
         this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
     }
-    
+
+    @Transactional
     public void publishOrderEvent(OrderEvent event) {
-        try {
-            String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(KafkaTopics.ORDER_EVENTS, event.getOrderId(), message);
-            logger.info("Published order event: {} for order: {}", event.getEventType(), event.getOrderId());
-        } catch (JsonProcessingException e) {
-            logger.error("Error serializing order event: {}", e.getMessage(), e);
-        }
+        enqueue(KafkaTopics.ORDER_EVENTS, event.getOrderId(), event.getEventType(), event);
     }
-    
+
+    @Transactional
     public void publishDeliveryEvent(DeliveryEvent event) {
-        try {
-            String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(KafkaTopics.DELIVERY_EVENTS, event.getOrderId(), message);
-            logger.info("Published delivery event: {} for order: {}", event.getEventType(), event.getOrderId());
-        } catch (JsonProcessingException e) {
-            logger.error("Error serializing delivery event: {}", e.getMessage(), e);
-        }
+        enqueue(KafkaTopics.DELIVERY_EVENTS, event.getOrderId(), event.getEventType(), event);
     }
-    
+
+    @Transactional
     public void publishAnalyticsEvent(AnalyticsEvent event) {
+        enqueue(KafkaTopics.ANALYTICS_EVENTS, event.getEntityId(), event.getEventType(), event);
+    }
+
+    private void enqueue(String topic, String key, String eventType, Object event) {
+        String message;
         try {
-            String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(KafkaTopics.ANALYTICS_EVENTS, event.getEntityId(), message);
-            logger.info("Published analytics event: {} for entity: {}", event.getEventType(), event.getEntityId());
+            message = objectMapper.writeValueAsString(event);
         } catch (JsonProcessingException e) {
-            logger.error("Error serializing analytics event: {}", e.getMessage(), e);
+            // Fail the surrounding transaction rather than silently dropping the event
+            throw new IllegalStateException("Error serializing " + eventType + " event for " + key, e);
         }
+        metricsService.recordEventEnqueueLatency(topic, () -> {
+            outboxEventRepository.lockOrderingKey(topic + "|" + key);
+            outboxEventRepository.save(new OutboxEvent(topic, key, eventType, message));
+        });
+        logger.debug("Queued {} event for {} on {}", eventType, key, topic);
     }
 }
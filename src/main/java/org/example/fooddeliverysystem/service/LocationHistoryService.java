@@ -0,0 +1,143 @@
+package org.example.fooddeliverysystem.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.fooddeliverysystem.dto.driver.DriverLocationUpdateRequest;
+import org.example.fooddeliverysystem.dto.driver.DriverRouteResponse;
+import org.example.fooddeliverysystem.dto.driver.RoutePointResponse;
+import org.example.fooddeliverysystem.util.DistanceUtil;
+import org.example.fooddeliverysystem.util.LocationHistoryLog;
+import org.example.fooddeliverysystem.util.RouteChunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Driver location history for route replay, dispute handling and distance-based payouts.
+ * Pings are kept on local disk in compressed, memory-mapped segments (see {@link LocationHistoryLog}), so each
+ * instance holds the history of the pings it received; driver traffic should be routed by driver id.
+ */
+@Service
+public class LocationHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationHistoryService.class);
+
+    private final MeterRegistry meterRegistry;
+    private LocationHistoryLog log;
+
+    @Value("${location-history.directory:data/location-history}")
+    private String directory;
+
+    @Value("${location-history.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${location-history.segment-duration-minutes:60}")
+    private long segmentDurationMinutes;
+
+    @Value("${location-history.chunk-size-bytes:1024}")
+    private int chunkSizeBytes;
+
+    @Value("${location-history.chunk-max-age-seconds:300}")
+    private long chunkMaxAgeSeconds;
+
+    @Value("${location-history.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${location-history.max-clock-skew-seconds:300}")
+    private long maxClockSkewSeconds;
+
+    public LocationHistoryService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        log = new LocationHistoryLog(
+            Path.of(directory),
+            segmentSizeMb * 1024 * 1024,
+            Duration.ofMinutes(segmentDurationMinutes).toMillis(),
+            chunkSizeBytes,
+            Duration.ofSeconds(chunkMaxAgeSeconds).toMillis()
+        );
+        Gauge.builder("location.history.bytes", log, LocationHistoryLog::storedBytes)
+            .description("Bytes of sealed location history on this instance")
+            .register(meterRegistry);
+        Gauge.builder("location.history.points", log, LocationHistoryLog::storedPoints)
+            .description("Sealed location pings on this instance")
+            .register(meterRegistry);
+        logger.info("Location history opened at {}: {} points in {} bytes", directory, log.storedPoints(),
+            log.storedBytes());
+    }
+
+    @PreDestroy
+    void close() {
+        log.close();
+    }
+
+    /**
+     * Appends pings, oldest first; pings without a device timestamp are stamped with the receive time.
+     * Device timestamps further than the allowed skew from the receive time are rejected: one ping from the future
+     * would otherwise make the driver's later pings look stale until the clock caught up.
+     */
+    public void record(String driverId, List<DriverLocationUpdateRequest> pings) {
+        long receivedAt = System.currentTimeMillis();
+        long maxSkewMillis = Duration.ofSeconds(maxClockSkewSeconds).toMillis();
+        for (DriverLocationUpdateRequest ping : pings) {
+            long timestamp = ping.getRecordedAt() != null ? ping.getRecordedAt().toEpochMilli() : receivedAt;
+            if (Math.abs(timestamp - receivedAt) > maxSkewMillis) {
+                logger.debug("Rejected ping from driver {} recorded at {}, received at {}", driverId,
+                    ping.getRecordedAt(), Instant.ofEpochMilli(receivedAt));
+                continue;
+            }
+            log.append(driverId, timestamp, ping.getLatitude(), ping.getLongitude());
+        }
+    }
+
+    public DriverRouteResponse findRoute(String driverId, Instant from, Instant to) {
+        List<RoutePointResponse> points = new ArrayList<>();
+        log.route(driverId, from.toEpochMilli(), to.toEpochMilli(), (timestamp, latitudeE6, longitudeE6) ->
+            points.add(new RoutePointResponse(
+                Instant.ofEpochMilli(timestamp),
+                RouteChunk.toDegrees(latitudeE6),
+                RouteChunk.toDegrees(longitudeE6)
+            )));
+
+        double distanceKm = 0;
+        for (int i = 1; i < points.size(); i++) {
+            RoutePointResponse previous = points.get(i - 1);
+            RoutePointResponse current = points.get(i);
+            distanceKm += DistanceUtil.calculateDistance(previous.getLatitude(), previous.getLongitude(),
+                current.getLatitude(), current.getLongitude());
+        }
+        return new DriverRouteResponse(driverId, from, to, distanceKm, points);
+    }
+
+    /**
+     * Bounds how many pings are lost if the instance dies: open chunks are sealed to disk once they are this old
+     */
+    @Scheduled(fixedDelayString = "${location-history.seal-interval-ms:60000}")
+    public void sealIdleChunks() {
+        log.sealIdle(System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${location-history.retention-check-interval-ms:3600000}")
+    public void enforceRetention() {
+        long cutoff = System.currentTimeMillis() - Duration.ofDays(retentionDays).toMillis();
+        int dropped = log.dropSegmentsBefore(cutoff);
+        if (dropped > 0) {
+            logger.info("Dropped {} location history segments older than {} days", dropped, retentionDays);
+        }
+    }
+}
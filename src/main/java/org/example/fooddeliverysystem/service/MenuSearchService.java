@@ -0,0 +1,327 @@
+package org.example.fooddeliverysystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.example.fooddeliverysystem.dto.event.MenuSearchEvent;
+import org.example.fooddeliverysystem.dto.search.MenuSearchHitResponse;
+import org.example.fooddeliverysystem.model.FoodItem;
+import org.example.fooddeliverysystem.model.Restaurant;
+import org.example.fooddeliverysystem.repository.FoodItemRepository;
+import org.example.fooddeliverysystem.repository.RestaurantRepository;
+import org.example.fooddeliverysystem.util.CacheKeys;
+import org.example.fooddeliverysystem.util.MenuSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Full-text search over restaurant names and menus, scoped to a city, served from an in-process
+ * {@link MenuSearchIndex} instead of LIKE scans.
+ * The index is built from Postgres at startup, one city per task in parallel, and kept current by changes
+ * broadcast on a Redis channel after each write commits, so every instance applies every change. Changes are
+ * applied on one listener thread in publish order, so successive updates to a document never swap.
+ * A periodic rebuild repairs anything a missed message left behind and compacts replaced documents.
+ */
+@Service
+public class MenuSearchService implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuSearchService.class);
+
+    private final RestaurantRepository restaurantRepository;
+    private final FoodItemRepository foodItemRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final MetricsService metricsService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate primaryTransaction;
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean(false);
+    private final ScheduledExecutorService startupRetry = Executors.newSingleThreadScheduledExecutor();
+
+    // Changes are applied one at a time; during a rebuild they are also queued for the new index
+    private final Object updateLock = new Object();
+    private final List<MenuSearchEvent> pendingDuringRebuild = new ArrayList<>();
+    private volatile MenuSearchIndex index = new MenuSearchIndex();
+    private volatile boolean ready;
+    private boolean rebuilding;
+
+    @Value("${menu-search.rebuild-parallelism:4}")
+    private int rebuildParallelism;
+
+    @Value("${menu-search.startup-retry-initial-ms:1000}")
+    private long startupRetryInitialMs;
+
+    @Value("${menu-search.startup-retry-max-ms:60000}")
+    private long startupRetryMaxMs;
+
+    public MenuSearchService(RestaurantRepository restaurantRepository,
+                             FoodItemRepository foodItemRepository,
+                             StringRedisTemplate stringRedisTemplate,
+                             @Qualifier("orderedRedisMessageListenerContainer")
+                             RedisMessageListenerContainer listenerContainer,
+                             ObjectMapper objectMapper,
+                             MetricsService metricsService,
+                             MeterRegistry meterRegistry,
+                             PlatformTransactionManager transactionManager) {
+        this.restaurantRepository = restaurantRepository;
+        this.foodItemRepository = foodItemRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
+        this.meterRegistry = meterRegistry;
+        // Not read-only, so the rebuild reads the primary: a change broadcast just before the rebuild starts is not
+        // replayed into the new index, and a lagging replica would drop it until the next rebuild
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheKeys.MENU_SEARCH_CHANNEL));
+        Gauge.builder("menu.search.documents", this, service -> service.index.size())
+            .description("Restaurants and food items in the menu search index")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        startupRetry.shutdownNow();
+    }
+
+    /**
+     * Runs before the instance reports ready, so a new instance only takes traffic with a complete index.
+     * A failed build is retried with backoff until one succeeds, instead of waiting for the scheduled rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+        if (!ready) {
+            retryStartupBuild(startupRetryInitialMs);
+        }
+    }
+
+    private void retryStartupBuild(long delayMs) {
+        startupRetry.schedule(() -> {
+            if (ready) {
+                return;
+            }
+            rebuild();
+            if (!ready) {
+                long nextDelayMs = Math.min(delayMs * 2, startupRetryMaxMs);
+                logger.warn("Menu search index not built yet, retrying in {} ms", nextDelayMs);
+                retryStartupBuild(nextDelayMs);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Scheduled(initialDelayString = "${menu-search.rebuild-interval-ms:21600000}",
+               fixedDelayString = "${menu-search.rebuild-interval-ms:21600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<MenuSearchHitResponse> search(String city, String query, int limit) {
+        return metricsService.recordServiceLatency("menu.search", () -> index.search(city, query, limit).stream()
+            .map(this::mapToResponse)
+            .toList());
+    }
+
+    /**
+     * Rebuilds the index from Postgres into a new instance and swaps it in
+     *
+     * @return number of documents indexed, or -1 when a rebuild is already running
+     */
+    public int rebuild() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            logger.info("Menu search rebuild already running, skipping");
+            return -1;
+        }
+
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildParallelism));
+        try {
+            synchronized (updateLock) {
+                rebuilding = true;
+                pendingDuringRebuild.clear();
+            }
+
+            MenuSearchIndex fresh = new MenuSearchIndex();
+            AtomicInteger foodItems = new AtomicInteger();
+            List<CompletableFuture<Void>> cities = new ArrayList<>();
+            for (String city : restaurantRepository.findDistinctCities()) {
+                cities.add(CompletableFuture.runAsync(
+                    () -> foodItems.addAndGet(indexCity(fresh, city)), executor));
+            }
+            CompletableFuture.allOf(cities.toArray(new CompletableFuture[0])).join();
+
+            synchronized (updateLock) {
+                for (MenuSearchEvent event : pendingDuringRebuild) {
+                    apply(fresh, event);
+                }
+                pendingDuringRebuild.clear();
+                rebuilding = false;
+                index = fresh;
+            }
+            ready = true;
+
+            logger.info("Menu search index built: {} cities, {} food items, {} documents in {} ms",
+                cities.size(), foodItems.get(), fresh.size(), System.currentTimeMillis() - start);
+            return fresh.size();
+        } catch (RuntimeException e) {
+            synchronized (updateLock) {
+                rebuilding = false;
+                pendingDuringRebuild.clear();
+            }
+            // Keep serving the previous index; a failed rebuild is retried on the next schedule, or sooner at startup
+            logger.error("Menu search rebuild failed: {}", e.getMessage(), e);
+            return 0;
+        } finally {
+            executor.shutdown();
+            rebuildRunning.set(false);
+        }
+    }
+
+    public void restaurantSaved(Restaurant restaurant) {
+        publishAfterCommit(MenuSearchEvent.restaurantUpserted(
+            restaurant.getId(), restaurant.getCity(), restaurant.getRestaurantName(), restaurant.isOpen()));
+    }
+
+    /**
+     * Deleted and unavailable items are removed from the index
+     */
+    public void foodItemSaved(FoodItem foodItem) {
+        String restaurantId = foodItem.getRestaurant().getId();
+        if (foodItem.isDeleted() || !foodItem.isAvailable()) {
+            publishAfterCommit(MenuSearchEvent.foodItemRemoved(foodItem.getId(), restaurantId));
+            return;
+        }
+        publishAfterCommit(MenuSearchEvent.foodItemUpserted(
+            foodItem.getId(), restaurantId, foodItem.getName(), foodItem.getDescription(), foodItem.getPrice()));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            accept(objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8),
+                MenuSearchEvent.class));
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed menu search event: {}", e.getMessage());
+        }
+    }
+
+    private int indexCity(MenuSearchIndex target, String city) {
+        return primaryTransaction.execute(status -> {
+            for (Restaurant restaurant : restaurantRepository.findByCity(city)) {
+                target.upsertRestaurant(restaurant.getId(), restaurant.getCity(), restaurant.getRestaurantName(),
+                    restaurant.isOpen());
+            }
+            int indexed = 0;
+            try (Stream<FoodItemRepository.SearchDocument> documents =
+                     foodItemRepository.streamSearchDocumentsByCity(city)) {
+                Iterator<FoodItemRepository.SearchDocument> iterator = documents.iterator();
+                while (iterator.hasNext()) {
+                    FoodItemRepository.SearchDocument document = iterator.next();
+                    if (target.upsertFoodItem(document.getId(), document.getRestaurantId(), document.getName(),
+                            document.getDescription(), document.getPrice())) {
+                        indexed++;
+                    }
+                }
+            }
+            return indexed;
+        });
+    }
+
+    private void accept(MenuSearchEvent event) {
+        synchronized (updateLock) {
+            apply(index, event);
+            if (rebuilding) {
+                pendingDuringRebuild.add(event);
+            }
+        }
+    }
+
+    private static void apply(MenuSearchIndex target, MenuSearchEvent event) {
+        switch (event.getEventType()) {
+            case MenuSearchEvent.RESTAURANT_UPSERTED -> target.upsertRestaurant(
+                event.getId(), event.getCity(), event.getName(), event.isOpen());
+            case MenuSearchEvent.FOOD_ITEM_UPSERTED -> target.upsertFoodItem(
+                event.getId(), event.getRestaurantId(), event.getName(), event.getDescription(), event.getPrice());
+            case MenuSearchEvent.FOOD_ITEM_REMOVED -> target.removeFoodItem(event.getId(), event.getRestaurantId());
+            default -> logger.warn("Unknown menu search event type {}", event.getEventType());
+        }
+    }
+
+    private void publishAfterCommit(MenuSearchEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    private void publish(MenuSearchEvent event) {
+        try {
+            stringRedisTemplate.convertAndSend(CacheKeys.MENU_SEARCH_CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            // Other instances catch up on their next rebuild; this one applies the change directly
+            logger.warn("Failed to broadcast menu search event for {}: {}", event.getId(), e.getMessage());
+            accept(event);
+        }
+    }
+
+    private MenuSearchHitResponse mapToResponse(MenuSearchIndex.Hit hit) {
+        MenuSearchHitResponse response = new MenuSearchHitResponse();
+        response.setType(hit.getType().name());
+        response.setId(hit.getId());
+        response.setRestaurantId(hit.getRestaurantId());
+        response.setRestaurantName(hit.getRestaurantName());
+        response.setName(hit.getName());
+        response.setDescription(hit.getDescription());
+        response.setPrice(hit.getPrice());
+        response.setRestaurantOpen(hit.isOpen());
+        response.setScore(hit.getScore());
+        return response;
+    }
+}
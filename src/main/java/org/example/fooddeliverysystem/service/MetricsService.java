@@ -1,12 +1,28 @@
 package org.example.fooddeliverysystem.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import org.example.fooddeliverysystem.exception.BusinessException;
+import org.example.fooddeliverysystem.exception.ConflictException;
+import org.example.fooddeliverysystem.exception.ResourceNotFoundException;
+import org.example.fooddeliverysystem.exception.ValidationException;
+import org.example.fooddeliverysystem.util.HeavyHitterSketch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class MetricsService {
@@ -31,12 +47,63 @@ public class MetricsService {
     private final Counter restaurantOrdersCounter;
     private final Counter driverDeliveriesCounter;
     
+    // Per-entity series exist only for the current top K, so cardinality stays bounded
+    private final HeavyHitterSketch restaurantOrdersSketch;
+    private final HeavyHitterSketch driverDeliveriesSketch;
+    private final Map<String, Gauge> restaurantOrdersGauges = new HashMap<>();
+    private final Map<String, Gauge> driverDeliveriesGauges = new HashMap<>();
+    private long lastHeavyHitterDecayMillis = System.currentTimeMillis();
+    
+    @Value("${metrics.heavy-hitters.top-k:20}")
+    private int heavyHittersTopK;
+    
+    @Value("${metrics.heavy-hitters.half-life-seconds:300}")
+    private long heavyHittersHalfLifeSeconds;
+    
+    @Value("${metrics.heavy-hitters.idle-timeout-seconds:900}")
+    private long heavyHittersIdleTimeoutSeconds;
+    
+    // Dispatch metrics
+    private final Counter dispatchAssignmentsCounter;
+    private final Counter dispatchUnmatchedCounter;
+    private final Timer dispatchWaitTime;
+    
+    // Near cache metrics
+    private final Counter nearCacheHitsCounter;
+    private final Counter nearCacheMissesCounter;
+    private final Counter nearCacheEvictionsCounter;
+    
+    // Cache-aside loader metrics
+    private final Counter cacheLoadCoalescedCounter;
+    private final Counter cacheEarlyRefreshCounter;
+    private final Counter cacheNegativeHitsCounter;
+    
+    // Outbox relay metrics
+    private final Counter outboxPublishedCounter;
+    private final Counter outboxFailedCounter;
+    private final Counter outboxSkippedCounter;
+    private final Counter outboxDeadLetteredCounter;
+    private final Timer outboxBatchPublishTime;
+    private final DistributionSummary outboxBatchSize;
+    private final AtomicLong outboxLagSeconds = new AtomicLong(0);
+    
+    // Latency timers per layer, operation and outcome; histograms and SLO buckets are configured in
+    // application.properties under management.metrics.distribution
+    private static final String SERVICE_LATENCY = "service.latency";
+    private static final String REDIS_LATENCY = "redis.latency";
+    private static final String EVENT_ENQUEUE_LATENCY = "events.enqueue.latency";
+    private static final String RATE_LIMIT_DECISION_LATENCY = "ratelimit.decision.latency";
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+    
     // Gauges for business metrics
     private final AtomicInteger totalOrders = new AtomicInteger(0);
     private final AtomicInteger totalRevenue = new AtomicInteger(0);
     
-    public MetricsService(MeterRegistry meterRegistry) {
+    public MetricsService(MeterRegistry meterRegistry,
+                         @Value("${metrics.heavy-hitters.capacity:256}") int heavyHittersCapacity) {
         this.meterRegistry = meterRegistry;
+        this.restaurantOrdersSketch = new HeavyHitterSketch(heavyHittersCapacity);
+        this.driverDeliveriesSketch = new HeavyHitterSketch(heavyHittersCapacity);
         
         // Initialize counters
         this.ordersCreatedCounter = Counter.builder("orders.created")
@@ -90,6 +157,74 @@ public class MetricsService {
             .description("Total deliveries per driver")
             .register(meterRegistry);
         
+        // Initialize dispatch metrics
+        this.dispatchAssignmentsCounter = Counter.builder("dispatch.assignments")
+            .description("Orders automatically assigned to a driver")
+            .register(meterRegistry);
+        
+        this.dispatchUnmatchedCounter = Counter.builder("dispatch.unmatched")
+            .description("Dispatch attempts that found no eligible driver")
+            .register(meterRegistry);
+        
+        this.dispatchWaitTime = Timer.builder("dispatch.wait.time")
+            .description("Time from an order becoming READY to driver assignment")
+            .register(meterRegistry);
+        
+        // Initialize near cache metrics
+        this.nearCacheHitsCounter = Counter.builder("cache.near.hits")
+            .description("Reads served from the in-process near cache")
+            .register(meterRegistry);
+        
+        this.nearCacheMissesCounter = Counter.builder("cache.near.misses")
+            .description("Near cache reads that fell through to Redis")
+            .register(meterRegistry);
+        
+        this.nearCacheEvictionsCounter = Counter.builder("cache.near.evictions")
+            .description("Near cache entries evicted for size or weight")
+            .register(meterRegistry);
+        
+        // Initialize cache-aside loader metrics
+        this.cacheLoadCoalescedCounter = Counter.builder("cache.load.coalesced")
+            .description("Cache misses that waited on another request's load instead of querying the database")
+            .register(meterRegistry);
+        
+        this.cacheEarlyRefreshCounter = Counter.builder("cache.refresh.early")
+            .description("Background refreshes started before the cached value expired")
+            .register(meterRegistry);
+        
+        this.cacheNegativeHitsCounter = Counter.builder("cache.negative.hits")
+            .description("Lookups of missing ids answered from the negative cache")
+            .register(meterRegistry);
+        
+        // Initialize outbox relay metrics
+        this.outboxPublishedCounter = Counter.builder("outbox.events.published")
+            .description("Outbox events published to Kafka")
+            .register(meterRegistry);
+        
+        this.outboxFailedCounter = Counter.builder("outbox.events.failed")
+            .description("Outbox events that failed to publish and will be retried")
+            .register(meterRegistry);
+        
+        this.outboxSkippedCounter = Counter.builder("outbox.events.skipped")
+            .description("Outbox events held back because an earlier event for the same key failed")
+            .register(meterRegistry);
+        
+        this.outboxDeadLetteredCounter = Counter.builder("outbox.events.dead_lettered")
+            .description("Outbox events moved to outbox_dead_letters after max-attempts non-retriable failures")
+            .register(meterRegistry);
+        
+        this.outboxBatchPublishTime = Timer.builder("outbox.batch.publish.time")
+            .description("Time taken to publish one outbox batch")
+            .register(meterRegistry);
+        
+        this.outboxBatchSize = DistributionSummary.builder("outbox.batch.size")
+            .description("Events sent to Kafka per outbox batch")
+            .register(meterRegistry);
+        
+        Gauge.builder("outbox.lag.seconds", outboxLagSeconds, AtomicLong::get)
+            .description("Age of the oldest unpublished outbox event")
+            .register(meterRegistry);
+        
         // Initialize business gauges
         Gauge.builder("orders.total", totalOrders, AtomicInteger::get)
             .description("Total number of orders")
@@ -128,6 +263,86 @@ public class MetricsService {
         deliveryTime.record(timeMs, java.util.concurrent.TimeUnit.MILLISECONDS);
     }
     
+    /**
+     * Time a service call. Inside a transaction the timer stops after commit or rollback,
+     * since the commit is part of what the caller waits for.
+     */
+    public <T> T recordServiceLatency(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            sample.stop(latencyTimer(SERVICE_LATENCY, "operation", operation, outcomeOf(e)));
+            throw e;
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    String outcome = status == STATUS_COMMITTED ? "success" : "rolled_back";
+                    sample.stop(latencyTimer(SERVICE_LATENCY, "operation", operation, outcome));
+                }
+            });
+        } else {
+            sample.stop(latencyTimer(SERVICE_LATENCY, "operation", operation, "success"));
+        }
+        return result;
+    }
+    
+    public <T> T recordRedisLatency(String command, Supplier<T> call) {
+        return record(REDIS_LATENCY, "command", command, call);
+    }
+    
+    public void recordEventEnqueueLatency(String topic, Runnable enqueue) {
+        record(EVENT_ENQUEUE_LATENCY, "topic", topic, () -> {
+            enqueue.run();
+            return null;
+        });
+    }
+    
+    public void recordRateLimitDecision(String profile, boolean allowed, long nanos) {
+        latencyTimer(RATE_LIMIT_DECISION_LATENCY, "profile", profile, allowed ? "allowed" : "rejected")
+            .record(nanos, java.util.concurrent.TimeUnit.NANOSECONDS);
+    }
+    
+    public void incrementRateLimitSyncFailures() {
+        Counter.builder("ratelimit.sync.failures")
+            .description("Background syncs of local rate-limit buckets to Redis that failed")
+            .register(meterRegistry)
+            .increment();
+    }
+    
+    private <T> T record(String name, String tagKey, String tagValue, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = call.get();
+            sample.stop(latencyTimer(name, tagKey, tagValue, "success"));
+            return result;
+        } catch (RuntimeException e) {
+            sample.stop(latencyTimer(name, tagKey, tagValue, outcomeOf(e)));
+            throw e;
+        }
+    }
+    
+    private Timer latencyTimer(String name, String tagKey, String tagValue, String outcome) {
+        return latencyTimers.computeIfAbsent(name + '|' + tagValue + '|' + outcome, key -> Timer.builder(name)
+            .tag(tagKey, tagValue)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+    }
+    
+    private static String outcomeOf(RuntimeException e) {
+        if (e instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        if (e instanceof BusinessException || e instanceof ValidationException || e instanceof ConflictException) {
+            return "rejected";
+        }
+        return "error";
+    }
+    
     public void setActiveDrivers(int count) {
         activeDrivers.set(count);
     }
@@ -161,10 +376,49 @@ public class MetricsService {
     
     public void incrementRestaurantOrders(String restaurantId) {
         restaurantOrdersCounter.increment();
+        restaurantOrdersSketch.increment(restaurantId, System.currentTimeMillis());
     }
     
     public void incrementDriverDeliveries(String driverId) {
         driverDeliveriesCounter.increment();
+        driverDeliveriesSketch.increment(driverId, System.currentTimeMillis());
+    }
+    
+    /**
+     * Decay the heavy-hitter counts, drop idle entities and make the tagged gauges match the current top K
+     */
+    @Scheduled(fixedDelayString = "${metrics.heavy-hitters.publish-interval-ms:30000}")
+    public void publishHeavyHitters() {
+        long now = System.currentTimeMillis();
+        double decayFactor = Math.pow(0.5, (now - lastHeavyHitterDecayMillis) / 1000.0 / heavyHittersHalfLifeSeconds);
+        long idleBefore = now - heavyHittersIdleTimeoutSeconds * 1000;
+        lastHeavyHitterDecayMillis = now;
+        
+        restaurantOrdersSketch.decayAndEvict(decayFactor, idleBefore);
+        driverDeliveriesSketch.decayAndEvict(decayFactor, idleBefore);
+        
+        syncTopGauges("restaurant.orders.top", "Recent orders of the busiest restaurants (decayed count)",
+            "restaurantId", restaurantOrdersSketch, restaurantOrdersGauges);
+        syncTopGauges("driver.deliveries.top", "Recent deliveries of the busiest drivers (decayed count)",
+            "driverId", driverDeliveriesSketch, driverDeliveriesGauges);
+    }
+    
+    private void syncTopGauges(String name, String description, String tagKey,
+                               HeavyHitterSketch sketch, Map<String, Gauge> gauges) {
+        Set<String> top = sketch.top(heavyHittersTopK).keySet();
+        gauges.entrySet().removeIf(entry -> {
+            if (top.contains(entry.getKey())) {
+                return false;
+            }
+            meterRegistry.remove(entry.getValue());
+            return true;
+        });
+        for (String id : top) {
+            gauges.computeIfAbsent(id, key -> Gauge.builder(name, sketch, s -> s.estimate(key))
+                .description(description)
+                .tag(tagKey, key)
+                .register(meterRegistry));
+        }
     }
     
     public void incrementTotalOrders() {
@@ -174,4 +428,94 @@ public class MetricsService {
     public void setTotalOrders(int count) {
         totalOrders.set(count);
     }
+    
+    public void incrementDispatchAssignments() {
+        dispatchAssignmentsCounter.increment();
+    }
+    
+    public void incrementDispatchUnmatched(int count) {
+        dispatchUnmatchedCounter.increment(count);
+    }
+    
+    public void recordDispatchWaitTime(long timeMs) {
+        dispatchWaitTime.record(timeMs, java.util.concurrent.TimeUnit.MILLISECONDS);
+    }
+    
+    public void incrementOutboxPublished(int count) {
+        outboxPublishedCounter.increment(count);
+    }
+    
+    public void incrementOutboxFailed(int count) {
+        outboxFailedCounter.increment(count);
+    }
+    
+    public void incrementOutboxSkipped(int count) {
+        outboxSkippedCounter.increment(count);
+    }
+    
+    public void incrementOutboxDeadLettered(int count) {
+        outboxDeadLetteredCounter.increment(count);
+    }
+    
+    public void recordOutboxBatchPublishTime(long timeMs) {
+        outboxBatchPublishTime.record(timeMs, java.util.concurrent.TimeUnit.MILLISECONDS);
+    }
+    
+    public void setOutboxLagSeconds(long seconds) {
+        outboxLagSeconds.set(seconds);
+    }
+    
+    public void recordOutboxBatchSize(int size) {
+        outboxBatchSize.record(size);
+    }
+    
+    // Topics are a small fixed set, so tagging by topic keeps cardinality bounded
+    public void recordKafkaPublishLatency(String topic, long timeMs) {
+        Timer.builder("kafka.publish.latency")
+            .description("Time from send to broker acknowledgement")
+            .tag("topic", topic)
+            .register(meterRegistry)
+            .record(timeMs, java.util.concurrent.TimeUnit.MILLISECONDS);
+    }
+    
+    // Age of the oldest record in a consumed batch: how far behind real time the consumer is running
+    public void recordKafkaConsumerLag(String topic, long timeMs) {
+        Timer.builder("kafka.consumer.batch.lag")
+            .description("Time between a record being produced and its batch being processed")
+            .tag("topic", topic)
+            .register(meterRegistry)
+            .record(timeMs, java.util.concurrent.TimeUnit.MILLISECONDS);
+    }
+    
+    public void incrementKafkaPublishFailures(String topic) {
+        Counter.builder("kafka.publish.failures")
+            .description("Kafka sends that failed or timed out")
+            .tag("topic", topic)
+            .register(meterRegistry)
+            .increment();
+    }
+    
+    public void incrementNearCacheHits() {
+        nearCacheHitsCounter.increment();
+    }
+    
+    public void incrementNearCacheMisses() {
+        nearCacheMissesCounter.increment();
+    }
+    
+    public void incrementNearCacheEvictions() {
+        nearCacheEvictionsCounter.increment();
+    }
+    
+    public void incrementCacheLoadCoalesced() {
+        cacheLoadCoalescedCounter.increment();
+    }
+    
+    public void incrementCacheEarlyRefresh() {
+        cacheEarlyRefreshCounter.increment();
+    }
+    
+    public void incrementCacheNegativeHits() {
+        cacheNegativeHitsCounter.increment();
+    }
 }
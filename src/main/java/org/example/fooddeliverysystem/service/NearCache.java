@@ -0,0 +1,228 @@
+package org.example.fooddeliverysystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.example.fooddeliverysystem.util.CacheKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Optional in-process cache in front of Redis for hot, read-mostly keys.
+ * Local TTLs are capped well below the Redis TTL of the key family, and writes on any instance
+ * evict the key everywhere through Redis pub/sub.
+ * Values are held in their Redis encoding and decoded on every hit, so callers never share a mutable instance.
+ */
+@Component
+public class NearCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCache.class);
+
+    private static final String MESSAGE_SEPARATOR = "|";
+
+    // Invalidation generations are striped by key hash; a collision only skips caching a value
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisSerializer<Object> serializer;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MetricsService metricsService;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Value("${cache.near.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cache.near.max-weight:200000}")
+    private long maxWeight;
+
+    @Value("${cache.near.max-entry-weight:2000}")
+    private int maxEntryWeight;
+
+    @Value("${cache.near.max-ttl-seconds:30}")
+    private long maxTtlSeconds;
+
+    @Value("${cache.near.prefixes:" + CacheKeys.RESTAURANT_PREFIX + "}")
+    private List<String> prefixes;
+
+    private Cache<String, Entry> cache;
+
+    @SuppressWarnings("unchecked")
+    public NearCache(StringRedisTemplate stringRedisTemplate,
+                    RedisTemplate<String, Object> redisTemplate,
+                    RedisMessageListenerContainer listenerContainer,
+                    MetricsService metricsService) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        this.listenerContainer = listenerContainer;
+        this.metricsService = metricsService;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxWeight)
+            .weigher((String key, Entry entry) -> entry.weight)
+            .expireAfter(new Expiry<String, Entry>() {
+                @Override
+                public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                    return entry.ttlNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                    return entry.ttlNanos;
+                }
+
+                @Override
+                public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                if (cause == RemovalCause.SIZE) {
+                    metricsService.incrementNearCacheEvictions();
+                }
+            })
+            .build();
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheKeys.NEAR_CACHE_INVALIDATION_CHANNEL));
+        logger.info("Near cache enabled for prefixes {} (max weight {}, max TTL {}s)", prefixes, maxWeight, maxTtlSeconds);
+    }
+
+    public boolean handles(String key) {
+        if (cache == null) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the cached value, or null on a miss
+     */
+    public Object get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            metricsService.incrementNearCacheMisses();
+            return null;
+        }
+        metricsService.incrementNearCacheHits();
+        return serializer.deserialize(entry.bytes);
+    }
+
+    /**
+     * Invalidation generation of the key; read it before fetching the value that is later passed to put
+     */
+    public long generation(String key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * Cache a value that was just read from or written to Redis, unless the key was invalidated since
+     * generation was read: a read racing an invalidation would otherwise cache the value the write replaced.
+     * ttlSeconds is the Redis TTL, or a non-positive value when it is unknown.
+     */
+    public void put(String key, Object value, long ttlSeconds, long generation) {
+        if (value == null) {
+            return;
+        }
+        int weight = weigh(value);
+        if (weight > maxEntryWeight) {
+            cache.invalidate(key);
+            return;
+        }
+
+        long familyTtl = CacheKeys.ttlForKey(key);
+        long ttl = maxTtlSeconds;
+        if (ttlSeconds > 0) {
+            ttl = Math.min(ttl, ttlSeconds);
+        }
+        if (familyTtl > 0) {
+            ttl = Math.min(ttl, familyTtl);
+        }
+        Entry entry = new Entry(serializer.serialize(value), weight, TimeUnit.SECONDS.toNanos(ttl));
+        int stripe = stripe(key);
+        // Checked under the key's lock: an invalidation bumps the generation before removing the key, so it
+        // either stops this put or removes what it stored
+        cache.asMap().compute(key, (k, current) -> generations.get(stripe) == generation ? entry : current);
+    }
+
+    /**
+     * Drop the key locally and on every other instance
+     */
+    public void invalidate(String key) {
+        invalidateLocally(key);
+        stringRedisTemplate.convertAndSend(CacheKeys.NEAR_CACHE_INVALIDATION_CHANNEL, instanceId + MESSAGE_SEPARATOR + key);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        invalidateLocally(body.substring(separator + 1));
+    }
+
+    private void invalidateLocally(String key) {
+        generations.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size() + 1;
+        }
+        return 1;
+    }
+
+    private static class Entry {
+        private final byte[] bytes;
+        private final int weight;
+        private final long ttlNanos;
+
+        Entry(byte[] bytes, int weight, long ttlNanos) {
+            this.bytes = bytes;
+            this.weight = weight;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
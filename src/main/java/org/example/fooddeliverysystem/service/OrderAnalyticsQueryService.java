@@ -0,0 +1,135 @@
+package org.example.fooddeliverysystem.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.example.fooddeliverysystem.config.OrderAnalyticsStreamsConfig;
+import org.example.fooddeliverysystem.config.OrderAnalyticsStreamsConfig.DurationStats;
+import org.example.fooddeliverysystem.config.OrderAnalyticsStreamsConfig.OrderOutcomeCounts;
+import org.example.fooddeliverysystem.dto.analytics.CancellationRateResponse;
+import org.example.fooddeliverysystem.dto.analytics.DeliveryTimeResponse;
+import org.example.fooddeliverysystem.dto.analytics.WindowedAmountResponse;
+import org.example.fooddeliverysystem.dto.analytics.WindowedCountResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+import org.springframework.stereotype.Service;
+
+/**
+ * Interactive queries against the order analytics state stores.
+ * Each key lives on the instance that owns its partition; {@link #remoteOwner} tells callers where to go instead.
+ */
+@Service
+@ConditionalOnProperty(name = "analytics.streams.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderAnalyticsQueryService {
+
+    private final KafkaStreamsInteractiveQueryService queryService;
+
+    @Value("${analytics.streams.application-server:}")
+    private String applicationServer;
+
+    @Value("${analytics.streams.summary-window-minutes:60}")
+    private long summaryWindowMinutes;
+
+    public OrderAnalyticsQueryService(KafkaStreamsInteractiveQueryService queryService) {
+        this.queryService = queryService;
+    }
+
+    /**
+     * Host of the instance that holds the key in the given store, or empty when it is this one
+     * (always empty unless analytics.streams.application-server is configured)
+     */
+    public Optional<HostInfo> remoteOwner(String storeName, String key) {
+        if (applicationServer.isBlank()) {
+            return Optional.empty();
+        }
+        HostInfo owner = queryService.getKafkaStreamsApplicationHostInfo(storeName, key, Serdes.String().serializer());
+        if (owner == null || owner.equals(queryService.getCurrentKafkaStreamsApplicationHostInfo())) {
+            return Optional.empty();
+        }
+        return Optional.of(owner);
+    }
+
+    public List<WindowedCountResponse> getOrdersPerMinute(String restaurantId, Instant from, Instant to) {
+        ReadOnlyWindowStore<String, Long> store = queryService.retrieveQueryableStore(
+            OrderAnalyticsStreamsConfig.ORDERS_PER_RESTAURANT_STORE, QueryableStoreTypes.windowStore());
+
+        List<WindowedCountResponse> windows = new ArrayList<>();
+        try (WindowStoreIterator<Long> iterator = store.fetch(restaurantId, from, to)) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, Long> window = iterator.next();
+                windows.add(new WindowedCountResponse(
+                    toLocal(window.key), toLocal(window.key + Duration.ofMinutes(1).toMillis()), window.value));
+            }
+        }
+        return windows;
+    }
+
+    public List<WindowedAmountResponse> getRevenueByCity(String city, Instant from, Instant to) {
+        ReadOnlyWindowStore<String, Double> store = queryService.retrieveQueryableStore(
+            OrderAnalyticsStreamsConfig.REVENUE_PER_CITY_STORE, QueryableStoreTypes.windowStore());
+
+        long windowMillis = Duration.ofMinutes(summaryWindowMinutes).toMillis();
+        List<WindowedAmountResponse> windows = new ArrayList<>();
+        try (WindowStoreIterator<Double> iterator = store.fetch(city, from, to)) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, Double> window = iterator.next();
+                windows.add(new WindowedAmountResponse(
+                    toLocal(window.key), toLocal(window.key + windowMillis), window.value));
+            }
+        }
+        return windows;
+    }
+
+    public CancellationRateResponse getCancellationRate(String restaurantId, Instant from, Instant to) {
+        ReadOnlyWindowStore<String, OrderOutcomeCounts> store = queryService.retrieveQueryableStore(
+            OrderAnalyticsStreamsConfig.OUTCOMES_PER_RESTAURANT_STORE, QueryableStoreTypes.windowStore());
+
+        long delivered = 0;
+        long cancelled = 0;
+        try (WindowStoreIterator<OrderOutcomeCounts> iterator = store.fetch(restaurantId, from, to)) {
+            while (iterator.hasNext()) {
+                OrderOutcomeCounts counts = iterator.next().value;
+                delivered += counts.getDelivered();
+                cancelled += counts.getCancelled();
+            }
+        }
+        long completed = delivered + cancelled;
+        double rate = completed > 0 ? (double) cancelled / completed : 0;
+        return new CancellationRateResponse(restaurantId, toLocal(from.toEpochMilli()), toLocal(to.toEpochMilli()),
+            delivered, cancelled, rate);
+    }
+
+    public DeliveryTimeResponse getAverageDeliveryTime(String restaurantId, Instant from, Instant to) {
+        ReadOnlyWindowStore<String, DurationStats> store = queryService.retrieveQueryableStore(
+            OrderAnalyticsStreamsConfig.DELIVERY_TIME_PER_RESTAURANT_STORE, QueryableStoreTypes.windowStore());
+
+        long deliveries = 0;
+        long totalMillis = 0;
+        try (WindowStoreIterator<DurationStats> iterator = store.fetch(restaurantId, from, to)) {
+            while (iterator.hasNext()) {
+                DurationStats stats = iterator.next().value;
+                deliveries += stats.getCount();
+                totalMillis += stats.getTotalMillis();
+            }
+        }
+        Double averageMinutes = deliveries > 0 ? totalMillis / (double) deliveries / 60_000 : null;
+        return new DeliveryTimeResponse(restaurantId, toLocal(from.toEpochMilli()), toLocal(to.toEpochMilli()),
+            deliveries, averageMinutes);
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -1,13 +1,20 @@
 package org.example.fooddeliverysystem.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.example.fooddeliverysystem.dto.event.OrderEvent;
 import org.example.fooddeliverysystem.dto.order.OrderItemRequest;
+import org.example.fooddeliverysystem.dto.order.OrderPageResponse;
 import org.example.fooddeliverysystem.dto.order.OrderRequest;
 import org.example.fooddeliverysystem.dto.order.OrderResponse;
 import org.example.fooddeliverysystem.enums.OrderStatus;
@@ -22,17 +29,35 @@ import org.example.fooddeliverysystem.model.User;
 import org.example.fooddeliverysystem.repository.DriverRepository;
 import org.example.fooddeliverysystem.repository.FoodItemRepository;
 import org.example.fooddeliverysystem.repository.OrderRepository;
+import org.example.fooddeliverysystem.repository.OrderSpecifications;
 import org.example.fooddeliverysystem.repository.RestaurantRepository;
 import org.example.fooddeliverysystem.repository.UserRepository;
+import org.example.fooddeliverysystem.util.OrderCursor;
+import org.example.fooddeliverysystem.util.OrderNumberGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityManager;
+
 @Service
 public class OrderService {
     
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    private static final LocalDateTime EXPORT_MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime EXPORT_MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final RestaurantRepository restaurantRepository;
@@ -42,6 +67,12 @@ public class OrderService {
     private final ObjectMapper objectMapper;
     private final MetricsService metricsService;
     private final KafkaEventProducer kafkaEventProducer;
+    private final DispatchQueueService dispatchQueueService;
+    private final OrderTrackingService orderTrackingService;
+    private final EntityManager entityManager;
+    
+    @Value("${dispatch.max-driver-load:1}")
+    private int maxDriverLoad;
     
     public OrderService(OrderRepository orderRepository,
                        UserRepository userRepository,
@@ -51,7 +82,10 @@ public class OrderService {
                        DriverLocationService driverLocationService,
                        ObjectMapper objectMapper,
                        MetricsService metricsService,
-                       KafkaEventProducer kafkaEventProducer) {
+                       KafkaEventProducer kafkaEventProducer,
+                       DispatchQueueService dispatchQueueService,
+                       OrderTrackingService orderTrackingService,
+                       EntityManager entityManager) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.restaurantRepository = restaurantRepository;
@@ -61,10 +95,17 @@ public class OrderService {
         this.objectMapper = objectMapper;
         this.metricsService = metricsService;
         this.kafkaEventProducer = kafkaEventProducer;
+        this.dispatchQueueService = dispatchQueueService;
+        this.orderTrackingService = orderTrackingService;
+        this.entityManager = entityManager;
     }
     
     @Transactional
     public OrderResponse createOrder(String userId, OrderRequest request) {
+        return metricsService.recordServiceLatency("order.create", () -> placeOrder(userId, request));
+    }
+    
+    private OrderResponse placeOrder(String userId, OrderRequest request) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User", userId));
         
@@ -87,7 +128,7 @@ public class OrderService {
         }
         
         // Generate order number
-        String orderNumber = generateOrderNumber();
+        String orderNumber = OrderNumberGenerator.next();
         
         Order order = new Order(
             orderNumber,
@@ -118,26 +159,45 @@ public class OrderService {
             order.getOrderStatus().name(),
             order.getAmount()
         );
+        event.setCity(order.getRestaurant().getCity());
         kafkaEventProducer.publishOrderEvent(event);
         
         return mapToResponse(order);
     }
     
+    // Right after createOrder this reads the caller's own write; the routing keeps such reads on the primary
+    @Transactional(readOnly = true)
     public OrderResponse findById(String id) {
         Order order = orderRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Order", id));
         return mapToResponse(order);
     }
     
-    public List<OrderResponse> findByUser(User user) {
-        return orderRepository.findByUser(user).stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+    /**
+     * Read from the primary, for snapshots that must include every change already published to subscribers
+     */
+    @Transactional
+    public OrderResponse findCurrentState(String id) {
+        Order order = orderRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Order", id));
+        return mapToResponse(order);
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderPageResponse findByUser(String userId, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                        String cursor, int limit) {
+        // A reference is enough to bind the owner predicate; it never loads the user row
+        return findPage("user", userRepository.getReferenceById(userId), status, from, to, cursor, limit);
     }
     
     @Transactional
     public OrderResponse assignDriver(String orderId, String driverId) {
-        Order order = orderRepository.findById(orderId)
+        return metricsService.recordServiceLatency("order.assign_driver", () -> applyDriverAssignment(orderId, driverId));
+    }
+    
+    private OrderResponse applyDriverAssignment(String orderId, String driverId) {
+        // Row lock so a manual assignment and the dispatcher cannot both assign this order
+        Order order = orderRepository.findByIdForUpdate(orderId)
             .orElseThrow(() -> new ResourceNotFoundException("Order", orderId));
         
         if (order.getOrderStatus() != OrderStatus.READY) {
@@ -158,15 +218,23 @@ public class OrderService {
             throw new BusinessException("Driver is not available for delivery");
         }
         
+        // Held until the transaction completes, after the load increment, so the next assignment sees the new load
+        claimDriverUntilCompletion(driverId);
+        if (driverLocationService.getDriverLoad(driverId) >= maxDriverLoad) {
+            throw new BusinessException("Driver is already carrying the maximum number of orders");
+        }
+        
         // Assign driver to order
         order.setDriver(driver);
         order.setOrderStatus(OrderStatus.OUT_FOR_DELIVERY);
         order = orderRepository.save(order);
+        changeDriverLoadAfterCommit(driverId, true);
         
         // Track metrics
         metricsService.incrementDriverDeliveries(driverId);
         
         OrderResponse response = mapToResponse(order);
+        publishTrackingAfterCommit(response);
         
         // Publish event
         OrderEvent event = new OrderEvent(
@@ -179,26 +247,91 @@ public class OrderService {
             order.getAmount()
         );
         event.setDriverId(driverId);
+        event.setCity(order.getRestaurant().getCity());
         kafkaEventProducer.publishOrderEvent(event);
         
         return response;
     }
     
-    public List<OrderResponse> findByRestaurant(Restaurant restaurant) {
-        return orderRepository.findByRestaurant(restaurant).stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public OrderPageResponse findByRestaurantOwner(String ownerId, OrderStatus status, LocalDateTime from,
+                                                   LocalDateTime to, String cursor, int limit) {
+        String restaurantId = restaurantRepository.findIdByUserId(ownerId)
+            .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "user: " + ownerId));
+        return findPage("restaurant", restaurantRepository.getReferenceById(restaurantId), status, from, to, cursor,
+            limit);
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderPageResponse findByDriverUser(String driverUserId, OrderStatus status, LocalDateTime from,
+                                              LocalDateTime to, String cursor, int limit) {
+        String driverId = driverRepository.findIdByUserId(driverUserId)
+            .orElseThrow(() -> new ResourceNotFoundException("Driver", "user: " + driverUserId));
+        return findPage("driver", driverRepository.getReferenceById(driverId), status, from, to, cursor, limit);
     }
     
-    public List<OrderResponse> findByDriver(org.example.fooddeliverysystem.model.Driver driver) {
-        return orderRepository.findByDriver(driver).stream()
+    /**
+     * Writes the owner's restaurant orders as NDJSON, one row at a time, without materialising the result set
+     */
+    @Transactional(readOnly = true)
+    public void exportByRestaurantOwner(String ownerId, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                        OutputStream outputStream) throws IOException {
+        String restaurantId = restaurantRepository.findIdByUserId(ownerId)
+            .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "user: " + ownerId));
+        
+        try (Stream<Order> orders = orderRepository.streamByRestaurant(
+                restaurantRepository.getReferenceById(restaurantId),
+                status,
+                from != null ? from : EXPORT_MIN_DATE,
+                to != null ? to : EXPORT_MAX_DATE)) {
+            Iterator<Order> iterator = orders.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(mapToResponse(iterator.next())));
+                outputStream.write('\n');
+                
+                // Keep the persistence context from growing with the export
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    entityManager.clear();
+                    outputStream.flush();
+                }
+            }
+        }
+        outputStream.flush();
+    }
+    
+    private OrderPageResponse findPage(String ownerAttribute, Object owner, OrderStatus status, LocalDateTime from,
+                                       LocalDateTime to, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Sort sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+        
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<Order> rows = orderRepository.findBy(
+            OrderSpecifications.history(ownerAttribute, owner, status, from, to, OrderCursor.decode(cursor)),
+            query -> query.sortBy(sort).limit(pageSize + 1).all()
+        );
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<Order> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        List<OrderResponse> orders = page.stream()
             .map(this::mapToResponse)
             .collect(Collectors.toList());
+        return new OrderPageResponse(orders, nextCursor, hasMore);
     }
     
     @Transactional
     public OrderResponse updateStatus(String id, OrderStatus newStatus) {
-        Order order = orderRepository.findById(id)
+        return metricsService.recordServiceLatency("order.update_status", () -> applyStatusChange(id, newStatus));
+    }
+    
+    private OrderResponse applyStatusChange(String id, OrderStatus newStatus) {
+        Order order = orderRepository.findWithRestaurantById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Order", id));
         
         validateStatusTransition(order.getOrderStatus(), newStatus);
@@ -221,8 +354,30 @@ public class OrderService {
             metricsService.incrementOrdersCancelled();
         }
         
+        // Free up the driver's delivery slot once the order leaves their hands
+        if ((newStatus == OrderStatus.DELIVERED || newStatus == OrderStatus.CANCELLED) && order.getDriver() != null) {
+            changeDriverLoadAfterCommit(order.getDriver().getId(), false);
+        }
+        
         order = orderRepository.save(order);
+        
+        // Hand READY orders to the dispatcher only once the new status is visible to other transactions
+        if (newStatus == OrderStatus.READY) {
+            String orderId = order.getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        dispatchQueueService.enqueue(orderId);
+                    } catch (RuntimeException e) {
+                        // DispatchService.requeueStrandedOrders picks the order up once it has waited long enough
+                        logger.warn("Failed to queue order {} for dispatch: {}", orderId, e.getMessage());
+                    }
+                }
+            });
+        }
         OrderResponse response = mapToResponse(order);
+        publishTrackingAfterCommit(response);
         
         // Publish order status change event
         OrderEvent event = new OrderEvent(
@@ -235,17 +390,30 @@ public class OrderService {
             order.getAmount()
         );
         event.setDriverId(order.getDriver() != null ? order.getDriver().getId() : null);
+        event.setCity(order.getRestaurant().getCity());
         kafkaEventProducer.publishOrderEvent(event);
         
         return response;
     }
     
     private Double calculateOrderTotal(List<OrderItemRequest> items, String restaurantId) {
+        // Load every referenced item in a single query instead of one round trip per line item
+        Set<String> foodItemIds = new LinkedHashSet<>();
+        for (OrderItemRequest item : items) {
+            foodItemIds.add(item.getFoodItemId());
+        }
+        Map<String, FoodItem> foodItemsById = new HashMap<>();
+        for (FoodItem foodItem : foodItemRepository.findAllById(foodItemIds)) {
+            foodItemsById.put(foodItem.getId(), foodItem);
+        }
+        
         Double total = 0.0;
         
         for (OrderItemRequest item : items) {
-            FoodItem foodItem = foodItemRepository.findById(item.getFoodItemId())
-                .orElseThrow(() -> new ResourceNotFoundException("FoodItem", item.getFoodItemId()));
+            FoodItem foodItem = foodItemsById.get(item.getFoodItemId());
+            if (foodItem == null) {
+                throw new ResourceNotFoundException("FoodItem", item.getFoodItemId());
+            }
             
             if (foodItem.isDeleted()) {
                 throw new BusinessException("Food item " + foodItem.getName() + " is no longer available");
@@ -299,12 +467,64 @@ public class OrderService {
         }
     }
     
-    private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "ORD-" + timestamp + "-" + random;
+    private void claimDriverUntilCompletion(String driverId) {
+        String claimToken = driverLocationService.tryClaimDriver(driverId);
+        if (claimToken == null) {
+            throw new BusinessException("Driver is being assigned another order");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    driverLocationService.releaseDriverClaim(driverId, claimToken);
+                } catch (RuntimeException e) {
+                    // The claim expires on its own after DISPATCH_DRIVER_CLAIM_TTL
+                    logger.warn("Failed to release claim on driver {}: {}", driverId, e.getMessage());
+                }
+            }
+        });
+    }
+    
+    /**
+     * Driver load lives in Redis, outside the transaction; changing it only after commit keeps a rolled-back
+     * assignment or status change from leaking a slot
+     */
+    private void changeDriverLoadAfterCommit(String driverId, boolean increment) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    if (increment) {
+                        driverLocationService.incrementDriverLoad(driverId);
+                    } else {
+                        driverLocationService.decrementDriverLoad(driverId);
+                    }
+                } catch (RuntimeException e) {
+                    // The load key expires after DRIVER_LOAD_TTL, which bounds how long a missed change is visible
+                    logger.warn("Failed to update load for driver {}: {}", driverId, e.getMessage());
+                }
+            }
+        });
+    }
+    
+    // Subscribers must never see a status that is then rolled back
+    private void publishTrackingAfterCommit(OrderResponse response) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    orderTrackingService.publishStatus(response);
+                } catch (RuntimeException e) {
+                    // The change is committed; subscribers catch up on their next status change or reconnect
+                    logger.warn("Failed to publish tracking update for order {}: {}", response.getId(), e.getMessage());
+                }
+            }
+        });
     }
     
+    /**
+     * Reads only the ids of the user, restaurant and driver; id getters on lazy proxies never hit the database
+     */
     private OrderResponse mapToResponse(Order order) {
         OrderResponse response = new OrderResponse();
         response.setId(order.getId());
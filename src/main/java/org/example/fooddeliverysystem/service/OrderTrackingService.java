@@ -0,0 +1,279 @@
+package org.example.fooddeliverysystem.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.example.fooddeliverysystem.dto.order.OrderResponse;
+import org.example.fooddeliverysystem.enums.OrderStatus;
+import org.example.fooddeliverysystem.util.CacheKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Live order tracking over Server-Sent Events.
+ * Status changes and throttled driver positions go out on one Redis channel, and each instance forwards them
+ * to the subscribers it holds. An idle subscription is a suspended async request plus one map entry; it holds
+ * no thread, so tens of thousands fit on one instance.
+ * Messages arrive in publish order on one listener thread, which only queues them per subscriber. A small pool
+ * writes each subscriber's queue in order, so a slow client delays only its own stream; one that falls
+ * {@code order-tracking.max-queued-events} behind is disconnected and resubscribes with a fresh snapshot.
+ */
+@Service
+public class OrderTrackingService implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderTrackingService.class);
+
+    public static final String STATUS_EVENT = "status";
+    public static final String DRIVER_LOCATION_EVENT = "driver-location";
+
+    // Message layout: orderId|event|last (1 closes the stream)|data
+    private static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private ExecutorService senders;
+
+    @Value("${order-tracking.subscription-timeout-minutes:120}")
+    private long subscriptionTimeoutMinutes;
+
+    @Value("${order-tracking.send-threads:8}")
+    private int sendThreads;
+
+    @Value("${order-tracking.max-queued-events:64}")
+    private int maxQueuedEvents;
+
+    public OrderTrackingService(StringRedisTemplate stringRedisTemplate,
+                                @Qualifier("orderedRedisMessageListenerContainer")
+                                RedisMessageListenerContainer listenerContainer,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        // Each subscriber has at most one drain task queued, so the queue is bounded by the open subscriptions
+        senders = Executors.newFixedThreadPool(Math.max(1, sendThreads));
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheKeys.ORDER_TRACKING_CHANNEL));
+        Gauge.builder("order.tracking.subscriptions", subscriptions, AtomicInteger::get)
+            .description("Open live order tracking streams on this instance")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdown();
+    }
+
+    /**
+     * Opens a stream for the order, starting with its current state. Finished orders get the snapshot only.
+     * The subscriber is registered before the snapshot is read, and events that arrive meanwhile are held until
+     * the snapshot is sent, so no change falls between the two; the snapshot must come from the primary.
+     */
+    public SseEmitter subscribe(String orderId, Supplier<OrderResponse> snapshot) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(subscriptionTimeoutMinutes));
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriptions.incrementAndGet();
+        Runnable unsubscribe = () -> unsubscribe(orderId, subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        OrderResponse order;
+        try {
+            order = snapshot.get();
+        } catch (RuntimeException e) {
+            unsubscribe.run();
+            throw e;
+        }
+
+        boolean last = isFinal(order.getOrderStatus());
+        send(emitter, STATUS_EVENT, toJson(order));
+        if (last) {
+            emitter.complete();
+            return emitter;
+        }
+        // Held events may repeat a status the snapshot already shows; the last one sent is always current
+        subscriber.drain();
+        return emitter;
+    }
+
+    /**
+     * Fans a committed status change out to every instance, and starts or stops forwarding the
+     * assigned driver's position for this order
+     */
+    public void publishStatus(OrderResponse order) {
+        String driverId = order.getDriverId();
+        if (driverId != null) {
+            if (order.getOrderStatus() == OrderStatus.OUT_FOR_DELIVERY) {
+                stringRedisTemplate.opsForValue().set(CacheKeys.trackedDriverKey(driverId), order.getId(),
+                    CacheKeys.DRIVER_LOAD_TTL, TimeUnit.SECONDS);
+            } else if (isFinal(order.getOrderStatus())) {
+                stringRedisTemplate.delete(CacheKeys.trackedDriverKey(driverId));
+            }
+        }
+
+        boolean last = isFinal(order.getOrderStatus());
+        stringRedisTemplate.convertAndSend(CacheKeys.ORDER_TRACKING_CHANNEL,
+            order.getId() + SEPARATOR + STATUS_EVENT + SEPARATOR + (last ? "1" : "0") + SEPARATOR + toJson(order));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 4);
+        if (parts.length != 4) {
+            return;
+        }
+        Set<Subscriber> orderSubscribers = subscribers.get(parts[0]);
+        if (orderSubscribers == null) {
+            // Most messages are for orders followed on other instances
+            return;
+        }
+        Event event = new Event(parts[1], parts[3], "1".equals(parts[2]));
+        for (Subscriber subscriber : orderSubscribers) {
+            subscriber.enqueue(event);
+        }
+    }
+
+    /**
+     * Comment frames keep proxies from closing idle streams and surface clients that went away
+     */
+    @Scheduled(fixedDelayString = "${order-tracking.heartbeat-interval-ms:25000}")
+    public void sendHeartbeats() {
+        for (Set<Subscriber> orderSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : orderSubscribers) {
+                subscriber.enqueue(Event.HEARTBEAT);
+            }
+        }
+    }
+
+    private void unsubscribe(String orderId, Subscriber subscriber) {
+        subscribers.computeIfPresent(orderId, (id, orderSubscribers) -> {
+            if (orderSubscribers.remove(subscriber)) {
+                subscriptions.decrementAndGet();
+            }
+            return orderSubscribers.isEmpty() ? null : orderSubscribers;
+        });
+    }
+
+    private static void send(SseEmitter emitter, String event, String data) {
+        try {
+            if (event == null) {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } else {
+                emitter.send(SseEmitter.event().name(event).data(data));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected; the error callback unsubscribes it
+            emitter.completeWithError(e);
+        }
+    }
+
+    private String toJson(OrderResponse order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize order {} for tracking: {}", order.getId(), e.getMessage());
+            throw new IllegalStateException("Failed to serialize order " + order.getId(), e);
+        }
+    }
+
+    private static boolean isFinal(OrderStatus status) {
+        return status == OrderStatus.DELIVERED || status == OrderStatus.CANCELLED;
+    }
+
+    private static final class Event {
+
+        static final Event HEARTBEAT = new Event(null, null, false);
+
+        final String name;
+        final String data;
+        final boolean last;
+
+        Event(String name, String data, boolean last) {
+            this.name = name;
+            this.data = data;
+            this.last = last;
+        }
+    }
+
+    /**
+     * One stream with its own queue of pending events. At most one thread writes to it at a time, which keeps
+     * its events in order without holding up other streams.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        // Held by subscribe() until the snapshot is sent
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Event event) {
+            if (queued.incrementAndGet() > maxQueuedEvents) {
+                queued.decrementAndGet();
+                emitter.completeWithError(new IllegalStateException("Tracking client fell too far behind"));
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            do {
+                Event event;
+                while ((event = pending.poll()) != null) {
+                    queued.decrementAndGet();
+                    send(emitter, event.name, event.data);
+                    if (event.last) {
+                        emitter.complete();
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
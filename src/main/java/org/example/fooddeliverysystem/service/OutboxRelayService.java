@@ -0,0 +1,243 @@
+package org.example.fooddeliverysystem.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.common.errors.RetriableException;
+import org.example.fooddeliverysystem.config.KafkaTopics;
+import org.example.fooddeliverysystem.model.OutboxEvent;
+import org.example.fooddeliverysystem.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes committed outbox rows to Kafka in id order and deletes them once acknowledged.
+ * After a broker outage it keeps draining full batches back to back until the backlog is gone.
+ * One instance relays at a time under a lease in outbox_relay_lease; the lease, the batch read and the delete
+ * are separate short transactions, so no transaction stays open while the relay waits for acks.
+ */
+@Service
+public class OutboxRelayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, String> analyticsKafkaTemplate;
+    private final MetricsService metricsService;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.max-drain-ms:5000}")
+    private long maxDrainMs;
+
+    @Value("${outbox.relay.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${outbox.relay.max-retry-backoff-ms:300000}")
+    private long maxRetryBackoffMs;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    // Another instance takes over this long after the leader stops renewing; keep it above send-timeout-ms
+    @Value("${outbox.relay.lease-ms:30000}")
+    private long leaseMs;
+
+    public OutboxRelayService(OutboxEventRepository outboxEventRepository,
+                             KafkaTemplate<String, String> kafkaTemplate,
+                             @Qualifier("analyticsKafkaTemplate") KafkaTemplate<String, String> analyticsKafkaTemplate,
+                             MetricsService metricsService,
+                             PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.analyticsKafkaTemplate = analyticsKafkaTemplate;
+        this.metricsService = metricsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + maxDrainMs;
+        try {
+            int published;
+            do {
+                published = publishBatch();
+            } while (published >= batchSize && System.currentTimeMillis() < deadline);
+        } catch (Exception e) {
+            logger.error("Outbox relay failed: {}", e.getMessage(), e);
+        }
+
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+        metricsService.setOutboxLagSeconds(oldest != null
+            ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds())
+            : 0);
+    }
+
+    /**
+     * @return number of events published, or 0 when another instance holds the relay lease or a key failed
+     */
+    private int publishBatch() {
+        Integer leased = transactionTemplate.execute(status ->
+            outboxEventRepository.tryAcquireRelayLease(instanceId, leaseMs / 1000.0));
+        if (leased == null || leased != 1) {
+            return 0;
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        Set<KafkaTemplate<String, String>> usedTemplates = new HashSet<>();
+        for (OutboxEvent event : batch) {
+            KafkaTemplate<String, String> template = templateFor(event.getTopic());
+            usedTemplates.add(template);
+            futures.add(send(template, event));
+        }
+        // Producers batch by linger/batch size; the relay waits for acks anyway, so push out what is buffered now
+        for (KafkaTemplate<String, String> template : usedTemplates) {
+            template.flush();
+        }
+
+        // Once an event for a key fails, later events for that key stay in the outbox to preserve their order
+        long deadline = start + sendTimeoutMs;
+        List<Long> publishedIds = new ArrayList<>(batch.size());
+        Map<OutboxEvent, Throwable> failures = new LinkedHashMap<>();
+        Set<String> failedKeys = new HashSet<>();
+        int skipped = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            String orderingKey = event.getTopic() + "|" + event.getAggregateKey();
+            if (failedKeys.contains(orderingKey)) {
+                skipped++;
+                continue;
+            }
+            try {
+                futures.get(i).get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                publishedIds.add(event.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedKeys.add(orderingKey);
+            } catch (Exception e) {
+                failedKeys.add(orderingKey);
+                failures.put(event, e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e);
+                logger.warn("Failed to publish outbox event {} ({}), attempt {}: {}",
+                    event.getId(), event.getEventType(), event.getAttempts() + 1, e.getMessage());
+            }
+        }
+
+        int deadLettered = transactionTemplate.execute(status -> {
+            if (!publishedIds.isEmpty()) {
+                outboxEventRepository.deleteByIdIn(publishedIds);
+            }
+            return recordFailures(failures);
+        });
+
+        metricsService.incrementOutboxPublished(publishedIds.size());
+        if (!failures.isEmpty()) {
+            metricsService.incrementOutboxFailed(failures.size());
+        }
+        if (skipped > 0) {
+            metricsService.incrementOutboxSkipped(skipped);
+        }
+        if (deadLettered > 0) {
+            metricsService.incrementOutboxDeadLettered(deadLettered);
+        }
+        metricsService.recordOutboxBatchPublishTime(System.currentTimeMillis() - start);
+        metricsService.recordOutboxBatchSize(batch.size());
+
+        return failedKeys.isEmpty() ? publishedIds.size() : 0;
+    }
+
+    /**
+     * Backs each failed event off exponentially so it stops holding the head of the outbox. Events Kafka keeps
+     * rejecting outright move to outbox_dead_letters after maxAttempts; retriable errors such as a broker
+     * outage only ever back off, so an outage never dead-letters the backlog.
+     *
+     * @return number of events dead-lettered
+     */
+    private int recordFailures(Map<OutboxEvent, Throwable> failures) {
+        List<Long> deadLetteredIds = new ArrayList<>();
+        for (Map.Entry<OutboxEvent, Throwable> failure : failures.entrySet()) {
+            OutboxEvent event = failure.getKey();
+            int attempts = event.getAttempts() + 1;
+            if (attempts >= maxAttempts && !isRetriable(failure.getValue())) {
+                outboxEventRepository.copyToDeadLetters(event.getId(), String.valueOf(failure.getValue()));
+                deadLetteredIds.add(event.getId());
+                logger.error("Moved outbox event {} ({}) to outbox_dead_letters after {} attempts: {}",
+                    event.getId(), event.getEventType(), attempts, failure.getValue().getMessage());
+            } else {
+                long backoffMs = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 20));
+                outboxEventRepository.scheduleRetry(event.getId(), backoffMs / 1000.0);
+            }
+        }
+        if (!deadLetteredIds.isEmpty()) {
+            outboxEventRepository.deleteByIdIn(deadLetteredIds);
+        }
+        return deadLetteredIds.size();
+    }
+
+    private static boolean isRetriable(Throwable error) {
+        return error instanceof RetriableException || error instanceof TimeoutException
+            || error.getCause() instanceof RetriableException;
+    }
+
+    private CompletableFuture<SendResult<String, String>> send(KafkaTemplate<String, String> template, OutboxEvent event) {
+        String topic = event.getTopic();
+        long sentAt = System.currentTimeMillis();
+        CompletableFuture<SendResult<String, String>> future;
+        try {
+            // Blocks for at most the producer's max.block.ms when its buffer is full
+            future = template.send(topic, event.getAggregateKey(), event.getPayload());
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, error) -> {
+            if (error == null) {
+                metricsService.recordKafkaPublishLatency(topic, System.currentTimeMillis() - sentAt);
+            } else {
+                metricsService.incrementKafkaPublishFailures(topic);
+            }
+        });
+        return future;
+    }
+
+    private KafkaTemplate<String, String> templateFor(String topic) {
+        return KafkaTopics.ANALYTICS_EVENTS.equals(topic) ? analyticsKafkaTemplate : kafkaTemplate;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.fooddeliverysystem.service;
 
+import org.example.fooddeliverysystem.dto.restaurant.RestaurantListResponse;
 import org.example.fooddeliverysystem.dto.restaurant.RestaurantRequest;
 import org.example.fooddeliverysystem.dto.restaurant.RestaurantResponse;
 import org.example.fooddeliverysystem.dto.event.AnalyticsEvent;
@@ -9,37 +10,69 @@ import org.example.fooddeliverysystem.model.User;
 import org.example.fooddeliverysystem.repository.RestaurantRepository;
 import org.example.fooddeliverysystem.repository.UserRepository;
 import org.example.fooddeliverysystem.util.CacheKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class RestaurantService {
     
+    private static final Logger logger = LoggerFactory.getLogger(RestaurantService.class);
+    
     private final RestaurantRepository restaurantRepository;
     private final UserRepository userRepository;
     private final CacheService cacheService;
+    private final CacheAsideLoader cacheAsideLoader;
     private final MetricsService metricsService;
     private final KafkaEventProducer kafkaEventProducer;
+    private final MenuSearchService menuSearchService;
+    private final TransactionTemplate replicaTransaction;
+    private final TransactionTemplate primaryTransaction;
+    
+    // Same window as the per-user read-your-writes routing: long enough for the replica to replay a bump's write
+    @Value("${datasource.replica.read-your-writes-window-ms:2000}")
+    private long listingPrimaryWindowMillis;
     
     public RestaurantService(RestaurantRepository restaurantRepository, 
                             UserRepository userRepository,
                             CacheService cacheService,
+                            CacheAsideLoader cacheAsideLoader,
                             MetricsService metricsService,
-                            KafkaEventProducer kafkaEventProducer) {
+                            KafkaEventProducer kafkaEventProducer,
+                            MenuSearchService menuSearchService,
+                            PlatformTransactionManager transactionManager) {
         this.restaurantRepository = restaurantRepository;
         this.userRepository = userRepository;
         this.cacheService = cacheService;
+        this.cacheAsideLoader = cacheAsideLoader;
         this.metricsService = metricsService;
         this.kafkaEventProducer = kafkaEventProducer;
+        this.menuSearchService = menuSearchService;
+        this.replicaTransaction = new TransactionTemplate(transactionManager);
+        this.replicaTransaction.setReadOnly(true);
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
     }
     
     @Transactional
@@ -63,6 +96,8 @@ public class RestaurantService {
         );
         
         restaurant = restaurantRepository.save(restaurant);
+        menuSearchService.restaurantSaved(restaurant);
+        invalidateListingsAfterCommit(restaurant.getCity());
         return mapToResponse(restaurant);
     }
     
@@ -70,6 +105,7 @@ public class RestaurantService {
     public RestaurantResponse update(String id, RestaurantRequest request) {
         Restaurant restaurant = restaurantRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Restaurant", id));
+        String previousCity = restaurant.getCity();
         
         restaurant.setRestaurantName(request.getRestaurantName());
         restaurant.setCity(request.getCity());
@@ -84,6 +120,8 @@ public class RestaurantService {
         
         restaurant = restaurantRepository.save(restaurant);
         RestaurantResponse response = mapToResponse(restaurant);
+        menuSearchService.restaurantSaved(restaurant);
+        invalidateListingsAfterCommit(previousCity, restaurant.getCity());
         
         // Update cache
         cacheService.setWithExpiry(
@@ -103,75 +141,168 @@ public class RestaurantService {
         return response;
     }
     
+    @Transactional(readOnly = true)
     public RestaurantResponse findById(String id) {
-        // Try cache first
-        RestaurantResponse cached = cacheService.get(CacheKeys.restaurantKey(id), RestaurantResponse.class);
-        if (cached != null) {
-            return cached;
-        }
-        
-        // Cache miss - fetch from database
-        Restaurant restaurant = restaurantRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Restaurant", id));
-        RestaurantResponse response = mapToResponse(restaurant);
-        
-        // Cache the response
-        cacheService.setWithExpiry(
-            CacheKeys.restaurantKey(id),
-            response,
-            CacheKeys.RESTAURANT_TTL,
-            TimeUnit.SECONDS
-        );
-        
-        return response;
+        return metricsService.recordServiceLatency("restaurant.find_by_id", () ->
+            cacheAsideLoader.get(CacheKeys.restaurantKey(id), CacheKeys.RESTAURANT_TTL, () ->
+                mapToResponse(restaurantRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Restaurant", id)))));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<RestaurantResponse> findAllByIds(Collection<String> ids) {
+        return restaurantRepository.findAllById(ids).stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
     }
     
-    public RestaurantResponse findByUser(User user) {
-        Restaurant restaurant = restaurantRepository.findByUser(user)
-            .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "user: " + user.getId()));
+    @Transactional(readOnly = true)
+    public RestaurantResponse findByUserId(String userId) {
+        Restaurant restaurant = restaurantRepository.findByUserId(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "user: " + userId));
         return mapToResponse(restaurant);
     }
     
+    @Transactional(readOnly = true)
     public List<RestaurantResponse> findByCity(String city) {
         return restaurantRepository.findByCity(city).stream()
             .map(this::mapToResponse)
             .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<RestaurantResponse> findByCityAndState(String city, String state) {
         return restaurantRepository.findByCityAndState(city, state).stream()
             .map(this::mapToResponse)
             .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<RestaurantResponse> findByCityAndIsOpen(String city) {
         return restaurantRepository.findByCityAndIsOpenTrue(city).stream()
             .map(this::mapToResponse)
             .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<RestaurantResponse> findByCityAndStateAndIsOpen(String city, String state) {
         return restaurantRepository.findByCityAndStateAndIsOpenTrue(city, state).stream()
             .map(this::mapToResponse)
             .collect(Collectors.toList());
     }
     
+    /**
+     * Listing pages are cached per city under a version that every restaurant write in the city bumps,
+     * so edits show up on the next read instead of after the page TTL.
+     */
     public Page<RestaurantResponse> findByCityWithPagination(String city, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return restaurantRepository.findByCity(city, pageable)
-            .map(this::mapToResponse);
+        String normalizedCity = city.trim();
+        return toPage(cachedListing(normalizedCity, null, page, size, false,
+            pageable -> restaurantRepository.findByCity(normalizedCity, pageable)));
     }
     
     public Page<RestaurantResponse> findByCityAndStateWithPagination(String city, String state, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return restaurantRepository.findByCityAndState(city, state, pageable)
-            .map(this::mapToResponse);
+        String normalizedCity = city.trim();
+        String normalizedState = state.trim();
+        return toPage(cachedListing(normalizedCity, normalizedState, page, size, false,
+            pageable -> restaurantRepository.findByCityAndState(normalizedCity, normalizedState, pageable)));
     }
     
     public Page<RestaurantResponse> findOpenRestaurantsWithPagination(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return restaurantRepository.findByIsOpenTrue(pageable)
-            .map(this::mapToResponse);
+        return toPage(cachedListing(null, null, page, size, false, restaurantRepository::findByIsOpenTrue));
+    }
+    
+    /**
+     * Infinite-scroll variant of {@link #findByCityWithPagination}: no count query, only whether a next page exists
+     */
+    public Slice<RestaurantResponse> findByCityWithSlice(String city, int page, int size) {
+        String normalizedCity = city.trim();
+        return toSlice(cachedListing(normalizedCity, null, page, size, true,
+            pageable -> restaurantRepository.findSliceByCity(normalizedCity, pageable)));
+    }
+    
+    public Slice<RestaurantResponse> findByCityAndStateWithSlice(String city, String state, int page, int size) {
+        String normalizedCity = city.trim();
+        String normalizedState = state.trim();
+        return toSlice(cachedListing(normalizedCity, normalizedState, page, size, true,
+            pageable -> restaurantRepository.findSliceByCityAndState(normalizedCity, normalizedState, pageable)));
+    }
+    
+    public Slice<RestaurantResponse> findOpenRestaurantsWithSlice(int page, int size) {
+        return toSlice(cachedListing(null, null, page, size, true, restaurantRepository::findSliceByIsOpenTrue));
+    }
+    
+    /**
+     * A null city means the open-restaurants listing, which every restaurant write invalidates.
+     * Misses load from the replica, except shortly after a version bump: the replica may not have replayed the
+     * write yet, and its rows would be cached under the new version for the whole page TTL.
+     */
+    private RestaurantListResponse cachedListing(String city, String state, int page, int size, boolean slice,
+                                                 Function<Pageable, Slice<Restaurant>> query) {
+        List<String> values = cacheService.multiGetStrings(List.of(
+            CacheKeys.restaurantListingVersionKey(city),
+            CacheKeys.restaurantListingWriteKey(city)
+        ));
+        String version = values != null ? values.get(0) : null;
+        boolean recentlyWritten = values != null && values.get(1) != null;
+        String key = CacheKeys.restaurantPageKey(city, state, version != null ? Long.parseLong(version) : 0,
+            page, size, slice);
+        TransactionTemplate transaction = recentlyWritten ? primaryTransaction : replicaTransaction;
+        return cacheAsideLoader.get(key, CacheKeys.RESTAURANT_PAGE_TTL, () -> transaction.execute(status -> {
+            Slice<Restaurant> result = query.apply(PageRequest.of(page, size));
+            long total = result instanceof Page<Restaurant> pageResult ? pageResult.getTotalElements() : -1;
+            return new RestaurantListResponse(result.map(this::mapToResponse).getContent(), total, page, size,
+                result.hasNext());
+        }));
+    }
+    
+    private static Page<RestaurantResponse> toPage(RestaurantListResponse listing) {
+        return new PageImpl<>(listing.getRestaurants(), PageRequest.of(listing.getPage(), listing.getSize()),
+            listing.getTotal());
+    }
+    
+    private static Slice<RestaurantResponse> toSlice(RestaurantListResponse listing) {
+        return new SliceImpl<>(listing.getRestaurants(), PageRequest.of(listing.getPage(), listing.getSize()),
+            listing.isHasNext());
+    }
+    
+    /**
+     * Bumps the listing versions of the given cities and of the open-restaurants listing once the write commits;
+     * bumping earlier would let a concurrent reader cache the old rows under the new version
+     */
+    private void invalidateListingsAfterCommit(String... cities) {
+        Set<String> scopes = new LinkedHashSet<>();
+        scopes.add(null);
+        for (String city : cities) {
+            if (city != null) {
+                scopes.add(city.trim());
+            }
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpListingVersions(scopes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bumpListingVersions(scopes);
+            }
+        });
+    }
+    
+    private void bumpListingVersions(Set<String> cities) {
+        for (String city : cities) {
+            try {
+                // Marked before the bump, so a reader that sees the new version also loads from the primary
+                cacheService.setStringWithExpiry(CacheKeys.restaurantListingWriteKey(city), "1",
+                    listingPrimaryWindowMillis, TimeUnit.MILLISECONDS);
+                cacheService.incrementString(CacheKeys.restaurantListingVersionKey(city));
+            } catch (RuntimeException e) {
+                // The write is committed; stale pages still expire within the page TTL
+                logger.warn("Failed to bump restaurant listing version for {}: {}", city != null ? city : "open",
+                    e.getMessage());
+            }
+        }
     }
     
     private RestaurantResponse mapToResponse(Restaurant restaurant) {
@@ -1,10 +1,10 @@
 package org.example.fooddeliverysystem.service;
 
+import org.example.fooddeliverysystem.dto.auth.AuthenticatedUser;
 import org.example.fooddeliverysystem.model.User;
 import org.example.fooddeliverysystem.repository.UserRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -16,19 +16,31 @@ public class UserService {
         this.userRepository = userRepository;
     }
     
-    public User getCurrentUser() {
+    /**
+     * Id, email and role of the caller from the verified token, without touching the database
+     */
+    public AuthenticatedUser getCurrentPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
+            return null;
+        }
+        return (AuthenticatedUser) authentication.getPrincipal();
+    }
+    
+    /**
+     * Full user row for the caller; prefer {@link #getCurrentPrincipal()} when only the id or role is needed
+     */
+    public User getCurrentUser() {
+        AuthenticatedUser principal = getCurrentPrincipal();
+        if (principal == null) {
             return null;
         }
-        
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return userRepository.findByEmail(userDetails.getUsername())
+        return userRepository.findById(principal.getId())
             .orElse(null);
     }
     
     public String getCurrentUserId() {
-        User user = getCurrentUser();
-        return user != null ? user.getId() : null;
+        AuthenticatedUser principal = getCurrentPrincipal();
+        return principal != null ? principal.getId() : null;
     }
 }
@@ -1,14 +1,33 @@
 package org.example.fooddeliverysystem.util;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 public class CacheKeys {
     
     // Driver cache keys
     public static final String DRIVER_LOCATION_PREFIX = "driver:location:";
     public static final String DRIVER_AVAILABILITY_PREFIX = "driver:availability:";
+    public static final String AVAILABLE_DRIVERS_GEO_KEY = "driver:geo:available";
+    public static final String DRIVER_LOAD_PREFIX = "driver:load:";
+    
+    // Dispatch cache keys
+    public static final String DISPATCH_QUEUE_KEY = "dispatch:queue";
+    public static final String DISPATCH_READY_AT_KEY = "dispatch:ready-at";
+    public static final String DISPATCH_DRIVER_CLAIM_PREFIX = "dispatch:claim:";
     
     // Restaurant cache keys
     public static final String RESTAURANT_PREFIX = "restaurant:";
     public static final String RESTAURANT_MENU_PREFIX = "restaurant:menu:";
+    // Set briefly with each menu eviction; while present, the menu is loaded from the primary
+    public static final String RESTAURANT_MENU_WRITE_PREFIX = "menus:written:";
+    
+    // Paginated restaurant listings; page keys embed the listing version, so bumping it orphans every cached page
+    public static final String RESTAURANT_PAGE_PREFIX = "restaurants:page:";
+    public static final String RESTAURANT_LISTING_VERSION_PREFIX = "restaurants:version:";
+    // Set briefly with each version bump; while present, listings are loaded from the primary
+    public static final String RESTAURANT_LISTING_WRITE_PREFIX = "restaurants:written:";
     
     // Food item cache keys
     public static final String FOOD_ITEM_PREFIX = "fooditem:";
@@ -17,13 +36,49 @@ public class CacheKeys {
     public static final String ORDER_PREFIX = "order:";
     public static final String USER_ORDERS_PREFIX = "user:orders:";
     
+    // Negative cache entries for ids that do not exist
+    public static final String NEGATIVE_PREFIX = "negative:";
+    
+    // Shared token buckets behind the local rate limiter tier
+    public static final String RATE_LIMIT_PREFIX = "rate-limit:";
+    
+    // Live order tracking: pub/sub channel, driver -> order being delivered, per-driver position throttle
+    public static final String ORDER_TRACKING_CHANNEL = "tracking:orders";
+    public static final String TRACKED_DRIVER_PREFIX = "tracking:driver:";
+    public static final String TRACKING_THROTTLE_PREFIX = "tracking:throttle:";
+    
+    // Pub/sub channel carrying menu search index updates to every instance
+    public static final String MENU_SEARCH_CHANNEL = "search:menu";
+    
+    // Pub/sub channel used to evict near-cache entries on other instances
+    public static final String NEAR_CACHE_INVALIDATION_CHANNEL = "cache:near:invalidate";
+    
+    // Key prefixes reported in cache statistics, most specific first
+    public static final List<String> STATISTICS_PREFIXES = List.of(
+        RESTAURANT_MENU_PREFIX,
+        RESTAURANT_PREFIX,
+        RESTAURANT_PAGE_PREFIX,
+        FOOD_ITEM_PREFIX,
+        ORDER_PREFIX,
+        USER_ORDERS_PREFIX,
+        DRIVER_LOCATION_PREFIX,
+        DRIVER_AVAILABILITY_PREFIX,
+        DRIVER_LOAD_PREFIX,
+        DISPATCH_DRIVER_CLAIM_PREFIX,
+        NEGATIVE_PREFIX
+    );
+    
     // Cache TTL in seconds
     public static final long DRIVER_LOCATION_TTL = 300; // 5 minutes
     public static final long DRIVER_AVAILABILITY_TTL = 60; // 1 minute
+    public static final long DRIVER_LOAD_TTL = 14400; // 4 hours
+    public static final long DISPATCH_DRIVER_CLAIM_TTL = 30; // 30 seconds
     public static final long RESTAURANT_TTL = 3600; // 1 hour
     public static final long RESTAURANT_MENU_TTL = 1800; // 30 minutes
+    public static final long RESTAURANT_PAGE_TTL = 300; // 5 minutes
     public static final long FOOD_ITEM_TTL = 1800; // 30 minutes
     public static final long ORDER_TTL = 600; // 10 minutes
+    public static final long NEGATIVE_TTL = 30; // 30 seconds
     
     private CacheKeys() {
         // Utility class
@@ -37,6 +92,14 @@ public class CacheKeys {
         return DRIVER_AVAILABILITY_PREFIX + driverId;
     }
     
+    public static String driverLoadKey(String driverId) {
+        return DRIVER_LOAD_PREFIX + driverId;
+    }
+    
+    public static String dispatchDriverClaimKey(String driverId) {
+        return DISPATCH_DRIVER_CLAIM_PREFIX + driverId;
+    }
+    
     public static String restaurantKey(String restaurantId) {
         return RESTAURANT_PREFIX + restaurantId;
     }
@@ -45,6 +108,29 @@ public class CacheKeys {
         return RESTAURANT_MENU_PREFIX + restaurantId;
     }
     
+    public static String restaurantMenuWriteKey(String restaurantId) {
+        return RESTAURANT_MENU_WRITE_PREFIX + restaurantId;
+    }
+    
+    /**
+     * Version of the listings of one city, or of the open-restaurants listing when city is null
+     */
+    public static String restaurantListingVersionKey(String city) {
+        return RESTAURANT_LISTING_VERSION_PREFIX + listingScope(city, null);
+    }
+    
+    public static String restaurantListingWriteKey(String city) {
+        return RESTAURANT_LISTING_WRITE_PREFIX + listingScope(city, null);
+    }
+    
+    /**
+     * One cached listing page; state may be null, and a null city means the open-restaurants listing
+     */
+    public static String restaurantPageKey(String city, String state, long version, int page, int size, boolean slice) {
+        return RESTAURANT_PAGE_PREFIX + listingScope(city, state) + ":v" + version + ":" + page + ":" + size
+            + (slice ? ":slice" : "");
+    }
+    
     public static String foodItemKey(String foodItemId) {
         return FOOD_ITEM_PREFIX + foodItemId;
     }
@@ -56,4 +142,51 @@ public class CacheKeys {
     public static String userOrdersKey(String userId) {
         return USER_ORDERS_PREFIX + userId;
     }
+    
+    public static String negativeKey(String key) {
+        return NEGATIVE_PREFIX + key;
+    }
+    
+    public static String rateLimitKey(String profile, String clientId) {
+        return RATE_LIMIT_PREFIX + profile + ":" + clientId;
+    }
+    
+    public static String trackedDriverKey(String driverId) {
+        return TRACKED_DRIVER_PREFIX + driverId;
+    }
+    
+    public static String trackingThrottleKey(String driverId) {
+        return TRACKING_THROTTLE_PREFIX + driverId;
+    }
+    
+    // City and state are user input, so they are encoded to keep ':' from shifting the other key segments
+    private static String listingScope(String city, String state) {
+        if (city == null) {
+            return "open";
+        }
+        String scope = "city:" + URLEncoder.encode(city, StandardCharsets.UTF_8);
+        return state == null ? scope : scope + ":state:" + URLEncoder.encode(state, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Redis TTL in seconds for the key family the key belongs to, or -1 when the family has no TTL
+     */
+    public static long ttlForKey(String key) {
+        if (key.startsWith(RESTAURANT_MENU_PREFIX)) {
+            return RESTAURANT_MENU_TTL;
+        }
+        if (key.startsWith(RESTAURANT_PREFIX)) {
+            return RESTAURANT_TTL;
+        }
+        if (key.startsWith(RESTAURANT_PAGE_PREFIX)) {
+            return RESTAURANT_PAGE_TTL;
+        }
+        if (key.startsWith(FOOD_ITEM_PREFIX)) {
+            return FOOD_ITEM_TTL;
+        }
+        if (key.startsWith(ORDER_PREFIX)) {
+            return ORDER_TTL;
+        }
+        return -1;
+    }
 }
@@ -1,76 +1,371 @@
 package org.example.fooddeliverysystem.util;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.example.fooddeliverysystem.dto.fooditem.FoodItemResponse;
+import org.example.fooddeliverysystem.dto.restaurant.RestaurantResponse;
+import org.example.fooddeliverysystem.repository.OrderRepository;
 import org.example.fooddeliverysystem.service.CacheService;
+import org.example.fooddeliverysystem.service.FoodItemService;
+import org.example.fooddeliverysystem.service.RestaurantService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 
 @Component
 public class CacheOptimizationUtil {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(CacheOptimizationUtil.class);
-    
+
+    private static final String OTHER_PREFIX = "other";
+    private static final int TTL_BATCH_SIZE = 1000;
+
     private final CacheService cacheService;
-    
-    public CacheOptimizationUtil(CacheService cacheService) {
+    private final OrderRepository orderRepository;
+    private final RestaurantService restaurantService;
+    private final FoodItemService foodItemService;
+    private final AtomicBoolean warmUpRunning = new AtomicBoolean(false);
+
+    @Value("${cache.warmup.on-startup:true}")
+    private boolean warmUpOnStartup;
+
+    @Value("${cache.warmup.top-restaurants:200}")
+    private int topRestaurants;
+
+    @Value("${cache.warmup.lookback-hours:24}")
+    private long lookbackHours;
+
+    @Value("${cache.warmup.batch-size:50}")
+    private int warmUpBatchSize;
+
+    @Value("${cache.warmup.parallelism:4}")
+    private int warmUpParallelism;
+
+    @Value("${cache.statistics.max-scan-keys:100000}")
+    private long maxScanKeys;
+
+    public CacheOptimizationUtil(CacheService cacheService,
+                                 OrderRepository orderRepository,
+                                 RestaurantService restaurantService,
+                                 FoodItemService foodItemService) {
         this.cacheService = cacheService;
+        this.orderRepository = orderRepository;
+        this.restaurantService = restaurantService;
+        this.foodItemService = foodItemService;
     }
-    
+
     /**
-     * Warm up cache for frequently accessed data
+     * Runs before the instance reports ready, so a freshly deployed instance only takes traffic with a warm cache
      */
-    public void warmUpCache() {
-        logger.info("Starting cache warm-up");
-        // Cache warming logic can be implemented here
-        // For example, pre-load popular restaurants, active drivers, etc.
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!warmUpOnStartup) {
+            return;
+        }
+        try {
+            warmUpCache();
+        } catch (Exception e) {
+            // A cold cache is slower, not broken: never fail startup over it
+            logger.warn("Startup cache warm-up failed: {}", e.getMessage(), e);
+        }
     }
-    
+
     /**
-     * Evict expired cache entries
+     * Preload restaurants and menus with the most orders in the look-back window.
+     * Batches are loaded from the database in parallel and written to Redis with one pipelined call each.
+     *
+     * @return number of restaurants warmed, or -1 when a warm-up is already running
      */
-    public void evictExpiredEntries() {
-        logger.info("Evicting expired cache entries");
-        // Cache eviction logic can be implemented here
-        // Redis TTL handles automatic expiration, but we can add manual cleanup if needed
+    public int warmUpCache() {
+        if (!warmUpRunning.compareAndSet(false, true)) {
+            logger.info("Cache warm-up already running, skipping");
+            return -1;
+        }
+
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, warmUpParallelism));
+        try {
+            List<String> restaurantIds = orderRepository.findTopRestaurantIdsByOrderVolume(
+                LocalDateTime.now().minusHours(lookbackHours), PageRequest.of(0, topRestaurants));
+            logger.info("Starting cache warm-up for {} restaurants", restaurantIds.size());
+
+            AtomicInteger warmed = new AtomicInteger();
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            for (int i = 0; i < restaurantIds.size(); i += warmUpBatchSize) {
+                List<String> batch = restaurantIds.subList(i, Math.min(i + warmUpBatchSize, restaurantIds.size()));
+                batches.add(CompletableFuture.runAsync(() -> warmed.addAndGet(warmUpBatch(batch)), executor));
+            }
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+
+            logger.info("Cache warm-up completed: {} restaurants in {} ms", warmed.get(), System.currentTimeMillis() - start);
+            return warmed.get();
+        } finally {
+            executor.shutdown();
+            warmUpRunning.set(false);
+        }
+    }
+
+    private int warmUpBatch(List<String> restaurantIds) {
+        List<RestaurantResponse> restaurants = restaurantService.findAllByIds(restaurantIds);
+        List<String> foundIds = restaurants.stream().map(RestaurantResponse::getId).toList();
+        Map<String, List<FoodItemResponse>> menus = foodItemService.findMenusByRestaurantIds(foundIds);
+
+        Map<String, Object> restaurantEntries = new HashMap<>();
+        for (RestaurantResponse restaurant : restaurants) {
+            restaurantEntries.put(CacheKeys.restaurantKey(restaurant.getId()), restaurant);
+        }
+        Map<String, Object> menuEntries = new HashMap<>();
+        menus.forEach((restaurantId, menu) -> menuEntries.put(CacheKeys.restaurantMenuKey(restaurantId), menu));
+
+        cacheService.setAllWithExpiry(restaurantEntries, CacheKeys.RESTAURANT_TTL, TimeUnit.SECONDS);
+        cacheService.setAllWithExpiry(menuEntries, CacheKeys.RESTAURANT_MENU_TTL, TimeUnit.SECONDS);
+        return restaurants.size();
     }
-    
+
+    /**
+     * Redis drops expired keys itself; what can leak are cache keys written without a TTL.
+     * Give every such key in a TTL'd family its family TTL so it cannot live forever.
+     *
+     * @return number of keys that had their expiry restored
+     */
+    public int evictExpiredEntries() {
+        logger.info("Restoring expiry on cache keys without a TTL");
+        int fixed = 0;
+        for (String prefix : List.of(CacheKeys.RESTAURANT_PREFIX, CacheKeys.FOOD_ITEM_PREFIX, CacheKeys.ORDER_PREFIX)) {
+            List<String> keys = cacheService.scanKeys(prefix + "*", maxScanKeys);
+            for (int i = 0; i < keys.size(); i += TTL_BATCH_SIZE) {
+                List<String> batch = keys.subList(i, Math.min(i + TTL_BATCH_SIZE, keys.size()));
+                List<Long> ttls = cacheService.getExpiries(batch);
+                for (int j = 0; j < batch.size(); j++) {
+                    long familyTtl = CacheKeys.ttlForKey(batch.get(j));
+                    if (ttls.get(j) == -1 && familyTtl > 0) {
+                        cacheService.setExpiry(batch.get(j), familyTtl, TimeUnit.SECONDS);
+                        fixed++;
+                    }
+                }
+            }
+        }
+        logger.info("Restored expiry on {} cache keys", fixed);
+        return fixed;
+    }
+
     /**
-     * Get cache statistics
+     * Server-wide hit ratio and memory from INFO, plus key counts and TTL distribution from an incremental SCAN.
+     * The scan stops after cache.statistics.max-scan-keys keys, in which case the counts are a sample.
      */
     public CacheStatistics getCacheStatistics() {
-        // This would require Redis INFO command or custom implementation
-        // For now, return basic structure
-        return new CacheStatistics();
+        CacheStatistics stats = new CacheStatistics();
+
+        Properties info = cacheService.getServerInfo("stats");
+        long hits = parseLong(info.getProperty("keyspace_hits"));
+        long misses = parseLong(info.getProperty("keyspace_misses"));
+        double hitRatio = hits + misses > 0 ? (double) hits / (hits + misses) : 0;
+        stats.setKeyspaceHits(hits);
+        stats.setKeyspaceMisses(misses);
+        stats.setHitRatio(hitRatio);
+        stats.setHitRate(Math.round(hitRatio * 100));
+        stats.setExpiredKeys(parseLong(info.getProperty("expired_keys")));
+
+        Properties memory = cacheService.getServerInfo("memory");
+        stats.setUsedMemoryBytes(parseLong(memory.getProperty("used_memory")));
+        stats.setUsedMemoryHuman(memory.getProperty("used_memory_human"));
+
+        stats.setTotalKeys(cacheService.getKeyCount());
+
+        Map<String, Long> keyCounts = new LinkedHashMap<>();
+        for (String prefix : CacheKeys.STATISTICS_PREFIXES) {
+            keyCounts.put(prefix, 0L);
+        }
+        keyCounts.put(OTHER_PREFIX, 0L);
+        Map<String, Long> ttlDistribution = new LinkedHashMap<>();
+        for (String bucket : List.of("no-expiry", "<1m", "1m-5m", "5m-30m", "30m-1h", ">1h")) {
+            ttlDistribution.put(bucket, 0L);
+        }
+
+        List<String> keys = cacheService.scanKeys("*", maxScanKeys);
+        for (int i = 0; i < keys.size(); i += TTL_BATCH_SIZE) {
+            List<String> batch = keys.subList(i, Math.min(i + TTL_BATCH_SIZE, keys.size()));
+            List<Long> ttls = cacheService.getExpiries(batch);
+            for (int j = 0; j < batch.size(); j++) {
+                keyCounts.merge(prefixOf(batch.get(j)), 1L, Long::sum);
+                long ttl = ttls.get(j);
+                if (ttl != -2) {
+                    ttlDistribution.merge(ttlBucket(ttl), 1L, Long::sum);
+                }
+            }
+        }
+        stats.setScannedKeys(keys.size());
+        stats.setSampled(keys.size() >= maxScanKeys);
+        stats.setKeyCountsByPrefix(keyCounts);
+        stats.setTtlDistribution(ttlDistribution);
+
+        return stats;
+    }
+
+    private static String prefixOf(String key) {
+        for (String prefix : CacheKeys.STATISTICS_PREFIXES) {
+            if (key.startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        return OTHER_PREFIX;
     }
-    
+
+    private static String ttlBucket(long ttlSeconds) {
+        if (ttlSeconds < 0) {
+            return "no-expiry";
+        }
+        if (ttlSeconds < 60) {
+            return "<1m";
+        }
+        if (ttlSeconds < 300) {
+            return "1m-5m";
+        }
+        if (ttlSeconds < 1800) {
+            return "5m-30m";
+        }
+        if (ttlSeconds < 3600) {
+            return "30m-1h";
+        }
+        return ">1h";
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     public static class CacheStatistics {
         private long totalKeys;
         private long expiredKeys;
         private long hitRate;
-        
+        private double hitRatio;
+        private long keyspaceHits;
+        private long keyspaceMisses;
+        private long usedMemoryBytes;
+        private String usedMemoryHuman;
+        private long scannedKeys;
+        private boolean sampled;
+        private Map<String, Long> keyCountsByPrefix;
+        private Map<String, Long> ttlDistribution;
+
         public long getTotalKeys() {
             return totalKeys;
         }
-        
+
         public void setTotalKeys(long totalKeys) {
             this.totalKeys = totalKeys;
         }
-        
+
         public long getExpiredKeys() {
             return expiredKeys;
         }
-        
+
         public void setExpiredKeys(long expiredKeys) {
             this.expiredKeys = expiredKeys;
         }
-        
+
         public long getHitRate() {
             return hitRate;
         }
-        
+
         public void setHitRate(long hitRate) {
             this.hitRate = hitRate;
         }
+
+        public double getHitRatio() {
+            return hitRatio;
+        }
+
+        public void setHitRatio(double hitRatio) {
+            this.hitRatio = hitRatio;
+        }
+
+        public long getKeyspaceHits() {
+            return keyspaceHits;
+        }
+
+        public void setKeyspaceHits(long keyspaceHits) {
+            this.keyspaceHits = keyspaceHits;
+        }
+
+        public long getKeyspaceMisses() {
+            return keyspaceMisses;
+        }
+
+        public void setKeyspaceMisses(long keyspaceMisses) {
+            this.keyspaceMisses = keyspaceMisses;
+        }
+
+        public long getUsedMemoryBytes() {
+            return usedMemoryBytes;
+        }
+
+        public void setUsedMemoryBytes(long usedMemoryBytes) {
+            this.usedMemoryBytes = usedMemoryBytes;
+        }
+
+        public String getUsedMemoryHuman() {
+            return usedMemoryHuman;
+        }
+
+        public void setUsedMemoryHuman(String usedMemoryHuman) {
+            this.usedMemoryHuman = usedMemoryHuman;
+        }
+
+        public long getScannedKeys() {
+            return scannedKeys;
+        }
+
+        public void setScannedKeys(long scannedKeys) {
+            this.scannedKeys = scannedKeys;
+        }
+
+        public boolean isSampled() {
+            return sampled;
+        }
+
+        public void setSampled(boolean sampled) {
+            this.sampled = sampled;
+        }
+
+        public Map<String, Long> getKeyCountsByPrefix() {
+            return keyCountsByPrefix;
+        }
+
+        public void setKeyCountsByPrefix(Map<String, Long> keyCountsByPrefix) {
+            this.keyCountsByPrefix = keyCountsByPrefix;
+        }
+
+        public Map<String, Long> getTtlDistribution() {
+            return ttlDistribution;
+        }
+
+        public void setTtlDistribution(Map<String, Long> ttlDistribution) {
+            this.ttlDistribution = ttlDistribution;
+        }
     }
 }
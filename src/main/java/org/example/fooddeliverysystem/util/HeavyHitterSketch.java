@@ -0,0 +1,91 @@
+package org.example.fooddeliverysystem.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-K sketch: tracks the heaviest keys of an unbounded key space in a fixed number of slots.
+ * A key that is not tracked replaces the lightest slot and inherits its count, so counts may overestimate
+ * by at most the lightest slot's count but real heavy hitters are never missed.
+ * Counts decay over time so the top reflects current load rather than all-time totals.
+ */
+public class HeavyHitterSketch {
+
+    private final int capacity;
+    private final Map<String, Slot> slots;
+
+    public HeavyHitterSketch(int capacity) {
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void increment(String key, long nowMillis) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            slot.count++;
+            slot.lastSeenMillis = nowMillis;
+            return;
+        }
+
+        if (slots.size() < capacity) {
+            slots.put(key, new Slot(1, nowMillis));
+            return;
+        }
+
+        String lightestKey = null;
+        Slot lightest = null;
+        for (Map.Entry<String, Slot> entry : slots.entrySet()) {
+            if (lightest == null || entry.getValue().count < lightest.count) {
+                lightestKey = entry.getKey();
+                lightest = entry.getValue();
+            }
+        }
+        slots.remove(lightestKey);
+        slots.put(key, new Slot(lightest.count + 1, nowMillis));
+    }
+
+    /**
+     * Current estimate for a key, 0 when it is not tracked
+     */
+    public synchronized double estimate(String key) {
+        Slot slot = slots.get(key);
+        return slot != null ? slot.count : 0;
+    }
+
+    /**
+     * The k heaviest keys with their estimates, heaviest first
+     */
+    public synchronized Map<String, Double> top(int k) {
+        List<Map.Entry<String, Slot>> entries = new ArrayList<>(slots.entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue().count, a.getValue().count));
+
+        Map<String, Double> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(k, entries.size()); i++) {
+            top.put(entries.get(i).getKey(), entries.get(i).getValue().count);
+        }
+        return top;
+    }
+
+    /**
+     * Multiply every count by decayFactor and drop keys not seen since idleBeforeMillis
+     */
+    public synchronized void decayAndEvict(double decayFactor, long idleBeforeMillis) {
+        slots.entrySet().removeIf(entry -> entry.getValue().lastSeenMillis < idleBeforeMillis);
+        for (Slot slot : slots.values()) {
+            slot.count *= decayFactor;
+        }
+    }
+
+    private static class Slot {
+        private double count;
+        private long lastSeenMillis;
+
+        Slot(double count, long lastSeenMillis) {
+            this.count = count;
+            this.lastSeenMillis = lastSeenMillis;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package org.example.fooddeliverysystem.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only store of driver location pings.
+ * Each driver's pings are encoded into an open {@link RouteChunk}. Once a chunk is big or old enough it is
+ * sealed: written as one record into the active segment, a memory-mapped file that rolls over by size and age.
+ * Each segment indexes its own records by driver, as record offsets, so retention drops the index together with
+ * the segment and the heap holds no more than the segments on disk. The indexes are rebuilt from the segment
+ * files on startup. Pings still in open chunks are lost if the process dies, so the chunk age bounds that loss.
+ */
+public class LocationHistoryLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "route-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // Record: int length (0 marks the end of a segment) | short id length | id | long first | long last |
+    // int point count | payload. The length is written last so a torn record reads as the end.
+    private static final int RECORD_HEADER_BYTES = 4 + 2 + 8 + 8 + 4;
+    private static final int INITIAL_CHUNK_CAPACITY = 256;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long segmentMillis;
+    private final int chunkBytes;
+    private final long chunkMillis;
+    private final Map<String, Track> tracks = new ConcurrentHashMap<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicLong storedPoints = new AtomicLong();
+    private Segment active;
+
+    public LocationHistoryLog(Path directory, int segmentBytes, long segmentMillis, int chunkBytes, long chunkMillis)
+            throws IOException {
+        // A sealed chunk can overshoot chunkBytes by one ping
+        if (segmentBytes < 2 * (chunkBytes + RECORD_HEADER_BYTES + 512)) {
+            throw new IllegalArgumentException("Segments must hold at least two chunks");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.segmentMillis = segmentMillis;
+        this.chunkBytes = chunkBytes;
+        this.chunkMillis = chunkMillis;
+        Files.createDirectories(directory);
+        loadSegments();
+    }
+
+    /**
+     * Records a ping; returns false when it is not newer than the driver's last recorded ping
+     */
+    public boolean append(String driverId, long timestampMillis, double latitude, double longitude) {
+        while (true) {
+            Track track = tracks.computeIfAbsent(driverId, id -> new Track());
+            synchronized (track) {
+                if (track.removed) {
+                    // Dropped by retention between lookup and lock
+                    continue;
+                }
+                if (track.open == null) {
+                    if (timestampMillis <= track.lastTimestamp) {
+                        return false;
+                    }
+                    track.open = new RouteChunk(INITIAL_CHUNK_CAPACITY, System.currentTimeMillis());
+                }
+                if (!track.open.append(timestampMillis, RouteChunk.toFixedPoint(latitude),
+                        RouteChunk.toFixedPoint(longitude))) {
+                    return false;
+                }
+                if (track.open.byteLength() >= chunkBytes) {
+                    seal(driverId, track);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Passes the driver's pings between from and to (inclusive, epoch millis) to the consumer, oldest first
+     */
+    public void route(String driverId, long from, long to, RouteChunk.PointConsumer consumer) {
+        List<Segment> sealedSegments = new ArrayList<>();
+        List<int[]> sealedRecords = new ArrayList<>();
+        byte[] open = null;
+        Track track = tracks.get(driverId);
+        if (track != null) {
+            // Same lock order as seal, so a chunk being sealed is read exactly once
+            synchronized (track) {
+                collectSealed(driverId, from, to, sealedSegments, sealedRecords);
+                if (track.open != null && track.open.getLastTimestamp() >= from
+                        && track.open.getFirstTimestamp() <= to) {
+                    open = track.open.toByteArray();
+                }
+            }
+        } else {
+            collectSealed(driverId, from, to, sealedSegments, sealedRecords);
+        }
+
+        // Decoding happens outside the locks so that reads never hold up pings
+        for (int i = 0; i < sealedSegments.size(); i++) {
+            MappedByteBuffer buffer = sealedSegments.get(i).buffer;
+            for (int record : sealedRecords.get(i)) {
+                int header = record + 6 + buffer.getShort(record + 4);
+                if (buffer.getLong(header + 8) < from || buffer.getLong(header) > to) {
+                    continue;
+                }
+                int payloadOffset = header + 20;
+                byte[] payload = new byte[record + 4 + buffer.getInt(record) - payloadOffset];
+                buffer.get(payloadOffset, payload);
+                RouteChunk.decode(payload, 0, payload.length, from, to, consumer);
+            }
+        }
+        if (open != null) {
+            RouteChunk.decode(open, 0, open.length, from, to, consumer);
+        }
+    }
+
+    /**
+     * Seals chunks that have been open for longer than the chunk age and flushes the active segment to disk
+     */
+    public int sealIdle(long nowMillis) {
+        int sealed = 0;
+        for (Map.Entry<String, Track> entry : tracks.entrySet()) {
+            Track track = entry.getValue();
+            synchronized (track) {
+                if (track.open != null && nowMillis - track.open.getOpenedAtMillis() >= chunkMillis) {
+                    seal(entry.getKey(), track);
+                    sealed++;
+                }
+            }
+        }
+        synchronized (this) {
+            if (active != null) {
+                active.buffer.force();
+            }
+        }
+        return sealed;
+    }
+
+    /**
+     * Deletes the segments whose newest ping is older than the cutoff; returns how many were deleted
+     */
+    public int dropSegmentsBefore(long cutoffMillis) {
+        List<Segment> dropped = new ArrayList<>();
+        synchronized (this) {
+            segments.removeIf(segment -> {
+                boolean expired = segment != active && segment.newestTimestamp < cutoffMillis;
+                if (expired) {
+                    dropped.add(segment);
+                }
+                return expired;
+            });
+        }
+        if (dropped.isEmpty()) {
+            return 0;
+        }
+
+        // Sealed chunks are indexed by their segments; a track only carries the open chunk and the last timestamp
+        for (Map.Entry<String, Track> entry : tracks.entrySet()) {
+            Track track = entry.getValue();
+            synchronized (track) {
+                if (track.open == null && track.lastTimestamp < cutoffMillis) {
+                    track.removed = true;
+                    tracks.remove(entry.getKey(), track);
+                }
+            }
+        }
+        for (Segment segment : dropped) {
+            storedBytes.addAndGet(-segment.position);
+            storedPoints.addAndGet(-segment.points);
+            try {
+                // The mapping stays readable for queries already holding a chunk until it is garbage collected
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete " + segment.path, e);
+            }
+        }
+        return dropped.size();
+    }
+
+    /**
+     * Bytes written to segment files, excluding open chunks
+     */
+    public long storedBytes() {
+        return storedBytes.get();
+    }
+
+    public long storedPoints() {
+        return storedPoints.get();
+    }
+
+    /**
+     * Drivers with an open chunk or a sealed ping newer than the last retention cutoff
+     */
+    public int trackedDrivers() {
+        return tracks.size();
+    }
+
+    /**
+     * Seals every open chunk and flushes the active segment
+     */
+    @Override
+    public void close() {
+        sealIdle(Long.MAX_VALUE);
+    }
+
+    // Caller holds the track's lock
+    private void seal(String driverId, Track track) {
+        RouteChunk chunk = track.open;
+        track.open = null;
+        write(driverId, chunk);
+        track.lastTimestamp = chunk.getLastTimestamp();
+    }
+
+    private synchronized void collectSealed(String driverId, long from, long to, List<Segment> sealedSegments,
+                                            List<int[]> sealedRecords) {
+        for (Segment segment : segments) {
+            if (segment.newestTimestamp < from || segment.oldestTimestamp > to) {
+                continue;
+            }
+            DriverRecords records = segment.recordsByDriver.get(driverId);
+            if (records != null) {
+                sealedSegments.add(segment);
+                sealedRecords.add(records.toArray());
+            }
+        }
+    }
+
+    private synchronized void write(String driverId, RouteChunk chunk) {
+        byte[] id = driverId.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = chunk.toByteArray();
+        int recordBytes = RECORD_HEADER_BYTES + id.length + payload.length;
+        long now = System.currentTimeMillis();
+        if (active == null || active.position + recordBytes + 4 > segmentBytes
+                || now - active.createdMillis >= segmentMillis) {
+            roll(now);
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int start = active.position;
+        int position = start + 4;
+        buffer.putShort(position, (short) id.length);
+        position += 2;
+        buffer.put(position, id);
+        position += id.length;
+        buffer.putLong(position, chunk.getFirstTimestamp());
+        position += 8;
+        buffer.putLong(position, chunk.getLastTimestamp());
+        position += 8;
+        buffer.putInt(position, chunk.size());
+        position += 4;
+        buffer.put(position, payload);
+        buffer.putInt(start, recordBytes - 4);
+
+        active.position = start + recordBytes;
+        active.index(driverId, start, chunk.getFirstTimestamp(), chunk.getLastTimestamp());
+        active.points += chunk.size();
+        storedBytes.addAndGet(recordBytes);
+        storedPoints.addAndGet(chunk.size());
+    }
+
+    private void roll(long now) {
+        if (active != null) {
+            active.buffer.force();
+        }
+        Path path = directory.resolve(SEGMENT_PREFIX + now + SEGMENT_SUFFIX);
+        for (long suffix = now + 1; Files.exists(path); suffix++) {
+            path = directory.resolve(SEGMENT_PREFIX + suffix + SEGMENT_SUFFIX);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes), now);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create segment " + path, e);
+        }
+        segments.add(active);
+    }
+
+    private void loadSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(null);
+
+        for (Path path : paths) {
+            Segment segment;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment = new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()),
+                    Files.getLastModifiedTime(path).toMillis());
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            int position = 0;
+            while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + 4 + length > buffer.capacity()) {
+                    break;
+                }
+                int cursor = position + 4;
+                byte[] id = new byte[buffer.getShort(cursor)];
+                cursor += 2;
+                buffer.get(cursor, id);
+                cursor += id.length;
+                long first = buffer.getLong(cursor);
+                long last = buffer.getLong(cursor + 8);
+                int points = buffer.getInt(cursor + 16);
+
+                String driverId = new String(id, StandardCharsets.UTF_8);
+                Track track = tracks.computeIfAbsent(driverId, key -> new Track());
+                track.lastTimestamp = Math.max(track.lastTimestamp, last);
+                segment.index(driverId, position, first, last);
+                segment.points += points;
+                position += 4 + length;
+            }
+            segment.position = position;
+            segments.add(segment);
+            storedBytes.addAndGet(position);
+            storedPoints.addAndGet(segment.points);
+        }
+    }
+
+    private static final class Track {
+        private RouteChunk open;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private boolean removed;
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final long createdMillis;
+        // Guarded by the log's lock
+        private final Map<String, DriverRecords> recordsByDriver = new HashMap<>();
+        private int position;
+        private long oldestTimestamp = Long.MAX_VALUE;
+        private long newestTimestamp = Long.MIN_VALUE;
+        private long points;
+
+        private Segment(Path path, MappedByteBuffer buffer, long createdMillis) {
+            this.path = path;
+            this.buffer = buffer;
+            this.createdMillis = createdMillis;
+        }
+
+        private void index(String driverId, int record, long firstTimestamp, long lastTimestamp) {
+            recordsByDriver.computeIfAbsent(driverId, key -> new DriverRecords()).add(record);
+            oldestTimestamp = Math.min(oldestTimestamp, firstTimestamp);
+            newestTimestamp = Math.max(newestTimestamp, lastTimestamp);
+        }
+    }
+
+    /**
+     * Offsets of one driver's records within a segment, oldest first; timestamps are read from the record headers
+     */
+    private static final class DriverRecords {
+        private int[] offsets = new int[4];
+        private int size;
+
+        private void add(int offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(offsets, size);
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package org.example.fooddeliverysystem.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over restaurant names and food item names and descriptions, one per city.
+ * A query matches documents containing every query token, where a token matches a term exactly, as a prefix
+ * (search as you type) or with one typo (insertion, deletion, substitution or transposition).
+ * Typo candidates come from a deletion neighbourhood: every term is also stored under each single-character
+ * deletion, so candidates are found with a few hash lookups instead of a scan over the vocabulary.
+ * Each city is guarded by its own read-write lock; writes are rare and queries never wait on another city.
+ * Replaced documents leave an empty slot behind until the index is rebuilt.
+ */
+public class MenuSearchIndex {
+
+    public enum DocumentType { RESTAURANT, FOOD_ITEM }
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final float EXACT = 3f;
+    private static final float PREFIX = 2f;
+    private static final float TYPO = 1f;
+    private static final float NAME_FIELD = 3f;
+    private static final float DESCRIPTION_FIELD = 1f;
+
+    private final Map<String, CityIndex> cities = new ConcurrentHashMap<>();
+    private final Map<String, String> restaurantCities = new ConcurrentHashMap<>();
+
+    /**
+     * Adds or replaces a restaurant. A restaurant that changed city takes its menu with it.
+     */
+    public void upsertRestaurant(String restaurantId, String city, String name, boolean open) {
+        String cityKey = normalizeCity(city);
+        String previousCityKey = restaurantCities.put(restaurantId, cityKey);
+        List<Document> menu = List.of();
+        if (previousCityKey != null && !previousCityKey.equals(cityKey)) {
+            menu = cityIndex(previousCityKey).removeRestaurant(restaurantId);
+        }
+
+        CityIndex index = cityIndex(cityKey);
+        index.upsert(new Document(DocumentType.RESTAURANT, restaurantId, restaurantId, name, null, null, open));
+        for (Document item : menu) {
+            index.upsert(item);
+        }
+    }
+
+    /**
+     * Adds or replaces a food item; returns false when its restaurant is not indexed
+     */
+    public boolean upsertFoodItem(String foodItemId, String restaurantId, String name, String description,
+                                  Double price) {
+        String cityKey = restaurantCities.get(restaurantId);
+        if (cityKey == null) {
+            return false;
+        }
+        cityIndex(cityKey).upsert(new Document(DocumentType.FOOD_ITEM, foodItemId, restaurantId, name, description,
+            price, true));
+        return true;
+    }
+
+    public void removeFoodItem(String foodItemId, String restaurantId) {
+        String cityKey = restaurantCities.get(restaurantId);
+        if (cityKey != null) {
+            cityIndex(cityKey).remove(key(DocumentType.FOOD_ITEM, foodItemId));
+        }
+    }
+
+    /**
+     * Best matches in the city, highest score first
+     */
+    public List<Hit> search(String city, String query, int limit) {
+        List<String> tokens = tokenize(query);
+        CityIndex index = cities.get(normalizeCity(city));
+        if (tokens.isEmpty() || index == null || limit <= 0) {
+            return List.of();
+        }
+        return index.search(tokens.subList(0, Math.min(tokens.size(), MAX_QUERY_TOKENS)), limit);
+    }
+
+    public int size() {
+        int size = 0;
+        for (CityIndex index : cities.values()) {
+            size += index.size();
+        }
+        return size;
+    }
+
+    /**
+     * Lower-cased, accent-free, de-duplicated words of at least two characters
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private CityIndex cityIndex(String cityKey) {
+        return cities.computeIfAbsent(cityKey, key -> new CityIndex());
+    }
+
+    private static String normalizeCity(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(DocumentType type, String id) {
+        return (type == DocumentType.RESTAURANT ? "r:" : "i:") + id;
+    }
+
+    /**
+     * Optimal string alignment distance, giving up once it exceeds max
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previousRow = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        int[] nextRow = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            nextRow[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(row[j] + 1, nextRow[j - 1] + 1), row[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, previousRow[j - 2] + 1);
+                }
+                nextRow[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousRow;
+            previousRow = row;
+            row = nextRow;
+            nextRow = recycled;
+        }
+        return row[b.length()];
+    }
+
+    public static final class Hit {
+        private final DocumentType type;
+        private final String id;
+        private final String restaurantId;
+        private final String restaurantName;
+        private final String name;
+        private final String description;
+        private final Double price;
+        private final boolean open;
+        private final float score;
+
+        private Hit(Document document, String restaurantName, boolean open, float score) {
+            this.type = document.type;
+            this.id = document.id;
+            this.restaurantId = document.restaurantId;
+            this.restaurantName = restaurantName;
+            this.name = document.name;
+            this.description = document.description;
+            this.price = document.price;
+            this.open = open;
+            this.score = score;
+        }
+
+        public DocumentType getType() {
+            return type;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getRestaurantId() {
+            return restaurantId;
+        }
+
+        public String getRestaurantName() {
+            return restaurantName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Double getPrice() {
+            return price;
+        }
+
+        public boolean isOpen() {
+            return open;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private static final class Document {
+        private final DocumentType type;
+        private final String id;
+        private final String restaurantId;
+        private final String name;
+        private final String description;
+        private final Double price;
+        private final boolean open;
+
+        private Document(DocumentType type, String id, String restaurantId, String name, String description,
+                         Double price, boolean open) {
+            this.type = type;
+            this.id = id;
+            this.restaurantId = restaurantId;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+            this.open = open;
+        }
+    }
+
+    private static final class Term {
+        private final Postings name = new Postings();
+        private final Postings description = new Postings();
+
+        private boolean isEmpty() {
+            return name.size == 0 && description.size == 0;
+        }
+    }
+
+    /**
+     * Sorted document ids. Ids are handed out in increasing order, so adding is an append.
+     */
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+    }
+
+    private static final class Candidate {
+        private final Postings postings;
+        private final float weight;
+
+        private Candidate(Postings postings, float weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+    }
+
+    private static final class CityIndex {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<Document> documents = new ArrayList<>();
+        private final Map<String, Integer> documentIds = new HashMap<>();
+        private final Map<String, Set<String>> menus = new HashMap<>();
+        private final NavigableMap<String, Term> terms = new TreeMap<>();
+        private final Map<String, Set<String>> deletions = new HashMap<>();
+        private int liveDocuments;
+
+        private void upsert(Document document) {
+            lock.writeLock().lock();
+            try {
+                String key = key(document.type, document.id);
+                removeLocked(key);
+
+                int documentId = documents.size();
+                documents.add(document);
+                documentIds.put(key, documentId);
+                liveDocuments++;
+                if (document.type == DocumentType.FOOD_ITEM) {
+                    menus.computeIfAbsent(document.restaurantId, id -> new HashSet<>()).add(key);
+                }
+
+                List<String> nameTokens = tokenize(document.name);
+                for (String token : nameTokens) {
+                    term(token).name.add(documentId);
+                }
+                for (String token : tokenize(document.description)) {
+                    if (!nameTokens.contains(token)) {
+                        term(token).description.add(documentId);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(String key) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Removes a restaurant and its menu, returning the menu
+         */
+        private List<Document> removeRestaurant(String restaurantId) {
+            lock.writeLock().lock();
+            try {
+                List<Document> menu = new ArrayList<>();
+                for (String key : new ArrayList<>(menus.getOrDefault(restaurantId, Set.of()))) {
+                    menu.add(documents.get(documentIds.get(key)));
+                    removeLocked(key);
+                }
+                removeLocked(key(DocumentType.RESTAURANT, restaurantId));
+                return menu;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private int size() {
+            lock.readLock().lock();
+            try {
+                return liveDocuments;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private List<Hit> search(List<String> tokens, int limit) {
+            lock.readLock().lock();
+            try {
+                int documentCount = documents.size();
+                byte[] matchedTokens = new byte[documentCount];
+                float[] scores = new float[documentCount];
+                int[] matches = new int[0];
+                int matchCount = 0;
+
+                for (int t = 0; t < tokens.size(); t++) {
+                    List<Candidate> candidates = candidates(tokens.get(t));
+                    if (candidates.isEmpty()) {
+                        return List.of();
+                    }
+                    // Strongest candidates first, so each document is scored by its best match for this token
+                    for (Candidate candidate : candidates) {
+                        Postings postings = candidate.postings;
+                        for (int i = 0; i < postings.size; i++) {
+                            int documentId = postings.ids[i];
+                            if (matchedTokens[documentId] != t) {
+                                continue;
+                            }
+                            matchedTokens[documentId] = (byte) (t + 1);
+                            scores[documentId] += candidate.weight;
+                            if (t == 0) {
+                                if (matchCount == matches.length) {
+                                    matches = Arrays.copyOf(matches, Math.max(16, matchCount * 2));
+                                }
+                                matches[matchCount++] = documentId;
+                            }
+                        }
+                    }
+                }
+
+                // Min-heap of the best documents; newer documents win ties
+                PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) ->
+                    scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(a, b));
+                for (int i = 0; i < matchCount; i++) {
+                    int documentId = matches[i];
+                    if (matchedTokens[documentId] == tokens.size()) {
+                        best.add(documentId);
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+
+                Hit[] hits = new Hit[best.size()];
+                for (int i = hits.length - 1; i >= 0; i--) {
+                    int documentId = best.poll();
+                    hits[i] = toHit(documents.get(documentId), scores[documentId]);
+                }
+                return Arrays.asList(hits);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private Hit toHit(Document document, float score) {
+            if (document.type == DocumentType.RESTAURANT) {
+                return new Hit(document, document.name, document.open, score);
+            }
+            Integer restaurantDocumentId = documentIds.get(key(DocumentType.RESTAURANT, document.restaurantId));
+            Document restaurant = restaurantDocumentId != null ? documents.get(restaurantDocumentId) : null;
+            return new Hit(document, restaurant != null ? restaurant.name : null,
+                restaurant != null && restaurant.open, score);
+        }
+
+        private List<Candidate> candidates(String token) {
+            Map<String, Float> matched = new HashMap<>();
+            if (terms.containsKey(token)) {
+                matched.put(token, EXACT);
+            }
+            int expansions = 0;
+            for (String term : terms.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                matched.put(term, PREFIX);
+            }
+            if (token.length() >= MIN_TYPO_LENGTH) {
+                Set<String> typos = new HashSet<>(deletions.getOrDefault(token, Set.of()));
+                for (String deletion : deletionsOf(token)) {
+                    if (terms.containsKey(deletion)) {
+                        typos.add(deletion);
+                    }
+                    typos.addAll(deletions.getOrDefault(deletion, Set.of()));
+                }
+                for (String term : typos) {
+                    if (!matched.containsKey(term) && editDistance(token, term, 1) <= 1) {
+                        matched.put(term, TYPO);
+                    }
+                }
+            }
+
+            List<Candidate> candidates = new ArrayList<>(matched.size() * 2);
+            for (Map.Entry<String, Float> entry : matched.entrySet()) {
+                Term term = terms.get(entry.getKey());
+                candidates.add(new Candidate(term.name, entry.getValue() * NAME_FIELD));
+                candidates.add(new Candidate(term.description, entry.getValue() * DESCRIPTION_FIELD));
+            }
+            candidates.sort((a, b) -> Float.compare(b.weight, a.weight));
+            return candidates;
+        }
+
+        private Term term(String token) {
+            Term term = terms.get(token);
+            if (term == null) {
+                term = new Term();
+                terms.put(token, term);
+                if (token.length() >= MIN_TYPO_LENGTH) {
+                    for (String deletion : deletionsOf(token)) {
+                        deletions.computeIfAbsent(deletion, key -> new HashSet<>(2)).add(token);
+                    }
+                }
+            }
+            return term;
+        }
+
+        private void removeLocked(String key) {
+            Integer documentId = documentIds.remove(key);
+            if (documentId == null) {
+                return;
+            }
+            Document document = documents.set(documentId, null);
+            liveDocuments--;
+            if (document.type == DocumentType.FOOD_ITEM) {
+                Set<String> menu = menus.get(document.restaurantId);
+                if (menu != null && menu.remove(key) && menu.isEmpty()) {
+                    menus.remove(document.restaurantId);
+                }
+            }
+            removePostings(tokenize(document.name), documentId);
+            removePostings(tokenize(document.description), documentId);
+        }
+
+        private void removePostings(Collection<String> tokens, int documentId) {
+            for (String token : tokens) {
+                Term term = terms.get(token);
+                if (term == null) {
+                    continue;
+                }
+                term.name.remove(documentId);
+                term.description.remove(documentId);
+                if (term.isEmpty()) {
+                    terms.remove(token);
+                    for (String deletion : deletionsOf(token)) {
+                        Set<String> variants = deletions.get(deletion);
+                        if (variants != null && variants.remove(token) && variants.isEmpty()) {
+                            deletions.remove(deletion);
+                        }
+                    }
+                }
+            }
+        }
+
+        private static List<String> deletionsOf(String token) {
+            List<String> variants = new ArrayList<>(token.length());
+            for (int i = 0; i < token.length(); i++) {
+                variants.add(token.substring(0, i) + token.substring(i + 1));
+            }
+            return variants;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.fooddeliverysystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.example.fooddeliverysystem.exception.ValidationException;
+
+/**
+ * Opaque keyset cursor over (createdAt, id) for order history pages
+ */
+public class OrderCursor {
+    
+    private static final String SEPARATOR = "|";
+    
+    private final LocalDateTime createdAt;
+    private final String id;
+    
+    public OrderCursor(LocalDateTime createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new OrderCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                raw.substring(separator + 1)
+            );
+        } catch (RuntimeException e) {
+            throw new ValidationException("cursor", "Invalid pagination cursor");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.fooddeliverysystem.util;
+
+import java.security.SecureRandom;
+
+/**
+ * Order numbers such as ORD-01JBC8Z3K4M2QF7A: 50 bits of epoch milliseconds followed by an 18-bit
+ * per-process node id and a 12-bit per-millisecond sequence, in Crockford base32.
+ * They sort by creation time and cost a few shifts per order instead of a UUID and a date formatter.
+ */
+public final class OrderNumberGenerator {
+
+    private static final String PREFIX = "ORD-";
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 18;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long NODE = new SecureRandom().nextInt(1 << NODE_BITS);
+
+    private static long lastMillis = -1;
+    private static long sequence;
+
+    private OrderNumberGenerator() {
+        // Utility class
+    }
+
+    public static String next() {
+        long millis;
+        long seq;
+        synchronized (OrderNumberGenerator.class) {
+            // Never step backwards if the wall clock does
+            millis = Math.max(System.currentTimeMillis(), lastMillis);
+            if (millis == lastMillis) {
+                sequence = (sequence + 1) & MAX_SEQUENCE;
+                if (sequence == 0) {
+                    // Sequence exhausted for this millisecond; borrow the next one
+                    millis = lastMillis + 1;
+                }
+            } else {
+                sequence = 0;
+            }
+            lastMillis = millis;
+            seq = sequence;
+        }
+
+        char[] chars = new char[PREFIX.length() + 16];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        encode(millis, chars, PREFIX.length(), 10);
+        encode((NODE << SEQUENCE_BITS) | seq, chars, PREFIX.length() + 10, 6);
+        return new String(chars);
+    }
+
+    private static void encode(long value, char[] chars, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+}
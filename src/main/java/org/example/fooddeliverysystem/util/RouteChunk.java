@@ -0,0 +1,164 @@
+package org.example.fooddeliverysystem.util;
+
+import java.util.Arrays;
+
+/**
+ * Open chunk of one driver's location pings, encoded as they arrive.
+ * Coordinates are fixed point (1e-6 degrees, about 11 cm). The first point is stored in full; every later one
+ * stores the change in its sampling interval (delta-of-delta) and the change in latitude and longitude, each as a
+ * zigzag varint. Pings at a steady rate from a moving vehicle take about 5 bytes each.
+ */
+public class RouteChunk {
+
+    public static final double COORDINATE_SCALE = 1_000_000d;
+
+    /**
+     * Receives decoded points in time order
+     */
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(long timestampMillis, int latitudeE6, int longitudeE6);
+    }
+
+    private byte[] buffer;
+    private int length;
+    private int count;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private long lastInterval;
+    private int lastLatitude;
+    private int lastLongitude;
+    private final long openedAtMillis;
+
+    public RouteChunk(int initialCapacity, long openedAtMillis) {
+        this.buffer = new byte[initialCapacity];
+        this.openedAtMillis = openedAtMillis;
+    }
+
+    /**
+     * Appends a ping; pings that are not newer than the last one are dropped and false is returned
+     */
+    public boolean append(long timestampMillis, int latitudeE6, int longitudeE6) {
+        if (count == 0) {
+            writeVarLong(timestampMillis);
+            writeVarLong(zigzag(latitudeE6));
+            writeVarLong(zigzag(longitudeE6));
+            firstTimestamp = timestampMillis;
+        } else {
+            if (timestampMillis <= lastTimestamp) {
+                return false;
+            }
+            long interval = timestampMillis - lastTimestamp;
+            writeVarLong(zigzag(interval - lastInterval));
+            writeVarLong(zigzag((long) latitudeE6 - lastLatitude));
+            writeVarLong(zigzag((long) longitudeE6 - lastLongitude));
+            lastInterval = interval;
+        }
+        lastTimestamp = timestampMillis;
+        lastLatitude = latitudeE6;
+        lastLongitude = longitudeE6;
+        count++;
+        return true;
+    }
+
+    /**
+     * Decodes an encoded payload, passing on the points between from and to (inclusive)
+     */
+    public static void decode(byte[] payload, int offset, int length, long from, long to, PointConsumer consumer) {
+        int end = offset + length;
+        int[] position = { offset };
+        long timestamp = readVarLong(payload, position);
+        long latitude = unzigzag(readVarLong(payload, position));
+        long longitude = unzigzag(readVarLong(payload, position));
+        long interval = 0;
+        while (true) {
+            if (timestamp > to) {
+                return;
+            }
+            if (timestamp >= from) {
+                consumer.accept(timestamp, (int) latitude, (int) longitude);
+            }
+            if (position[0] >= end) {
+                return;
+            }
+            interval += unzigzag(readVarLong(payload, position));
+            timestamp += interval;
+            latitude += unzigzag(readVarLong(payload, position));
+            longitude += unzigzag(readVarLong(payload, position));
+        }
+    }
+
+    public void decode(long from, long to, PointConsumer consumer) {
+        if (count > 0) {
+            decode(buffer, 0, length, from, to, consumer);
+        }
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int byteLength() {
+        return length;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public long getOpenedAtMillis() {
+        return openedAtMillis;
+    }
+
+    public static int toFixedPoint(double degrees) {
+        return (int) Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    public static double toDegrees(int fixedPoint) {
+        return fixedPoint / COORDINATE_SCALE;
+    }
+
+    private void writeVarLong(long value) {
+        if (length + 10 > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + 10));
+        }
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    // Small negative and positive deltas both encode to small unsigned values
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
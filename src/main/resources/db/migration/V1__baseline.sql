@@ -0,0 +1,108 @@
+-- Schema as previously created by ddl-auto=update. Existing databases are baselined at this version
+-- (spring.flyway.baseline-on-migrate), so this script only runs on empty databases.
+
+CREATE TABLE users (
+    id varchar(255) NOT NULL,
+    phone_no varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    name varchar(255),
+    address varchar(255),
+    role varchar(255) CHECK (role IN ('USER', 'RESTAURANT', 'DELIVERY_PARTNER', 'ADMIN')),
+    enabled boolean NOT NULL,
+    metadata jsonb,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_phone_no UNIQUE (phone_no),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE restaurants (
+    id varchar(255) NOT NULL,
+    user_id varchar(255) NOT NULL,
+    restaurant_name varchar(255) NOT NULL,
+    city varchar(255) NOT NULL,
+    state varchar(255) NOT NULL,
+    zip_code varchar(255) NOT NULL,
+    latitude float(53) NOT NULL,
+    longitude float(53) NOT NULL,
+    opening_time time(6),
+    closing_time time(6),
+    img_url varchar(255),
+    is_open boolean NOT NULL,
+    metadata jsonb,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    CONSTRAINT pk_restaurants PRIMARY KEY (id),
+    CONSTRAINT uk_restaurants_user UNIQUE (user_id),
+    CONSTRAINT fk_restaurants_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE drivers (
+    id varchar(255) NOT NULL,
+    user_id varchar(255) NOT NULL,
+    license_number varchar(255) NOT NULL,
+    vehicle_number varchar(255) NOT NULL,
+    on_leave boolean NOT NULL,
+    metadata jsonb,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    CONSTRAINT pk_drivers PRIMARY KEY (id),
+    CONSTRAINT uk_drivers_user UNIQUE (user_id),
+    CONSTRAINT fk_drivers_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE food_items (
+    id varchar(255) NOT NULL,
+    restaurant_id varchar(255) NOT NULL,
+    name varchar(255) NOT NULL,
+    description varchar(255),
+    img_url varchar(255),
+    price float(53) NOT NULL,
+    is_available boolean NOT NULL,
+    is_deleted boolean NOT NULL,
+    metadata jsonb,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    CONSTRAINT pk_food_items PRIMARY KEY (id),
+    CONSTRAINT fk_food_items_restaurant FOREIGN KEY (restaurant_id) REFERENCES restaurants (id)
+);
+
+CREATE TABLE orders (
+    id varchar(255) NOT NULL,
+    order_number varchar(255) NOT NULL,
+    user_id varchar(255) NOT NULL,
+    restaurant_id varchar(255) NOT NULL,
+    driver_id varchar(255),
+    items_json jsonb NOT NULL,
+    order_status varchar(255) NOT NULL CHECK (order_status IN
+        ('PENDING', 'CONFIRMED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY', 'DELIVERED', 'CANCELLED')),
+    address varchar(255) NOT NULL,
+    latitude float(53) NOT NULL,
+    longitude float(53) NOT NULL,
+    amount float(53) NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    delivered_at timestamp(6),
+    updated_at timestamp(6),
+    metadata jsonb,
+    CONSTRAINT pk_orders PRIMARY KEY (id),
+    CONSTRAINT uk_orders_order_number UNIQUE (order_number),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_orders_restaurant FOREIGN KEY (restaurant_id) REFERENCES restaurants (id),
+    CONSTRAINT fk_orders_driver FOREIGN KEY (driver_id) REFERENCES drivers (id)
+);
+
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at, id);
+CREATE INDEX idx_orders_restaurant_created ON orders (restaurant_id, created_at, id);
+CREATE INDEX idx_orders_driver_created ON orders (driver_id, created_at, id);
+
+CREATE TABLE outbox_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    topic varchar(255) NOT NULL,
+    aggregate_key varchar(255) NOT NULL,
+    event_type varchar(255) NOT NULL,
+    payload text NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT pk_outbox_events PRIMARY KEY (id)
+);
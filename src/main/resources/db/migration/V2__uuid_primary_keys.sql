@@ -0,0 +1,52 @@
+-- Convert the varchar UUID keys of users, restaurants, drivers, food_items and orders to native uuid
+-- (16 bytes per key and per foreign key instead of a 36-character string).
+--
+-- Existing ids keep their values; rows created afterwards get time-ordered UUIDv7 ids, so new keys
+-- append to the right edge of each index. Safe to re-run where the keys were already converted by hand.
+
+-- Databases created by ddl-auto have Hibernate-generated foreign key names, so look them up by target table
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN
+        SELECT conrelid::regclass AS table_name, conname
+        FROM pg_constraint
+        WHERE contype = 'f'
+          AND confrelid IN ('users'::regclass, 'restaurants'::regclass, 'drivers'::regclass,
+                            'food_items'::regclass, 'orders'::regclass)
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE users
+    ALTER COLUMN id TYPE uuid USING id::uuid;
+
+ALTER TABLE restaurants
+    ALTER COLUMN id TYPE uuid USING id::uuid,
+    ALTER COLUMN user_id TYPE uuid USING user_id::uuid;
+
+ALTER TABLE drivers
+    ALTER COLUMN id TYPE uuid USING id::uuid,
+    ALTER COLUMN user_id TYPE uuid USING user_id::uuid;
+
+ALTER TABLE food_items
+    ALTER COLUMN id TYPE uuid USING id::uuid,
+    ALTER COLUMN restaurant_id TYPE uuid USING restaurant_id::uuid;
+
+ALTER TABLE orders
+    ALTER COLUMN id TYPE uuid USING id::uuid,
+    ALTER COLUMN user_id TYPE uuid USING user_id::uuid,
+    ALTER COLUMN restaurant_id TYPE uuid USING restaurant_id::uuid,
+    ALTER COLUMN driver_id TYPE uuid USING driver_id::uuid;
+
+ALTER TABLE restaurants ADD CONSTRAINT fk_restaurants_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE drivers ADD CONSTRAINT fk_drivers_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE food_items ADD CONSTRAINT fk_food_items_restaurant FOREIGN KEY (restaurant_id) REFERENCES restaurants (id);
+ALTER TABLE orders ADD CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE orders ADD CONSTRAINT fk_orders_restaurant FOREIGN KEY (restaurant_id) REFERENCES restaurants (id);
+ALTER TABLE orders ADD CONSTRAINT fk_orders_driver FOREIGN KEY (driver_id) REFERENCES drivers (id);
+
+-- The type change rewrote every table and index; refresh planner statistics
+ANALYZE users, restaurants, drivers, food_items, orders;
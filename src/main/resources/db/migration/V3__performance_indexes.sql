@@ -0,0 +1,23 @@
+-- Indexes for the access paths the repositories use. Built CONCURRENTLY so writes to large tables are not
+-- blocked while they build; Flyway runs this migration outside a transaction for that reason.
+--
+-- orders(user_id) and orders(restaurant_id) lookups are served by the leading column of
+-- idx_orders_user_created and idx_orders_restaurant_created (V1), which also match the history sort order.
+
+-- Orders have no driver until dispatch, so only index the assigned ones
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_driver_assigned
+    ON orders (driver_id, created_at, id)
+    WHERE driver_id IS NOT NULL;
+DROP INDEX CONCURRENTLY IF EXISTS idx_orders_driver_created;
+
+-- Restaurants ranked by recent order volume (cache warm-up)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_created_restaurant
+    ON orders (created_at, restaurant_id);
+
+-- City listings, optionally narrowed by state and open flag
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_restaurants_city_state_open
+    ON restaurants (city, state, is_open);
+
+-- Menus per restaurant: all items, live items and the available subset
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_food_items_restaurant_menu
+    ON food_items (restaurant_id, is_deleted, is_available);
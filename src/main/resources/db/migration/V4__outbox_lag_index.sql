@@ -0,0 +1,5 @@
+-- The relay reports lag from the oldest outbox row every few hundred milliseconds. Published rows are deleted,
+-- so every row is unpublished and a plain index serves MIN(created_at) without scanning a backlog.
+-- Built CONCURRENTLY so event writes are not blocked; Flyway runs this migration outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_outbox_events_created_at
+    ON outbox_events (created_at);
@@ -0,0 +1,10 @@
+-- Names the instance currently relaying the outbox. Taken and renewed in short transactions, unlike the
+-- advisory lock it replaces, which kept a transaction open while the relay waited for Kafka acks.
+CREATE TABLE outbox_relay_lease (
+    id smallint NOT NULL,
+    owner varchar(64),
+    expires_at timestamptz NOT NULL,
+    CONSTRAINT pk_outbox_relay_lease PRIMARY KEY (id)
+);
+
+INSERT INTO outbox_relay_lease (id, owner, expires_at) VALUES (1, NULL, now());
@@ -0,0 +1,6 @@
+-- The dispatch sweeper looks for READY orders that still have no driver some time after they became ready.
+-- Only a handful of orders are in that state at any moment, so a partial index keeps the lookup tiny.
+-- Built CONCURRENTLY so order writes are not blocked; Flyway runs this migration outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_awaiting_dispatch
+    ON orders (updated_at)
+    WHERE order_status = 'READY' AND driver_id IS NULL;
@@ -0,0 +1,24 @@
+-- A row whose send fails is retried after a growing delay instead of on every relay pass. next_attempt_at is
+-- NULL until the first failure, so the partial index only holds rows that are backing off; the relay uses it
+-- to hold back later events for the same key until the failing one goes through.
+ALTER TABLE outbox_events
+    ADD COLUMN attempts integer NOT NULL DEFAULT 0,
+    ADD COLUMN next_attempt_at timestamp(6);
+
+CREATE INDEX idx_outbox_events_backing_off
+    ON outbox_events (topic, aggregate_key, id)
+    WHERE next_attempt_at IS NOT NULL;
+
+-- Events Kafka rejected max-attempts times with a non-retriable error. Kept for inspection and manual replay.
+CREATE TABLE outbox_dead_letters (
+    id bigint NOT NULL,
+    topic varchar(255) NOT NULL,
+    aggregate_key varchar(255) NOT NULL,
+    event_type varchar(255) NOT NULL,
+    payload text NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    attempts integer NOT NULL,
+    last_error text,
+    dead_lettered_at timestamp(6) NOT NULL,
+    CONSTRAINT pk_outbox_dead_letters PRIMARY KEY (id)
+);
@@ -0,0 +1,152 @@
+package org.example.fooddeliverysystem.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.fooddeliverysystem.dto.fooditem.FoodItemResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Compares the compact codec with the polymorphic JSON serializer for a 200-item menu.
+ * Sizes are asserted on every build; timings only relative to JSON, and only in the benchmark task.
+ */
+class CompactRedisSerializerBenchmarkTest {
+
+	private static final int MENU_SIZE = 200;
+	private static final int WARMUP_ITERATIONS = 2_000;
+	private static final int MEASURED_ITERATIONS = 5_000;
+
+	@Test
+	void compactMenuIsSmallerThanJsonAndRoundTrips() {
+		GenericJackson2JsonRedisSerializer json = jsonSerializer();
+		CompactRedisSerializer compact = new CompactRedisSerializer(json,
+				List.of(new RestaurantResponseCodec(), new MenuCodec()), true, Integer.MAX_VALUE);
+		CompactRedisSerializer compressed = new CompactRedisSerializer(json,
+				List.of(new RestaurantResponseCodec(), new MenuCodec()), true, 1024);
+		List<FoodItemResponse> menu = menu();
+
+		byte[] jsonBytes = json.serialize(menu);
+		byte[] compactBytes = compact.serialize(menu);
+		byte[] compressedBytes = compressed.serialize(menu);
+
+		assertTrue(compactBytes.length < jsonBytes.length / 2,
+				"compact payload is " + compactBytes.length + " bytes, JSON " + jsonBytes.length);
+		assertTrue(compressedBytes.length < compactBytes.length,
+				"compressed payload is " + compressedBytes.length + " bytes, uncompressed " + compactBytes.length);
+		assertMenuEquals(menu, compact.deserialize(compactBytes));
+		assertMenuEquals(menu, compressed.deserialize(compressedBytes));
+	}
+
+	@Test
+	void readsLegacyJsonEntries() {
+		GenericJackson2JsonRedisSerializer json = jsonSerializer();
+		CompactRedisSerializer compact = new CompactRedisSerializer(json,
+				List.of(new RestaurantResponseCodec(), new MenuCodec()), true, 1024);
+		List<FoodItemResponse> menu = menu();
+
+		assertMenuEquals(menu, compact.deserialize(json.serialize(menu)));
+	}
+
+	@Test
+	@Tag("benchmark")
+	void compactCodecIsFasterThanJson() {
+		GenericJackson2JsonRedisSerializer json = jsonSerializer();
+		CompactRedisSerializer compact = new CompactRedisSerializer(json,
+				List.of(new RestaurantResponseCodec(), new MenuCodec()), true, Integer.MAX_VALUE);
+		List<FoodItemResponse> menu = menu();
+
+		long[] jsonNanos = measure(json, menu);
+		long[] compactNanos = measure(compact, menu);
+
+		assertTrue(compactNanos[0] < jsonNanos[0],
+				"compact encode took " + compactNanos[0] + " ns, JSON " + jsonNanos[0] + " ns");
+		assertTrue(compactNanos[1] < jsonNanos[1],
+				"compact decode took " + compactNanos[1] + " ns, JSON " + jsonNanos[1] + " ns");
+	}
+
+	// { mean encode nanos, mean decode nanos }
+	private static long[] measure(RedisSerializer<Object> serializer, List<FoodItemResponse> menu) {
+		byte[] bytes = serializer.serialize(menu);
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			serializer.deserialize(serializer.serialize(menu));
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			serializer.serialize(menu);
+		}
+		long encodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			serializer.deserialize(bytes);
+		}
+		long decodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+		return new long[] { encodeNanos, decodeNanos };
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void assertMenuEquals(List<FoodItemResponse> expected, Object actual) {
+		List<FoodItemResponse> items = (List<FoodItemResponse>) actual;
+		assertEquals(expected.size(), items.size());
+		for (int i = 0; i < expected.size(); i++) {
+			FoodItemResponse e = expected.get(i);
+			FoodItemResponse a = items.get(i);
+			assertEquals(e.getId(), a.getId());
+			assertEquals(e.getRestaurantId(), a.getRestaurantId());
+			assertEquals(e.getName(), a.getName());
+			assertEquals(e.getDescription(), a.getDescription());
+			assertEquals(e.getImgUrl(), a.getImgUrl());
+			assertEquals(e.getPrice(), a.getPrice());
+			assertEquals(e.isAvailable(), a.isAvailable());
+			assertEquals(e.isDeleted(), a.isDeleted());
+			assertEquals(e.getMetadata(), a.getMetadata());
+			assertEquals(e.getCreatedAt(), a.getCreatedAt());
+			assertEquals(e.getUpdatedAt(), a.getUpdatedAt());
+		}
+	}
+
+	// Same configuration as RedisConfig
+	private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModule(new JavaTimeModule());
+		objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		objectMapper.activateDefaultTyping(
+				objectMapper.getPolymorphicTypeValidator(),
+				ObjectMapper.DefaultTyping.NON_FINAL);
+		return new GenericJackson2JsonRedisSerializer(objectMapper);
+	}
+
+	private static List<FoodItemResponse> menu() {
+		String restaurantId = "5f0c3c1e-8a7b-4d2e-9c61-3b8f2a4d7e10";
+		LocalDateTime created = LocalDateTime.of(2025, 3, 14, 11, 30, 15, 123_000_000);
+		List<FoodItemResponse> menu = new ArrayList<>(MENU_SIZE);
+		for (int i = 0; i < MENU_SIZE; i++) {
+			FoodItemResponse item = new FoodItemResponse();
+			item.setId(String.format("9a1d%04d-2b3c-4d5e-8f90-a1b2c3d4e5f6", i));
+			item.setRestaurantId(restaurantId);
+			item.setName("Dish " + i);
+			item.setDescription("House special number " + i + " with seasonal vegetables and a choice of sauce");
+			item.setImgUrl("https://cdn.example.com/menu/" + restaurantId + "/" + i + ".jpg");
+			item.setPrice(4.5 + (i % 40) * 0.75);
+			item.setAvailable(i % 7 != 0);
+			item.setDeleted(false);
+			item.setMetadata(i % 3 == 0 ? "{\"spicy\":true,\"vegetarian\":false}" : null);
+			item.setCreatedAt(created.plusMinutes(i));
+			item.setUpdatedAt(created.plusDays(1).plusMinutes(i));
+			menu.add(item);
+		}
+		return menu;
+	}
+}
@@ -0,0 +1,94 @@
+package org.example.fooddeliverysystem.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.example.fooddeliverysystem.dto.restaurant.RestaurantListResponse;
+import org.example.fooddeliverysystem.dto.restaurant.RestaurantResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RestaurantPageCodecTest {
+
+	private final CompactRedisSerializer serializer = new CompactRedisSerializer(
+			new GenericJackson2JsonRedisSerializer(new ObjectMapper()),
+			List.of(new RestaurantResponseCodec(), new RestaurantPageCodec()), true, Integer.MAX_VALUE);
+
+	@Test
+	void pageRoundTrips() {
+		RestaurantListResponse page = new RestaurantListResponse(
+				List.of(restaurant(0, "{\"cuisine\":\"thai\"}"), restaurant(1, null)), 42, 3, 2, true);
+
+		RestaurantListResponse decoded = (RestaurantListResponse) serializer.deserialize(serializer.serialize(page));
+
+		assertEquals(42, decoded.getTotal());
+		assertEquals(3, decoded.getPage());
+		assertEquals(2, decoded.getSize());
+		assertTrue(decoded.isHasNext());
+		assertRestaurantsEqual(page.getRestaurants(), decoded.getRestaurants());
+	}
+
+	@Test
+	void emptySliceKeepsUnknownTotal() {
+		RestaurantListResponse slice = new RestaurantListResponse(List.of(), -1, 0, 20, false);
+
+		RestaurantListResponse decoded = (RestaurantListResponse) serializer.deserialize(serializer.serialize(slice));
+
+		assertEquals(-1, decoded.getTotal());
+		assertEquals(0, decoded.getPage());
+		assertEquals(20, decoded.getSize());
+		assertFalse(decoded.isHasNext());
+		assertTrue(decoded.getRestaurants().isEmpty());
+	}
+
+	private static void assertRestaurantsEqual(List<RestaurantResponse> expected, List<RestaurantResponse> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			RestaurantResponse e = expected.get(i);
+			RestaurantResponse a = actual.get(i);
+			assertEquals(e.getId(), a.getId());
+			assertEquals(e.getUserId(), a.getUserId());
+			assertEquals(e.getRestaurantName(), a.getRestaurantName());
+			assertEquals(e.getCity(), a.getCity());
+			assertEquals(e.getState(), a.getState());
+			assertEquals(e.getZipCode(), a.getZipCode());
+			assertEquals(e.getLatitude(), a.getLatitude());
+			assertEquals(e.getLongitude(), a.getLongitude());
+			assertEquals(e.getOpeningTime(), a.getOpeningTime());
+			assertEquals(e.getClosingTime(), a.getClosingTime());
+			assertEquals(e.getImgUrl(), a.getImgUrl());
+			assertEquals(e.isOpen(), a.isOpen());
+			assertEquals(e.getMetadata(), a.getMetadata());
+			assertEquals(e.getCreatedAt(), a.getCreatedAt());
+			assertEquals(e.getUpdatedAt(), a.getUpdatedAt());
+		}
+	}
+
+	private static RestaurantResponse restaurant(int i, String metadata) {
+		LocalDateTime created = LocalDateTime.of(2025, 3, 14, 11, 30, 15, 123_000_000);
+		RestaurantResponse restaurant = new RestaurantResponse();
+		restaurant.setId(String.format("5f0c%04d-8a7b-4d2e-9c61-3b8f2a4d7e10", i));
+		restaurant.setUserId(String.format("7b2e%04d-1c3d-4e5f-8a9b-0c1d2e3f4a5b", i));
+		restaurant.setRestaurantName("Restaurant " + i);
+		restaurant.setCity("Pune");
+		restaurant.setState("MH");
+		restaurant.setZipCode("41100" + i);
+		restaurant.setLatitude(18.5204 + i / 1000.0);
+		restaurant.setLongitude(73.8567 - i / 1000.0);
+		restaurant.setOpeningTime(LocalTime.of(9, 30));
+		restaurant.setClosingTime(LocalTime.of(23, 0));
+		restaurant.setImgUrl("https://cdn.example.com/restaurants/" + i + ".jpg");
+		restaurant.setOpen(i % 2 == 0);
+		restaurant.setMetadata(metadata);
+		restaurant.setCreatedAt(created.plusMinutes(i));
+		restaurant.setUpdatedAt(created.plusDays(1).plusMinutes(i));
+		return restaurant;
+	}
+}
@@ -0,0 +1,119 @@
+package org.example.fooddeliverysystem.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.example.fooddeliverysystem.enums.Role;
+import org.example.fooddeliverysystem.model.User;
+import org.example.fooddeliverysystem.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Runs a read-only transaction and then a write in one request, with the request's EntityManager held open
+ * across both as open-in-view would. Both pools point at the same database, but the replica pool is
+ * read-only, so a write routed to it fails.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ DataSourceConfig.class, JpaAuditingConfig.class, ReplicaRoutingTest.Metrics.class })
+class ReplicaRoutingTest {
+
+	@Container
+	static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+	@DynamicPropertySource
+	static void datasources(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+		registry.add("datasource.replica.url", postgres::getJdbcUrl);
+		registry.add("datasource.replica.username", postgres::getUsername);
+		registry.add("datasource.replica.password", postgres::getPassword);
+	}
+
+	@TestConfiguration
+	static class Metrics {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private ReplicaLagMonitor replicaLagMonitor;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@BeforeEach
+	void replicaIsUsable() {
+		replicaLagMonitor.check();
+		assertTrue(replicaLagMonitor.isReplicaUsable());
+	}
+
+	@Test
+	void writeAfterReadOnlyCallInSameRequestGoesToPrimary() {
+		TransactionTemplate read = new TransactionTemplate(transactionManager);
+		read.setReadOnly(true);
+		TransactionTemplate write = new TransactionTemplate(transactionManager);
+
+		EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+		try {
+			assertEquals("on", read.execute(status -> transactionReadOnly()));
+
+			String userId = write.execute(status -> {
+				assertEquals("off", transactionReadOnly());
+				User user = userRepository.saveAndFlush(new User("+919800000001", "routing@example.com",
+						"not-a-hash", "routing", "Address", Role.RESTAURANT));
+				return user.getId();
+			});
+
+			assertTrue(read.execute(status -> userRepository.existsById(userId)));
+		} finally {
+			TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+			requestEntityManager.close();
+		}
+	}
+
+	private String transactionReadOnly() {
+		return (String) entityManager.createNativeQuery("SELECT current_setting('transaction_read_only')")
+				.getSingleResult();
+	}
+}
@@ -0,0 +1,197 @@
+package org.example.fooddeliverysystem.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.example.fooddeliverysystem.model.Driver;
+import org.example.fooddeliverysystem.model.Order;
+import org.example.fooddeliverysystem.model.Restaurant;
+import org.example.fooddeliverysystem.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Runs the repository queries against the migrated schema and a seeded dataset (db/seed) and checks
+ * Postgres' own scan counters: the expected index is scanned and the table is never read sequentially.
+ * A single pooled connection keeps every query on one backend, whose statistics are flushed on demand.
+ */
+@DataJpaTest(properties = {
+		"spring.flyway.locations=classpath:db/migration,classpath:db/seed",
+		"spring.datasource.hikari.maximum-pool-size=1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepositoryIndexUsageTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private RestaurantRepository restaurantRepository;
+
+	@Autowired
+	private FoodItemRepository foodItemRepository;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void orderLookupsUseIndexes() {
+		String orderNumber = fixture("SELECT order_number FROM orders LIMIT 1");
+		String orderId = fixture("SELECT id::text FROM orders LIMIT 1");
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+		assertUsesIndex("orders", "uk_orders_order_number",
+				() -> orderRepository.findByOrderNumber(orderNumber));
+		assertUsesIndex("orders", "pk_orders",
+				() -> transaction.executeWithoutResult(status -> orderRepository.findByIdForUpdate(orderId)));
+	}
+
+	@Test
+	void orderHistoryUsesOwnerIndexes() {
+		User user = userRepository.getReferenceById(fixture("SELECT id::text FROM users WHERE role = 'USER' LIMIT 1"));
+		Restaurant restaurant = restaurantRepository.getReferenceById(fixture("SELECT id::text FROM restaurants LIMIT 1"));
+		Driver driver = driverRepository.getReferenceById(fixture("SELECT id::text FROM drivers LIMIT 1"));
+		LocalDateTime to = LocalDateTime.now();
+		LocalDateTime from = to.minusDays(30);
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+		assertUsesIndex("orders", "idx_orders_user_created", () -> history("user", user));
+		assertUsesIndex("orders", "idx_orders_restaurant_created", () -> history("restaurant", restaurant));
+		assertUsesIndex("orders", "idx_orders_driver_assigned", () -> history("driver", driver));
+		assertUsesIndex("orders", "idx_orders_restaurant_created",
+				() -> transaction.executeWithoutResult(status -> {
+					try (var orders = orderRepository.streamByRestaurant(restaurant, null, from, to)) {
+						orders.forEach(order -> { });
+					}
+				}));
+	}
+
+	@Test
+	void recentOrderVolumeUsesCreatedAtIndex() {
+		assertUsesIndex("orders", "idx_orders_created_restaurant",
+				() -> orderRepository.findTopRestaurantIdsByOrderVolume(LocalDateTime.now().minusHours(1),
+						PageRequest.of(0, 10)));
+	}
+
+	@Test
+	void dispatchSweepUsesAwaitingDispatchIndex() {
+		assertUsesIndex("orders", "idx_orders_awaiting_dispatch",
+				() -> orderRepository.findIdsAwaitingDispatchSince(LocalDateTime.now().minusMinutes(2),
+						PageRequest.of(0, 500)));
+	}
+
+	@Test
+	void restaurantListingsUseCityIndex() {
+		String city = "City 42";
+		String state = "State 4";
+
+		assertUsesIndex("restaurants", "idx_restaurants_city_state_open", () -> restaurantRepository.findByCity(city));
+		assertUsesIndex("restaurants", "idx_restaurants_city_state_open",
+				() -> restaurantRepository.findByCityAndState(city, state));
+		assertUsesIndex("restaurants", "idx_restaurants_city_state_open",
+				() -> restaurantRepository.findByCityAndIsOpenTrue(city));
+		assertUsesIndex("restaurants", "idx_restaurants_city_state_open",
+				() -> restaurantRepository.findByCityAndStateAndIsOpenTrue(city, state));
+		assertUsesIndex("restaurants", "idx_restaurants_city_state_open",
+				() -> restaurantRepository.findByCity(city, PageRequest.of(0, 20)));
+		assertUsesIndex("restaurants", "idx_restaurants_city_state_open",
+				() -> restaurantRepository.findByCityAndState(city, state, PageRequest.of(0, 20)));
+	}
+
+	@Test
+	void ownerLookupsUseUniqueIndexes() {
+		String restaurantOwnerId = fixture("SELECT user_id::text FROM restaurants LIMIT 1");
+		String driverUserId = fixture("SELECT user_id::text FROM drivers LIMIT 1");
+
+		assertUsesIndex("restaurants", "uk_restaurants_user", () -> restaurantRepository.findByUserId(restaurantOwnerId));
+		assertUsesIndex("drivers", "uk_drivers_user", () -> driverRepository.findByUserId(driverUserId));
+		assertUsesIndex("users", "uk_users_email", () -> userRepository.findByEmail("user42@example.com"));
+		assertUsesIndex("users", "uk_users_phone_no", () -> userRepository.findByPhoneNo("+10000000042"));
+		assertUsesIndex("users", "uk_users_email",
+				() -> userRepository.findByEmailOrPhoneNo("user42@example.com", "+10000000042"));
+	}
+
+	@Test
+	void menusUseRestaurantMenuIndex() {
+		List<String> restaurantIds = jdbcTemplate.queryForList("SELECT id::text FROM restaurants LIMIT 3", String.class);
+		Restaurant restaurant = restaurantRepository.getReferenceById(restaurantIds.get(0));
+
+		assertUsesIndex("food_items", "idx_food_items_restaurant_menu",
+				() -> foodItemRepository.findByRestaurant(restaurant));
+		assertUsesIndex("food_items", "idx_food_items_restaurant_menu",
+				() -> foodItemRepository.findByRestaurantAndIsDeletedFalse(restaurant));
+		assertUsesIndex("food_items", "idx_food_items_restaurant_menu",
+				() -> foodItemRepository.findByRestaurantAndIsAvailableTrueAndIsDeletedFalse(restaurant));
+		assertUsesIndex("food_items", "idx_food_items_restaurant_menu",
+				() -> foodItemRepository.findMenusByRestaurantIds(restaurantIds));
+	}
+
+	private List<Order> history(String ownerAttribute, Object owner) {
+		Sort sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+		return orderRepository.findBy(
+				OrderSpecifications.history(ownerAttribute, owner, null, null, null, null),
+				query -> query.sortBy(sort).limit(21).all());
+	}
+
+	private void assertUsesIndex(String table, String index, Runnable query) {
+		flushStatistics();
+		long seqScans = seqScans(table);
+		long indexScans = indexScans(index);
+
+		query.run();
+		flushStatistics();
+
+		assertEquals(seqScans, seqScans(table), "sequential scan on " + table);
+		assertTrue(indexScans(index) > indexScans, index + " was not used");
+	}
+
+	private String fixture(String sql) {
+		return jdbcTemplate.queryForObject(sql, String.class);
+	}
+
+	// Pending counters are flushed when the backend goes idle after this statement, before the next one runs
+	private void flushStatistics() {
+		jdbcTemplate.execute("SELECT pg_stat_force_next_flush()");
+	}
+
+	private long seqScans(String table) {
+		return jdbcTemplate.queryForObject(
+				"SELECT seq_scan FROM pg_stat_user_tables WHERE relname = ?", Long.class, table);
+	}
+
+	private long indexScans(String index) {
+		return jdbcTemplate.queryForObject(
+				"SELECT idx_scan FROM pg_stat_user_indexes WHERE indexrelname = ?", Long.class, index);
+	}
+}
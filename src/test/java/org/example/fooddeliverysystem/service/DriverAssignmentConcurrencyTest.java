@@ -0,0 +1,199 @@
+package org.example.fooddeliverysystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.example.fooddeliverysystem.config.JpaAuditingConfig;
+import org.example.fooddeliverysystem.enums.OrderStatus;
+import org.example.fooddeliverysystem.enums.Role;
+import org.example.fooddeliverysystem.exception.BusinessException;
+import org.example.fooddeliverysystem.model.Driver;
+import org.example.fooddeliverysystem.model.Order;
+import org.example.fooddeliverysystem.model.Restaurant;
+import org.example.fooddeliverysystem.model.User;
+import org.example.fooddeliverysystem.repository.DriverRepository;
+import org.example.fooddeliverysystem.repository.OrderRepository;
+import org.example.fooddeliverysystem.repository.RestaurantRepository;
+import org.example.fooddeliverysystem.repository.UserRepository;
+import org.example.fooddeliverysystem.util.OrderNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Many dispatchers race to give one driver different orders. The driver claim and load live in a real Redis
+ * and the order rows in a real Postgres, so only the committed outcome counts.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ JpaAuditingConfig.class, OrderService.class, DriverLocationService.class, CacheService.class,
+		DriverAssignmentConcurrencyTest.Redis.class })
+class DriverAssignmentConcurrencyTest {
+
+	private static final int ORDERS = 8;
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+	@Container
+	static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+	@TestConfiguration
+	static class Redis {
+
+		@Bean
+		LettuceConnectionFactory redisConnectionFactory() {
+			return new LettuceConnectionFactory(new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+		}
+
+		@Bean
+		StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+			return new StringRedisTemplate(connectionFactory);
+		}
+
+		@Bean
+		RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+			RedisTemplate<String, Object> template = new RedisTemplate<>();
+			template.setConnectionFactory(connectionFactory);
+			// Only key commands such as EXPIRE go through this template here
+			template.setKeySerializer(new StringRedisSerializer());
+			return template;
+		}
+	}
+
+	@MockitoBean
+	private NearCache nearCache;
+
+	@MockitoBean
+	private MetricsService metricsService;
+
+	@MockitoBean
+	private KafkaEventProducer kafkaEventProducer;
+
+	@MockitoBean
+	private DispatchQueueService dispatchQueueService;
+
+	@MockitoBean
+	private OrderTrackingService orderTrackingService;
+
+	@MockitoBean
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private DriverLocationService driverLocationService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RestaurantRepository restaurantRepository;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	private String driverId;
+	private final List<String> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		when(metricsService.recordRedisLatency(anyString(), any()))
+				.thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+		when(metricsService.recordServiceLatency(anyString(), any()))
+				.thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+		User owner = userRepository.save(user("owner", Role.RESTAURANT));
+		Restaurant restaurant = restaurantRepository.save(
+				new Restaurant(owner, "Restaurant", "Pune", "MH", "411001", 18.5, 73.8));
+		User driverUser = userRepository.save(user("driver", Role.DELIVERY_PARTNER));
+		driverId = driverRepository.save(new Driver(driverUser, "DL-1", "MH-12-1")).getId();
+		driverLocationService.setDriverAvailability(driverId, true);
+
+		for (int i = 0; i < ORDERS; i++) {
+			User customer = userRepository.save(user("customer" + i, Role.USER));
+			orderIds.add(orderRepository.save(new Order(OrderNumberGenerator.next(), customer, restaurant, "[]",
+					OrderStatus.READY, "Address", 18.5, 73.8, 250.0)).getId());
+		}
+	}
+
+	@Test
+	void concurrentAssignmentsNeverShareADriver() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(ORDERS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> attempts = new ArrayList<>();
+		try {
+			for (String orderId : orderIds) {
+				attempts.add(executor.submit(() -> {
+					start.await();
+					try {
+						orderService.assignDriver(orderId, driverId);
+						return true;
+					} catch (BusinessException e) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+
+			int assigned = 0;
+			for (Future<Boolean> attempt : attempts) {
+				if (attempt.get(30, TimeUnit.SECONDS)) {
+					assigned++;
+				}
+			}
+			assertEquals(1, assigned, "a driver at max load 1 takes exactly one order");
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long withDriver = orderRepository.findAllById(orderIds).stream()
+				.filter(order -> order.getDriver() != null)
+				.count();
+		assertEquals(1, withDriver, "only one committed order may carry the driver");
+		assertEquals(1, driverLocationService.getDriverLoad(driverId));
+	}
+
+	private static User user(String name, Role role) {
+		return new User("+91" + Math.abs(name.hashCode()), name + "@example.com", "not-a-hash", name, "Address", role);
+	}
+}
@@ -0,0 +1,187 @@
+package org.example.fooddeliverysystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.example.fooddeliverysystem.config.JpaAuditingConfig;
+import org.example.fooddeliverysystem.enums.OrderStatus;
+import org.example.fooddeliverysystem.enums.Role;
+import org.example.fooddeliverysystem.model.Driver;
+import org.example.fooddeliverysystem.model.FoodItem;
+import org.example.fooddeliverysystem.model.Order;
+import org.example.fooddeliverysystem.model.Restaurant;
+import org.example.fooddeliverysystem.model.User;
+import org.example.fooddeliverysystem.util.OrderNumberGenerator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the SQL statements behind each list endpoint. Every row references a different user, restaurant
+ * or driver, so any association loaded per row shows up as extra statements.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({ JpaAuditingConfig.class, OrderService.class, RestaurantService.class, FoodItemService.class })
+class ListEndpointStatementCountTest {
+
+	private static final int ROWS = 5;
+	private static final String CITY = "Pune";
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+	@MockitoBean
+	private DriverLocationService driverLocationService;
+
+	@MockitoBean
+	private MetricsService metricsService;
+
+	@MockitoBean
+	private KafkaEventProducer kafkaEventProducer;
+
+	@MockitoBean
+	private DispatchQueueService dispatchQueueService;
+
+	@MockitoBean
+	private OrderTrackingService orderTrackingService;
+
+	@MockitoBean
+	private MenuSearchService menuSearchService;
+
+	@MockitoBean
+	private CacheService cacheService;
+
+	@MockitoBean
+	private CacheAsideLoader cacheAsideLoader;
+
+	@MockitoBean
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private FoodItemService foodItemService;
+
+	private String customerId;
+	private String restaurantOwnerId;
+	private String driverUserId;
+	private final List<String> restaurantIds = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		// Every cache lookup misses
+		when(cacheAsideLoader.get(anyString(), anyLong(), any()))
+				.thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+
+		User customer = entityManager.persist(user("customer", Role.USER));
+		customerId = customer.getId();
+
+		List<Restaurant> restaurants = new ArrayList<>();
+		List<Driver> drivers = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			User owner = entityManager.persist(user("owner" + i, Role.RESTAURANT));
+			Restaurant restaurant = entityManager.persist(
+					new Restaurant(owner, "Restaurant " + i, CITY, "MH", "41100" + i, 18.5, 73.8));
+			restaurants.add(restaurant);
+			restaurantIds.add(restaurant.getId());
+			entityManager.persist(new FoodItem(restaurant, "Item " + i, 120.0));
+
+			User driverUser = entityManager.persist(user("driver" + i, Role.DELIVERY_PARTNER));
+			drivers.add(entityManager.persist(new Driver(driverUser, "DL-" + i, "MH-12-" + i)));
+		}
+		restaurantOwnerId = restaurants.get(0).getUser().getId();
+		driverUserId = drivers.get(0).getUser().getId();
+
+		for (int i = 0; i < ROWS; i++) {
+			// The customer orders from every restaurant; the first restaurant and driver see every customer
+			entityManager.persist(order(customer, restaurants.get(i), drivers.get(i)));
+			User other = entityManager.persist(user("other" + i, Role.USER));
+			entityManager.persist(order(other, restaurants.get(0), drivers.get(0)));
+		}
+
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void orderHistoryIssuesOneSelectPerPage() {
+		assertStatements(1, () -> orderService.findByUser(customerId, null, null, null, null, 20));
+	}
+
+	@Test
+	void ownerOrderHistoryResolvesOwnerThenSelectsPage() {
+		assertStatements(2, () -> orderService.findByRestaurantOwner(restaurantOwnerId, null, null, null, null, 20));
+		assertStatements(2, () -> orderService.findByDriverUser(driverUserId, null, null, null, null, 20));
+	}
+
+	@Test
+	void restaurantListingsDoNotLoadOwners() {
+		assertStatements(1, () -> restaurantService.findByCity(CITY));
+		assertStatements(1, () -> restaurantService.findByCityAndIsOpen(CITY));
+		// Page query plus count query
+		assertStatements(2, () -> restaurantService.findByCityWithPagination(CITY, 0, 2));
+		// Slices read one extra row instead of counting
+		assertStatements(1, () -> restaurantService.findByCityWithSlice(CITY, 0, 2));
+	}
+
+	@Test
+	void menusDoNotLoadRestaurants() {
+		assertStatements(1, () -> foodItemService.findMenusByRestaurantIds(restaurantIds));
+	}
+
+	private void assertStatements(long expected, Supplier<?> endpoint) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.clear();
+		statistics.clear();
+
+		endpoint.get();
+
+		assertEquals(expected, statistics.getPrepareStatementCount());
+	}
+
+	private static User user(String name, Role role) {
+		return new User("+91" + Math.abs(name.hashCode()), name + "@example.com", "not-a-hash", name, "Address", role);
+	}
+
+	private static Order order(User user, Restaurant restaurant, Driver driver) {
+		Order order = new Order(OrderNumberGenerator.next(), user, restaurant, "[]", OrderStatus.DELIVERED,
+				"Address", 18.5, 73.8, 250.0);
+		order.setDriver(driver);
+		return order;
+	}
+}
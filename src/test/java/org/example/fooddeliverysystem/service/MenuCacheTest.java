@@ -0,0 +1,131 @@
+package org.example.fooddeliverysystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.example.fooddeliverysystem.dto.fooditem.FoodItemRequest;
+import org.example.fooddeliverysystem.enums.Role;
+import org.example.fooddeliverysystem.model.FoodItem;
+import org.example.fooddeliverysystem.model.Restaurant;
+import org.example.fooddeliverysystem.model.User;
+import org.example.fooddeliverysystem.repository.FoodItemRepository;
+import org.example.fooddeliverysystem.repository.RestaurantRepository;
+import org.example.fooddeliverysystem.util.CacheKeys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Menu writes evict the cached menu only after commit, and menus reloaded right after a write read the primary.
+ */
+class MenuCacheTest {
+
+	private static final long WRITE_WINDOW_MILLIS = 2_000;
+
+	private final FoodItemRepository foodItemRepository = mock(FoodItemRepository.class);
+	private final CacheService cacheService = mock(CacheService.class);
+	private final CacheAsideLoader cacheAsideLoader = mock(CacheAsideLoader.class);
+	private final MetricsService metricsService = mock(MetricsService.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private FoodItemService foodItemService;
+
+	@BeforeEach
+	void setUp() {
+		foodItemService = new FoodItemService(foodItemRepository, mock(RestaurantRepository.class), cacheService,
+				cacheAsideLoader, metricsService, mock(KafkaEventProducer.class),
+				mock(MenuSearchService.class), transactionManager);
+		ReflectionTestUtils.setField(foodItemService, "menuPrimaryWindowMillis", WRITE_WINDOW_MILLIS);
+
+		when(metricsService.recordServiceLatency(anyString(), any()))
+				.thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+		// Every cache lookup misses
+		when(cacheAsideLoader.get(anyString(), anyLong(), any()))
+				.thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(foodItemRepository.findMenusByRestaurantIds(List.of("r1"))).thenReturn(List.of(foodItem()));
+	}
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void updateEvictsMenuOnlyAfterCommit() {
+		FoodItem foodItem = foodItem();
+		when(foodItemRepository.findById("f1")).thenReturn(Optional.of(foodItem));
+		when(foodItemRepository.save(foodItem)).thenReturn(foodItem);
+		FoodItemRequest request = new FoodItemRequest();
+		request.setName("Renamed");
+		request.setPrice(150.0);
+
+		TransactionSynchronizationManager.initSynchronization();
+		foodItemService.update("f1", request);
+
+		verify(cacheService, never()).delete(anyString());
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCommit();
+		}
+
+		InOrder order = inOrder(cacheService);
+		// The primary-read marker is set before the menu is evicted
+		order.verify(cacheService).setStringWithExpiry(CacheKeys.restaurantMenuWriteKey("r1"), "1",
+				WRITE_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+		order.verify(cacheService).delete(CacheKeys.restaurantMenuKey("r1"));
+	}
+
+	@Test
+	void settledMenuLoadsFromReplica() {
+		assertEquals(1, foodItemService.findByRestaurantId("r1").size());
+
+		assertTrue(loadTransaction().isReadOnly(), "settled menus load from the replica");
+	}
+
+	@Test
+	void menuLoadsFromPrimaryRightAfterWrite() {
+		when(cacheService.existsString(CacheKeys.restaurantMenuWriteKey("r1"))).thenReturn(true);
+
+		foodItemService.findByRestaurantId("r1");
+
+		assertFalse(loadTransaction().isReadOnly(), "a lagging replica must not be cached as the new menu");
+	}
+
+	private TransactionDefinition loadTransaction() {
+		ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+		verify(transactionManager).getTransaction(definition.capture());
+		return definition.getValue();
+	}
+
+	private static FoodItem foodItem() {
+		User owner = new User("+910000000000", "owner@example.com", "not-a-hash", "Owner", "Address", Role.RESTAURANT);
+		Restaurant restaurant = new Restaurant(owner, "Restaurant", "Pune", "MH", "411001", 18.5, 73.8);
+		restaurant.setId("r1");
+		FoodItem foodItem = new FoodItem(restaurant, "Item", 120.0);
+		foodItem.setId("f1");
+		return foodItem;
+	}
+}
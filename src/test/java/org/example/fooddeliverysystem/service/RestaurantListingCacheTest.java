@@ -0,0 +1,128 @@
+package org.example.fooddeliverysystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.example.fooddeliverysystem.dto.restaurant.RestaurantRequest;
+import org.example.fooddeliverysystem.enums.Role;
+import org.example.fooddeliverysystem.model.Restaurant;
+import org.example.fooddeliverysystem.model.User;
+import org.example.fooddeliverysystem.repository.RestaurantRepository;
+import org.example.fooddeliverysystem.repository.UserRepository;
+import org.example.fooddeliverysystem.util.CacheKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Listing pages are cached under a per-city version; writes bump it, and loads right after a bump read the primary.
+ */
+class RestaurantListingCacheTest {
+
+	private static final long WRITE_WINDOW_MILLIS = 2_000;
+
+	private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+	private final CacheService cacheService = mock(CacheService.class);
+	private final CacheAsideLoader cacheAsideLoader = mock(CacheAsideLoader.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private RestaurantService restaurantService;
+
+	@BeforeEach
+	void setUp() {
+		restaurantService = new RestaurantService(restaurantRepository, mock(UserRepository.class), cacheService,
+				cacheAsideLoader, mock(MetricsService.class), mock(KafkaEventProducer.class),
+				mock(MenuSearchService.class), transactionManager);
+		ReflectionTestUtils.setField(restaurantService, "listingPrimaryWindowMillis", WRITE_WINDOW_MILLIS);
+
+		// Every cache lookup misses
+		when(cacheAsideLoader.get(anyString(), anyLong(), any()))
+				.thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(restaurantRepository.findByCity(eq("Pune"), any(Pageable.class)))
+				.thenAnswer(invocation -> new PageImpl<>(List.of(restaurant("Pune")), invocation.getArgument(1), 1));
+		when(restaurantRepository.findSliceByCity(eq("Pune"), any(Pageable.class)))
+				.thenAnswer(invocation -> new SliceImpl<>(List.of(restaurant("Pune")), invocation.getArgument(1), false));
+	}
+
+	@Test
+	void updateBumpsOldCityNewCityAndOpenListings() {
+		Restaurant restaurant = restaurant("Pune");
+		when(restaurantRepository.findById("r1")).thenReturn(Optional.of(restaurant));
+		when(restaurantRepository.save(restaurant)).thenReturn(restaurant);
+		RestaurantRequest request = new RestaurantRequest();
+		request.setRestaurantName("Moved");
+		request.setCity("Mumbai");
+		request.setState("MH");
+
+		restaurantService.update("r1", request);
+
+		InOrder order = inOrder(cacheService);
+		for (String city : Arrays.asList(null, "Pune", "Mumbai")) {
+			// The primary-read marker is set before the version moves
+			order.verify(cacheService).setStringWithExpiry(CacheKeys.restaurantListingWriteKey(city), "1",
+					WRITE_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+			order.verify(cacheService).incrementString(CacheKeys.restaurantListingVersionKey(city));
+		}
+	}
+
+	@Test
+	void listingIsCachedUnderCurrentVersion() {
+		when(cacheService.multiGetStrings(List.of(CacheKeys.restaurantListingVersionKey("Pune"),
+				CacheKeys.restaurantListingWriteKey("Pune")))).thenReturn(Arrays.asList("7", null));
+
+		assertEquals(1, restaurantService.findByCityWithPagination(" Pune ", 0, 20).getTotalElements());
+
+		verify(cacheAsideLoader).get(eq(CacheKeys.restaurantPageKey("Pune", null, 7, 0, 20, false)),
+				eq(CacheKeys.RESTAURANT_PAGE_TTL), any());
+		assertTrue(loadTransaction().isReadOnly(), "settled listings load from the replica");
+	}
+
+	@Test
+	void listingLoadsFromPrimaryRightAfterBump() {
+		when(cacheService.multiGetStrings(List.of(CacheKeys.restaurantListingVersionKey("Pune"),
+				CacheKeys.restaurantListingWriteKey("Pune")))).thenReturn(Arrays.asList("8", "1"));
+
+		restaurantService.findByCityWithSlice("Pune", 0, 20);
+
+		verify(cacheAsideLoader).get(eq(CacheKeys.restaurantPageKey("Pune", null, 8, 0, 20, true)),
+				eq(CacheKeys.RESTAURANT_PAGE_TTL), any());
+		assertFalse(loadTransaction().isReadOnly(), "a lagging replica must not be cached under the new version");
+	}
+
+	private TransactionDefinition loadTransaction() {
+		ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+		verify(transactionManager).getTransaction(definition.capture());
+		return definition.getValue();
+	}
+
+	private static Restaurant restaurant(String city) {
+		User owner = new User("+910000000000", "owner@example.com", "not-a-hash", "Owner", "Address", Role.RESTAURANT);
+		owner.setId("u1");
+		Restaurant restaurant = new Restaurant(owner, "Restaurant", city, "MH", "411001", 18.5, 73.8);
+		restaurant.setId("r1");
+		return restaurant;
+	}
+}
@@ -0,0 +1,34 @@
+package org.example.fooddeliverysystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+class CacheKeysTest {
+
+	@Test
+	void listingKeysEncodeCityAndState() {
+		assertEquals("restaurants:page:city:New+York:state:NY:v7:2:20",
+				CacheKeys.restaurantPageKey("New York", "NY", 7, 2, 20, false));
+		assertEquals("restaurants:page:city:Pune:v0:0:20:slice",
+				CacheKeys.restaurantPageKey("Pune", null, 0, 0, 20, true));
+		assertEquals("restaurants:page:open:v3:1:10", CacheKeys.restaurantPageKey(null, null, 3, 1, 10, false));
+		assertEquals("restaurants:version:city:New+York", CacheKeys.restaurantListingVersionKey("New York"));
+		assertEquals("restaurants:version:open", CacheKeys.restaurantListingVersionKey(null));
+	}
+
+	@Test
+	void separatorsInNamesCannotCollide() {
+		// A city containing ":state:" must not alias a different city and state pair
+		assertNotEquals(CacheKeys.restaurantPageKey("A:state:B", null, 0, 0, 20, false),
+				CacheKeys.restaurantPageKey("A", "B", 0, 0, 20, false));
+		assertEquals("restaurants:page:city:A%3Astate%3AB:v0:0:20",
+				CacheKeys.restaurantPageKey("A:state:B", null, 0, 0, 20, false));
+	}
+
+	@Test
+	void listingPagesUseTheirFamilyTtl() {
+		assertEquals(CacheKeys.RESTAURANT_PAGE_TTL, CacheKeys.ttlForKey(CacheKeys.restaurantPageKey("Pune", null, 0, 0, 20, false)));
+	}
+}
@@ -0,0 +1,89 @@
+package org.example.fooddeliverysystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HeavyHitterSketchTest {
+
+	private static final long NOW = 1_760_000_000_000L;
+
+	@Test
+	void heavyKeysSurviveLongTailInTopOrder() {
+		HeavyHitterSketch sketch = new HeavyHitterSketch(16);
+		Random random = new Random(7);
+		// Three hot keys interleaved with a long tail of keys seen once each
+		for (int i = 0; i < 10_000; i++) {
+			sketch.increment("restaurant:hot-a", NOW);
+			if (i % 2 == 0) {
+				sketch.increment("restaurant:hot-b", NOW);
+			}
+			if (i % 4 == 0) {
+				sketch.increment("restaurant:hot-c", NOW);
+			}
+			sketch.increment("restaurant:tail-" + random.nextInt(1_000_000), NOW);
+		}
+
+		Map<String, Double> top = sketch.top(3);
+		assertEquals(List.of("restaurant:hot-a", "restaurant:hot-b", "restaurant:hot-c"), List.copyOf(top.keySet()));
+		// Space-Saving never underestimates a tracked key
+		assertTrue(top.get("restaurant:hot-a") >= 10_000);
+		assertTrue(top.get("restaurant:hot-b") >= 5_000);
+		assertTrue(top.get("restaurant:hot-c") >= 2_500);
+	}
+
+	@Test
+	void untrackedKeyTakesOverLightestSlot() {
+		HeavyHitterSketch sketch = new HeavyHitterSketch(2);
+		for (int i = 0; i < 5; i++) {
+			sketch.increment("a", NOW);
+		}
+		sketch.increment("b", NOW);
+		sketch.increment("c", NOW);
+
+		assertEquals(0, sketch.estimate("b"));
+		// Inherits b's count as its overestimate
+		assertEquals(2, sketch.estimate("c"));
+		assertEquals(5, sketch.estimate("a"));
+		assertEquals(2, sketch.top(10).size());
+	}
+
+	@Test
+	void decayShrinksCountsAndEvictsIdleKeys() {
+		HeavyHitterSketch sketch = new HeavyHitterSketch(8);
+		for (int i = 0; i < 100; i++) {
+			sketch.increment("old", NOW);
+		}
+		for (int i = 0; i < 40; i++) {
+			sketch.increment("recent", NOW + 60_000);
+		}
+
+		sketch.decayAndEvict(0.5, NOW + 1);
+
+		assertEquals(0, sketch.estimate("old"));
+		assertEquals(20, sketch.estimate("recent"), 1e-9);
+		assertEquals(Map.of("recent", 20.0), sketch.top(5));
+	}
+
+	@Test
+	void decayLetsNewLoadOvertakeFormerTop() {
+		HeavyHitterSketch sketch = new HeavyHitterSketch(8);
+		for (int i = 0; i < 1_000; i++) {
+			sketch.increment("lunch-rush", NOW);
+		}
+		for (int round = 1; round <= 5; round++) {
+			sketch.increment("lunch-rush", NOW + round);
+			for (int i = 0; i < 200; i++) {
+				sketch.increment("dinner-rush", NOW + round);
+			}
+			sketch.decayAndEvict(0.5, NOW);
+		}
+
+		assertEquals("dinner-rush", sketch.top(1).keySet().iterator().next());
+	}
+}
@@ -0,0 +1,136 @@
+package org.example.fooddeliverysystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Replays a simulated delivery shift through the store: one ping every ~4 s from a moving vehicle.
+ */
+class LocationHistoryLogTest {
+
+	private static final String DRIVER_ID = "0190f0c2-6a3e-7cc1-9b2d-3f1e2a4b5c6d";
+	private static final long HOUR_MILLIS = 3_600_000L;
+	private static final long START = 1_760_000_000_000L;
+	private static final int SEGMENT_BYTES = 1024 * 1024;
+	private static final int CHUNK_BYTES = 1024;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void driverHourTakesAFewKilobytes() throws IOException {
+		LocationHistoryLog log = open(HOUR_MILLIS);
+		List<long[]> pings = drive(START, HOUR_MILLIS);
+		for (long[] ping : pings) {
+			assertTrue(log.append(DRIVER_ID, ping[0], degrees(ping[1]), degrees(ping[2])));
+		}
+		log.close();
+
+		assertEquals(pings.size(), log.storedPoints());
+		assertTrue(log.storedBytes() < 8 * 1024, String.format("driver-hour took %d bytes for %d pings (%.1f bytes/ping)",
+				log.storedBytes(), pings.size(), (double) log.storedBytes() / pings.size()));
+	}
+
+	@Test
+	void routeIsReadBackExactlyAfterRestart() throws IOException {
+		LocationHistoryLog log = open(HOUR_MILLIS);
+		List<long[]> pings = drive(START, 2 * HOUR_MILLIS);
+		for (long[] ping : pings) {
+			log.append(DRIVER_ID, ping[0], degrees(ping[1]), degrees(ping[2]));
+		}
+
+		long from = START + HOUR_MILLIS / 2;
+		long to = START + HOUR_MILLIS + HOUR_MILLIS / 3;
+		List<long[]> expected = new ArrayList<>();
+		for (long[] ping : pings) {
+			if (ping[0] >= from && ping[0] <= to) {
+				expected.add(ping);
+			}
+		}
+
+		// Sealed chunks and the open one
+		assertRoute(expected, log, from, to);
+
+		log.close();
+		assertRoute(expected, open(HOUR_MILLIS), from, to);
+	}
+
+	@Test
+	void stalePingsAreDropped() throws IOException {
+		LocationHistoryLog log = open(HOUR_MILLIS);
+		assertTrue(log.append(DRIVER_ID, START, 18.5204, 73.8567));
+		assertFalse(log.append(DRIVER_ID, START, 18.5205, 73.8568));
+
+		log.close();
+		assertFalse(log.append(DRIVER_ID, START - 1, 18.5205, 73.8568));
+		assertTrue(log.append(DRIVER_ID, START + 4_000, 18.5205, 73.8568));
+	}
+
+	@Test
+	void retentionDropsWholeSegments() throws IOException {
+		// Every sealed chunk starts a new segment
+		LocationHistoryLog log = open(0);
+		for (long[] ping : drive(START, HOUR_MILLIS)) {
+			log.append(DRIVER_ID, ping[0], degrees(ping[1]), degrees(ping[2]));
+		}
+		log.close();
+		long newer = START + 10 * HOUR_MILLIS;
+		log.append(DRIVER_ID, newer, 18.5204, 73.8567);
+		log.close();
+
+		assertTrue(log.dropSegmentsBefore(newer) > 0);
+		List<long[]> old = new ArrayList<>();
+		log.route(DRIVER_ID, START, START + HOUR_MILLIS, (timestamp, latitude, longitude) -> old.add(null));
+		assertTrue(old.isEmpty());
+		List<long[]> kept = new ArrayList<>();
+		log.route(DRIVER_ID, newer, newer, (timestamp, latitude, longitude) -> kept.add(null));
+		assertEquals(1, kept.size());
+		assertEquals(1, log.storedPoints());
+	}
+
+	private LocationHistoryLog open(long segmentMillis) throws IOException {
+		return new LocationHistoryLog(directory, SEGMENT_BYTES, segmentMillis, CHUNK_BYTES, 5 * 60_000L);
+	}
+
+	private static void assertRoute(List<long[]> expected, LocationHistoryLog log, long from, long to) {
+		List<long[]> actual = new ArrayList<>();
+		log.route(DRIVER_ID, from, to,
+				(timestamp, latitude, longitude) -> actual.add(new long[] { timestamp, latitude, longitude }));
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			for (int field = 0; field < 3; field++) {
+				assertEquals(expected.get(i)[field], actual.get(i)[field]);
+			}
+		}
+	}
+
+	// Pings as { timestamp, latitude e6, longitude e6 }: ~4 s apart with jitter, moving up to ~12 m/s
+	private static List<long[]> drive(long start, long duration) {
+		Random random = new Random(42);
+		List<long[]> pings = new ArrayList<>();
+		long timestamp = start;
+		long latitude = 18_520_400;
+		long longitude = 73_856_700;
+		while (timestamp < start + duration) {
+			pings.add(new long[] { timestamp, latitude, longitude });
+			timestamp += 4_000 + random.nextInt(401) - 200;
+			latitude += random.nextInt(801) - 400;
+			longitude += random.nextInt(801) - 400;
+		}
+		return pings;
+	}
+
+	private static double degrees(long fixedPoint) {
+		return RouteChunk.toDegrees((int) fixedPoint);
+	}
+}
@@ -0,0 +1,139 @@
+package org.example.fooddeliverysystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Matching rules on a small index, then query latency on a million generated menu items (benchmark tag,
+ * run with {@code ./gradlew benchmark}).
+ */
+class MenuSearchIndexTest {
+
+	private static final String[] DISH_WORDS = { "paneer", "tikka", "butter", "chicken", "masala", "biryani", "dal",
+			"makhani", "naan", "garlic", "tandoori", "kebab", "pizza", "margherita", "pepperoni", "pasta", "alfredo",
+			"burger", "cheese", "veggie", "noodles", "hakka", "manchurian", "fried", "rice", "schezwan", "momo",
+			"spring", "roll", "samosa", "chaat", "pav", "bhaji", "dosa", "masala", "idli", "vada", "sambar", "coffee",
+			"lassi", "mango", "kulfi", "gulab", "jamun", "brownie", "sundae", "salad", "caesar", "wrap", "falafel",
+			"hummus", "shawarma", "korma", "vindaloo", "rogan", "josh", "keema", "paratha", "aloo", "gobi", "palak" };
+	private static final String[] DESCRIPTION_WORDS = { "spicy", "creamy", "smoky", "served", "with", "fresh",
+			"herbs", "house", "special", "sauce", "crispy", "slow", "cooked", "grilled", "tangy", "sweet", "mild",
+			"homemade", "classic", "tandoor", "onion", "tomato", "mint", "chutney", "yogurt", "cheddar", "basil" };
+
+	@Test
+	void matchesPrefixesTyposAndEveryWord() {
+		MenuSearchIndex index = new MenuSearchIndex();
+		index.upsertRestaurant("r1", "Pune", "Spice Route", true);
+		index.upsertFoodItem("i1", "r1", "Paneer Tikka", "Cottage cheese grilled in a tandoor", 249.0);
+		index.upsertFoodItem("i2", "r1", "Chicken Tikka Masala", "Creamy tomato gravy", 299.0);
+		index.upsertFoodItem("i3", "r1", "Cr\u00e8me Br\u00fbl\u00e9e", null, 199.0);
+
+		// Equal scores: newest first
+		assertEquals(List.of("i2", "i1"), ids(index.search("Pune", "tikka", 10)));
+		assertEquals(List.of("i1"), ids(index.search("pune", "pan tik", 10)));
+		assertEquals(List.of("i1"), ids(index.search("Pune", "paner tika", 10)));
+		assertEquals(List.of("i1"), ids(index.search("Pune", "tikka cottage", 10)));
+		assertEquals(List.of("i3"), ids(index.search("Pune", "creme brulee", 10)));
+		assertEquals(List.of("r1"), ids(index.search("Pune", "spice", 10)));
+		assertTrue(index.search("Pune", "tikka pizza", 10).isEmpty());
+		assertTrue(index.search("Mumbai", "tikka", 10).isEmpty());
+
+		MenuSearchIndex.Hit hit = index.search("Pune", "paneer", 1).get(0);
+		assertEquals("Spice Route", hit.getRestaurantName());
+		assertTrue(hit.isOpen());
+	}
+
+	@Test
+	void namesRankAboveDescriptions() {
+		MenuSearchIndex index = new MenuSearchIndex();
+		index.upsertRestaurant("r1", "Pune", "Spice Route", true);
+		index.upsertFoodItem("i1", "r1", "Garlic Naan", "Brushed with butter", 60.0);
+		index.upsertFoodItem("i2", "r1", "Butter Naan", null, 50.0);
+
+		assertEquals(List.of("i2", "i1"), ids(index.search("Pune", "butter", 10)));
+	}
+
+	@Test
+	void updatesApplyIncrementally() {
+		MenuSearchIndex index = new MenuSearchIndex();
+		index.upsertRestaurant("r1", "Pune", "Spice Route", true);
+		index.upsertFoodItem("i1", "r1", "Paneer Tikka", null, 249.0);
+
+		index.upsertFoodItem("i1", "r1", "Paneer Butter Masala", null, 269.0);
+		assertTrue(index.search("Pune", "tikka", 10).isEmpty());
+		assertEquals(269.0, index.search("Pune", "butter", 10).get(0).getPrice());
+
+		index.upsertRestaurant("r1", "Mumbai", "Spice Route Express", false);
+		assertTrue(index.search("Pune", "paneer", 10).isEmpty());
+		MenuSearchIndex.Hit moved = index.search("Mumbai", "paneer", 10).get(0);
+		assertEquals("Spice Route Express", moved.getRestaurantName());
+		assertFalse(moved.isOpen());
+
+		index.removeFoodItem("i1", "r1");
+		assertTrue(index.search("Mumbai", "paneer", 10).isEmpty());
+		assertEquals(1, index.size());
+		assertFalse(index.upsertFoodItem("i2", "unknown", "Dal Makhani", null, 199.0));
+	}
+
+	@Test
+	@Tag("benchmark")
+	void queriesAMillionItemsInMilliseconds() {
+		int cities = 20;
+		int restaurantsPerCity = 1_000;
+		int itemsPerRestaurant = 50;
+		Random random = new Random(42);
+		MenuSearchIndex index = new MenuSearchIndex();
+
+		for (int c = 0; c < cities; c++) {
+			for (int r = 0; r < restaurantsPerCity; r++) {
+				String restaurantId = c + "-" + r;
+				index.upsertRestaurant(restaurantId, "City " + c, words(random, DISH_WORDS, 1) + " House " + r, true);
+				for (int i = 0; i < itemsPerRestaurant; i++) {
+					index.upsertFoodItem(restaurantId + "-" + i, restaurantId, words(random, DISH_WORDS, 3),
+							words(random, DESCRIPTION_WORDS, 6), 100.0 + i);
+				}
+			}
+		}
+		assertEquals(cities * restaurantsPerCity * (itemsPerRestaurant + 1), index.size());
+
+		String[] queries = { "paneer tikka", "chick", "biriyani", "butter chicken", "masla dosa", "garlic naan",
+				"spicy chicken", "pizza margherita", "momo", "gulab jamun", "pa", "crispy fried rice" };
+		for (int i = 0; i < 2_000; i++) {
+			index.search("City " + (i % cities), queries[i % queries.length], 20);
+		}
+		long[] latencies = new long[5_000];
+		for (int i = 0; i < latencies.length; i++) {
+			long start = System.nanoTime();
+			index.search("City " + random.nextInt(cities), queries[i % queries.length], 20);
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+
+		// Target is a p99 under 5 ms; it runs well below 1 ms on a laptop
+		double p99Millis = latencies[latencies.length * 99 / 100] / 1e6;
+		assertTrue(p99Millis < 5, "query p99 was " + p99Millis + " ms");
+		assertFalse(index.search("City 3", "biriyani", 20).isEmpty());
+	}
+
+	private static List<String> ids(List<MenuSearchIndex.Hit> hits) {
+		return hits.stream().map(MenuSearchIndex.Hit::getId).toList();
+	}
+
+	private static String words(Random random, String[] vocabulary, int count) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				text.append(' ');
+			}
+			text.append(vocabulary[random.nextInt(vocabulary.length)]);
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,43 @@
+-- Dataset for RepositoryIndexUsageTest, sized so the planner prefers the indexes over sequential scans:
+-- 30k users, 5k restaurants in 100 cities, 2k drivers, 100k menu items and 200k orders over 90 days.
+
+INSERT INTO users (id, phone_no, email, password, name, role, enabled, created_at, updated_at)
+SELECT gen_random_uuid(), '+1' || lpad(g::text, 10, '0'), 'user' || g || '@example.com', 'not-a-hash',
+       'User ' || g,
+       CASE WHEN g <= 5000 THEN 'RESTAURANT' WHEN g <= 7000 THEN 'DELIVERY_PARTNER' ELSE 'USER' END,
+       true, now(), now()
+FROM generate_series(1, 30000) g;
+
+INSERT INTO restaurants (id, user_id, restaurant_name, city, state, zip_code, latitude, longitude,
+                         is_open, created_at, updated_at)
+SELECT gen_random_uuid(), u.id, 'Restaurant ' || u.n, 'City ' || (u.n % 100), 'State ' || (u.n % 100 / 10),
+       lpad((u.n % 100000)::text, 5, '0'), 12.9, 77.5, u.n % 10 < 7, now(), now()
+FROM (SELECT id, row_number() OVER (ORDER BY email) AS n FROM users WHERE role = 'RESTAURANT') u;
+
+INSERT INTO drivers (id, user_id, license_number, vehicle_number, on_leave, created_at, updated_at)
+SELECT gen_random_uuid(), id, 'DL-' || phone_no, 'KA-' || phone_no, false, now(), now()
+FROM users
+WHERE role = 'DELIVERY_PARTNER';
+
+INSERT INTO food_items (id, restaurant_id, name, price, is_available, is_deleted, created_at, updated_at)
+SELECT gen_random_uuid(), r.id, 'Item ' || i, 50 + i * 10, i % 5 <> 0, i = 20, now(), now()
+FROM restaurants r
+CROSS JOIN generate_series(1, 20) i;
+
+WITH u AS (SELECT array_agg(id) AS ids FROM users WHERE role = 'USER'),
+     r AS (SELECT array_agg(id) AS ids FROM restaurants),
+     d AS (SELECT array_agg(id) AS ids FROM drivers)
+INSERT INTO orders (id, order_number, user_id, restaurant_id, driver_id, items_json, order_status, address,
+                    latitude, longitude, amount, created_at, updated_at)
+SELECT gen_random_uuid(), 'ORD-SEED' || lpad(g::text, 8, '0'),
+       u.ids[1 + g % cardinality(u.ids)],
+       r.ids[1 + (g * 7) % cardinality(r.ids)],
+       -- Orders still waiting for dispatch have no driver
+       CASE WHEN g % 10 < 3 THEN NULL ELSE d.ids[1 + g % cardinality(d.ids)] END,
+       '[]'::jsonb,
+       (ARRAY['PENDING', 'CONFIRMED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY', 'DELIVERED', 'CANCELLED'])[1 + g % 7],
+       'Seed address', 12.9, 77.5, 250,
+       now() - (g % 129600) * interval '1 minute', now()
+FROM generate_series(1, 200000) g, u, r, d;
+
+ANALYZE users, restaurants, drivers, food_items, orders;